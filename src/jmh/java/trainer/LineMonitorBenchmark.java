@@ -0,0 +1,74 @@
+package trainer;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import trainer.lineCreators.InitException;
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+/**
+ * Measures the cost of a single keystroke: {@link LineMonitor#advanceIfCorrect(char)} driven
+ * through a running {@link PracticeController}, including line changes at every newline char.
+ * 
+ * <p>The share of wrongly typed chars is set by <i>missRate</i>. A miss is followed by the
+ * next keystroke of the pattern, so the typist keeps trying the same char until it is hit.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineMonitorBenchmark {
+	
+	private static final int PATTERN_SIZE = 1024; // must be a power of two
+	
+	@Param({"GENERIC_RAND", "ADAPT_RAND"})
+	public String lineCreatorType;
+	
+	@Param({"0.0", "0.05", "0.2"})
+	public double missRate;
+	
+	private LineMonitor lineMonitor;
+	private boolean[] missPattern = new boolean[PATTERN_SIZE];
+	private int keystroke;
+	
+	@Setup
+	public void setUp() throws ImplementationNotFound, InitException {
+		Exercise exercise = new Exercise(-1, "Benchmark", new ExerciseGroup("Benchmark", false),
+				lineCreatorType, "asdfghjklö", Exercise.LimitType.NONE, 0);
+		PracticeController pc = new PracticeController(exercise, 60, 42);
+		pc.ready();
+		pc.run();
+		lineMonitor = pc.getLineMonitor();
+		Random random = new Random(42);
+		for(int i=0; i<PATTERN_SIZE; ++i) {
+			missPattern[i] = random.nextDouble() < missRate;
+		}
+	}
+	
+	@Benchmark
+	public boolean typeChar() {
+		char expected = lineMonitor.getCurrentChar();
+		if(missPattern[keystroke++ & (PATTERN_SIZE-1)])
+			return lineMonitor.advanceIfCorrect((char) (expected+1));
+		return lineMonitor.advanceIfCorrect(expected);
+	}
+
+}
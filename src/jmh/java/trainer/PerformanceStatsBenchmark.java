@@ -0,0 +1,70 @@
+package trainer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-keystroke bookkeeping of {@link PerformanceStats}. The chars cycle through
+ * the char set of the largest built-in exercise, so every benchmark call hits a char that has
+ * already been recorded before.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerformanceStatsBenchmark {
+	
+	private static final char[] CHARS =
+			"abcdefghijklmnopqrstuvwxyzäöüßABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÜ.,-;: \n".toCharArray();
+	
+	private PerformanceStats ps;
+	private int index;
+	
+	@Setup
+	public void setUp() {
+		ps = new PerformanceStats();
+		for(char c : CHARS) {
+			ps.addHit(c);
+			ps.addError(c);
+			ps.addWrongTyped(c);
+		}
+	}
+	
+	private char nextChar() {
+		if(index == CHARS.length)
+			index = 0;
+		return CHARS[index++];
+	}
+	
+	@Benchmark
+	public void addHit() {
+		ps.addHit(nextChar());
+	}
+	
+	@Benchmark
+	public void addError() {
+		ps.addError(nextChar());
+	}
+	
+	@Benchmark
+	public void addWrongTyped() {
+		ps.addWrongTyped(nextChar());
+	}
+
+}
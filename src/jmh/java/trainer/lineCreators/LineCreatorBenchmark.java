@@ -0,0 +1,94 @@
+package trainer.lineCreators;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import trainer.PerformanceStats;
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+/**
+ * Measures the creation of a single line for every built-in {@link LineCreator} type of
+ * {@link LineCreatorFactory}. The parameters correspond to the largest built-in exercises.
+ * 
+ * <p>The adaptive types work on a <code>PerformanceStats</code> that already contains hits
+ * and errors for every char of the char set. A <i>text</i> <code>LineCreator</code> that runs
+ * out of text is replaced by a new one, so its numbers include the occasional re-creation.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LineCreatorBenchmark {
+	
+	private static final int MAX_LINE_LENGTH = 60;
+	private static final String CHARS_E21 = "abcdefghijklmnopqrstuvwxyzäöüß.,-";
+	private static final String CHARS_E22 =
+			"abcdefghijklmnopqrstuvwxyzäöüßABCDEFGHIJKLMNOPQRSTUVWXYZÄÖÜ.,-;:";
+	
+	@Param({"GENERIC_RAND", "GENERIC_RAND_LANG", "ADAPT_RAND", "ADAPT_RAND_LANG", "wordList",
+		"text"})
+	public String type;
+	
+	private String param;
+	private PerformanceStats ps;
+	private LineCreator lineCreator;
+	private SplittableRandom random;
+	
+	@Setup
+	public void setUp() throws ImplementationNotFound, InitException {
+		switch(type) {
+		case "GENERIC_RAND": case "ADAPT_RAND":
+			param = CHARS_E21;
+			break;
+		case "GENERIC_RAND_LANG": case "ADAPT_RAND_LANG":
+			param = CHARS_E22;
+			break;
+		case "wordList":
+			param = "isLocal=True;fileName=upperRow_de.txt";
+			break;
+		case "text":
+			param = "isLocal=True;fileName=Johannes Schlaf_ In Dingsda.txt";
+			break;
+		default:
+			throw new IllegalArgumentException(type);
+		}
+		ps = new PerformanceStats();
+		for(int i=0; i<CHARS_E22.length(); ++i) {
+			char c = CHARS_E22.charAt(i);
+			for(int j=0; j<=i%5; ++j)
+				ps.addHit(c);
+			for(int j=0; j<i%3; ++j)
+				ps.addError(c);
+		}
+		random = new SplittableRandom(42);
+		lineCreator = LineCreatorFactory.getLineCreator(type, param, ps, random.split());
+	}
+	
+	@Benchmark
+	public String createLine() throws ImplementationNotFound, InitException {
+		if(!lineCreator.hasNext()) {
+			lineCreator.stop();
+			lineCreator = LineCreatorFactory.getLineCreator(type, param, ps, random.split());
+		}
+		return lineCreator.create(MAX_LINE_LENGTH);
+	}
+
+}
@@ -0,0 +1,167 @@
+package gui;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+import javax.swing.Timer;
+
+/**
+ * <p>Ends transient highlights, like blinking keys or an error signal, after their display
+ * time.
+ *
+ * <p>All highlights share a single <tt>javax.swing.Timer</tt> that ticks once per frame of
+ * the display and only runs while highlights are pending. The expiry times are kept in
+ * primitive arrays, so that scheduling a highlight does not allocate memory. All
+ * highlights that expire within the same frame are ended in one tick, in the order in which
+ * they have been scheduled, so that the repaints they request are coalesced by the
+ * <tt>RepaintManager</tt> into a single paint.
+ *
+ * <p>The scheduler must only be used on the event dispatch thread.
+ *
+ * @author Lasse Osterhagen
+ *
+ */
+public class AnimationScheduler {
+
+	/**
+	 * Receives the end of a highlight.
+	 */
+	@FunctionalInterface
+	public interface Expiry {
+		/**
+		 * Called on the event dispatch thread when the display time of a highlight is over.
+		 * @param tag the tag that has been passed to
+		 * {@link AnimationScheduler#schedule(Expiry, int, int)}
+		 */
+		void expired(int tag);
+	}
+
+	private static final int DEFAULT_REFRESH_RATE = 60;
+
+	// Singleton pattern
+	private static class Holder {
+		static final AnimationScheduler instance =
+				new AnimationScheduler(1000/getRefreshRate(), System::nanoTime);
+	}
+	public static AnimationScheduler getInstance() {return Holder.instance;}
+
+	private final LongSupplier clock;
+	private final Timer timer;
+
+	// Pending highlights in the order of scheduling
+	private int size;
+	private long[] expiryTimes = new long[16];
+	private int[] tags = new int[16];
+	private Expiry[] targets = new Expiry[16];
+
+	// Highlights that expire in the current tick
+	private int expiredSize;
+	private int[] expiredTags = new int[16];
+	private Expiry[] expiredTargets = new Expiry[16];
+
+	/**
+	 * Construct an AnimationScheduler.
+	 * @param frameMillis the time between two ticks in milliseconds
+	 * @param clock the source of the current time in nanoseconds
+	 */
+	AnimationScheduler(int frameMillis, LongSupplier clock) {
+		this.clock = clock;
+		timer = new Timer(Math.max(1, frameMillis), evt -> tick());
+		timer.setCoalesce(true);
+	}
+
+	/**
+	 * Schedule the end of a highlight.
+	 * @param target receives the end of the highlight
+	 * @param tag an arbitrary value that is passed to the <tt>target</tt>
+	 * @param delayMillis the display time of the highlight in milliseconds
+	 */
+	public void schedule(Expiry target, int tag, int delayMillis) {
+		if(size == expiryTimes.length) {
+			int capacity = 2*size;
+			expiryTimes = Arrays.copyOf(expiryTimes, capacity);
+			tags = Arrays.copyOf(tags, capacity);
+			targets = Arrays.copyOf(targets, capacity);
+		}
+		expiryTimes[size] = clock.getAsLong() + delayMillis*1_000_000L;
+		tags[size] = tag;
+		targets[size] = target;
+		++size;
+		if(!timer.isRunning())
+			timer.start();
+	}
+
+	/**
+	 * Remove all pending highlights of a target without ending them.
+	 * @param target the target whose highlights should be removed
+	 */
+	public void cancel(Expiry target) {
+		int n = 0;
+		for(int i=0; i<size; ++i) {
+			if(targets[i] != target)
+				move(i, n++);
+		}
+		Arrays.fill(targets, n, size, null);
+		size = n;
+		if(size == 0)
+			timer.stop();
+	}
+
+	/**
+	 * Get the number of highlights that have not ended yet.
+	 * @return the number of pending highlights
+	 */
+	public int getPendingCount() {
+		return size;
+	}
+
+	/**
+	 * End all highlights whose display time is over.
+	 */
+	void tick() {
+		long now = clock.getAsLong();
+		// Collect the expired highlights first, so that their targets may schedule new ones
+		int n = 0;
+		for(int i=0; i<size; ++i) {
+			if(expiryTimes[i] - now <= 0) {
+				if(expiredSize == expiredTags.length) {
+					expiredTags = Arrays.copyOf(expiredTags, 2*expiredSize);
+					expiredTargets = Arrays.copyOf(expiredTargets, 2*expiredSize);
+				}
+				expiredTags[expiredSize] = tags[i];
+				expiredTargets[expiredSize++] = targets[i];
+			}
+			else
+				move(i, n++);
+		}
+		Arrays.fill(targets, n, size, null);
+		size = n;
+		try {
+			for(int i=0; i<expiredSize; ++i)
+				expiredTargets[i].expired(expiredTags[i]);
+		}
+		finally {
+			Arrays.fill(expiredTargets, 0, expiredSize, null);
+			expiredSize = 0;
+			if(size == 0)
+				timer.stop();
+		}
+	}
+
+	private void move(int from, int to) {
+		expiryTimes[to] = expiryTimes[from];
+		tags[to] = tags[from];
+		targets[to] = targets[from];
+	}
+
+	private static int getRefreshRate() {
+		if(GraphicsEnvironment.isHeadless())
+			return DEFAULT_REFRESH_RATE;
+		int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+				.getDisplayMode().getRefreshRate();
+		return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? DEFAULT_REFRESH_RATE : rate;
+	}
+
+}
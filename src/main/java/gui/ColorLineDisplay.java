@@ -7,14 +7,13 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.font.TextAttribute;
 
-import javax.swing.Timer;
-
 /**
  * A <tt>LineDisplay</tt> class that allows to highlight chars and to display an error signal.
  * 
  * Highlighting always starts from the first char (left side) and extends to the specified
  * numbers of chars. The error signal shortly displays a colored rectangle, appearing as
- * a blinking, instead of the text line.
+ * a blinking, instead of the text line. The end of the error signal is scheduled by the
+ * shared {@link AnimationScheduler}; it lasts until the signal time of the last error is over.
  * 
  * @author Lasse Osterhagen
  *
@@ -27,6 +26,13 @@ public class ColorLineDisplay extends LineDisplay {
 	private Color errorColor = Color.red;
 	private int signalTime = 150;
 	private boolean errorSignal = false;
+	private int pendingSignals;
+	private final AnimationScheduler.Expiry signalEnd = tag -> {
+		if(--pendingSignals == 0) {
+			errorSignal = false;
+			repaint();
+		}
+	};
 	
 	/**
 	 * Create a ColorLineDisplay component.
@@ -88,10 +94,8 @@ public class ColorLineDisplay extends LineDisplay {
 		errorSignal = true;
 		repaint();
 		// Schedule the end of the error signal painting
-		Timer timer = new Timer(signalTime,
-				(evt)->{errorSignal=false;repaint();});
-		timer.setRepeats(false);
-		timer.start();
+		++pendingSignals;
+		AnimationScheduler.getInstance().schedule(signalEnd, 0, signalTime);
 	}
 	
 	public void paint(Graphics g) {
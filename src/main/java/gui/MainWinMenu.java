@@ -1,19 +1,26 @@
 package gui;
 
 import javax.swing.JCheckBoxMenuItem;
+import javax.swing.JFileChooser;
 import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.SwingWorker;
 
 import persistence.DbAccess;
 import trainer.Exercise;
+import trainer.lineCreators.TextImporter;
 
 import static gui.Util.getGUIText;
 import static gui.Util.getKeyCodeFromString;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.nio.file.Path;
+import java.text.MessageFormat;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 
 public class MainWinMenu {
@@ -41,6 +48,9 @@ public class MainWinMenu {
 					opEx.ifPresent(ex-> mw.setExercise(ex));
 				}
 				break;
+			case "importText":
+				importText();
+				break;
 			case "showKeyboard":
 				JCheckBoxMenuItem item = (JCheckBoxMenuItem) event.getSource();
 				if(item.isSelected()) {
@@ -62,7 +72,7 @@ public class MainWinMenu {
 			case "uninstall":
 				if(mw.conditionalStopPractice()) {
 					if(install.StartEnd.showUninstallConfirmDlg()) {
-						DbAccess.getInstance().disconnect();
+						DbAccess.disconnect();
 						install.StartEnd.uninstall(true);
 						System.exit(0);
 					}
@@ -79,6 +89,7 @@ public class MainWinMenu {
 		menu.setMnemonic(getKeyCodeFromString(getGUIText("exerciseMnemonic")));
 		menuBar.add(menu);
 		addItem(menu, new JMenuItem(), "select", "selectMnemonic");
+		addItem(menu, new JMenuItem(), "importText", "importTextMnemonic");
 		
 		// Second column
 		menu = new JMenu(getGUIText("keyboard"));
@@ -93,6 +104,45 @@ public class MainWinMenu {
 		addItem(menu, new JMenuItem(), "uninstall", "uninstallMnemonic");
 	}
 	
+	/**
+	 * Lets the user choose a UTF-8 text and imports it into the texts directory by a
+	 * {@link TextImporter}. The import runs in the background, and its result is shown in a
+	 * message dialog.
+	 */
+	private void importText() {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setDialogTitle(getGUIText("importTextTitle"));
+		if(chooser.showOpenDialog(mw) != JFileChooser.APPROVE_OPTION)
+			return;
+		Path source = chooser.getSelectedFile().toPath();
+		// The texts are converted for the default keyboard layout
+		String countryID = install.Constants.defaultKeyboardLayout.split("_")[0];
+		new SwingWorker<String, Void>() {
+			@Override
+			protected String doInBackground() throws Exception {
+				return new TextImporter(countryID).importIntoTextsDir(source);
+			}
+			
+			@Override
+			protected void done() {
+				try {
+					JOptionPane.showMessageDialog(mw,
+							MessageFormat.format(getGUIText("importTextDoneMsg"), get()),
+							getGUIText("importTextTitle"), JOptionPane.INFORMATION_MESSAGE);
+				}
+				catch (ExecutionException e) {
+					e.getCause().printStackTrace();
+					JOptionPane.showMessageDialog(mw,
+							MessageFormat.format(getGUIText("importTextErrorMsg"),
+									source.getFileName(), e.getCause().getMessage()),
+							getGUIText("importTextTitle"), JOptionPane.ERROR_MESSAGE);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}.execute();
+	}
 	
 	/**
 	 * Adds a <code>JMenuItem</code> to a <code>JMenu</code> (which is a column of a
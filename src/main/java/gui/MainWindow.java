@@ -8,6 +8,10 @@ import java.awt.GridBagLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
 import java.util.Observable;
 import java.util.Observer;
 import java.util.Optional;
@@ -26,8 +30,10 @@ import javax.swing.WindowConstants;
 
 import gui.keyboard.Keyboard;
 import persistence.DbAccess;
+import persistence.SessionWriter;
 import trainer.Exercise;
 import trainer.KeyTypedEvent;
+import trainer.KeystrokeJournal;
 import trainer.LineMonitor;
 import trainer.PracticeController;
 import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
@@ -37,6 +43,10 @@ import trainer.lineCreators.InitException;
 public class MainWindow extends JFrame implements Observer {
 	
 	private static final int MAX_LINE_LENGTH = 60;
+	/**
+	 * Application property that enables the {@link KeystrokeJournal} if set to <i>true</i>.
+	 */
+	private static final String KEYSTROKE_JOURNAL_PROPERTY = "keystrokeJournal";
 	
 	private JLabel practiceUnitLabel = new JLabel(getGUIText("notSelected"), JLabel.RIGHT);
 	private JLabel typedCharLabel = new JLabel("0", JLabel.RIGHT);
@@ -146,11 +156,26 @@ public class MainWindow extends JFrame implements Observer {
 	// Reset PracticeController and KeyMonitor to new Exercise
 	private void resetExercise() throws ImplementationNotFound, InitException {
 		pc = new PracticeController(exercise, MAX_LINE_LENGTH);
+		if(Boolean.parseBoolean(install.StartEnd.getProperty(KEYSTROKE_JOURNAL_PROPERTY)))
+			openKeystrokeJournal();
 		pc.addObserver(this);
 		lineMonitor = pc.getLineMonitor();
 		lineMonitor.addObserver(this);
 	}
 	
+	private void openKeystrokeJournal() {
+		try {
+			Path dir = install.Constants.getJournalDir();
+			Files.createDirectories(dir);
+			pc.setKeystrokeJournal(new KeystrokeJournal(dir.resolve(
+					exercise.getId() + "_" + System.currentTimeMillis() + ".ktj"),
+					exercise.getId()));
+		} catch (IOException e) {
+			// practice without journal
+			e.printStackTrace();
+		}
+	}
+	
 	private void resetLabels() {
 		typedCharLabel.setText("0");
 		faultsLabel.setText("0");
@@ -252,11 +277,15 @@ public class MainWindow extends JFrame implements Observer {
 			@Override
 			public void windowClosing(WindowEvent arg0) {
 				if(conditionalStopPractice()) {
-					DbAccess.getInstance().disconnect();
+					DbAccess.disconnect();
 					System.exit(0);
 				}
 			}	
 		});
+		SessionWriter.getInstance().setFailureListener((e, n) -> SwingUtilities.invokeLater(
+				() -> JOptionPane.showMessageDialog(this,
+						MessageFormat.format(getGUIText("sessionWriteErrorMsg"), n),
+						getGUIText("sessionWriteErrorTitle"), JOptionPane.ERROR_MESSAGE)));
 		setJMenuBar(new MainWinMenu(this).getMenuBar());
 		add(getLabelPanel(), BorderLayout.PAGE_START);
 		middlePanel = new JPanel();
@@ -1,7 +1,10 @@
 package gui.keyboard;
 
 /**
- * Coordinates of a rectangle: top left point (x1/y1) and bottom right point (x2/y2).
+ * Immutable coordinates of a rectangle: top left point (x1/y1) and bottom right point (x2/y2).
+ * 
+ * <p>The coordinates of a key of a {@link KeyboardModel} carry the id of the key. The id
+ * does not take part in {@link #equals(Object)}.
  * 
  * @author Lasse Osterhagen
  *
@@ -9,13 +12,18 @@ package gui.keyboard;
 
 class Coordinates {
 	
-	int x1, y1, x2, y2;
+	final int x1, y1, x2, y2;
+	/**
+	 * The id of the key, -1 if unknown.
+	 */
+	final int id;
 	
-	public Coordinates() {
-		this(0, 0, 0, 0);
+	public Coordinates(int x1, int y1, int x2, int y2) {
+		this(-1, x1, y1, x2, y2);
 	}
 	
-	public Coordinates(int x1, int y1, int x2, int y2) {
+	Coordinates(int id, int x1, int y1, int x2, int y2) {
+		this.id = id;
 		this.x1 = x1;
 		this.y1 = y1;
 		this.x2 = x2;
@@ -1,15 +1,6 @@
 package gui.keyboard;
 
 import java.awt.event.KeyEvent;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Scanner;
-import java.util.Set;
 
 /**
  * Maps unicode characters or {@link java.awt.event.KeyEvent} to pixel
@@ -71,48 +62,32 @@ import java.util.Set;
  * white spaces) that need the left shift modifier key if they are capitals, as opposed to letters
  * that need the right shift modifier key.
  * 
+ * <p>The files of a layout are compiled into a {@link KeyboardModel} once per process.
+ * 
  * @author Lasse Osterhagen
  *
  */
 public class KeyMapper {
 	
-	private static final Charset CHARSET = persistence.Constants.PROJECT_CHARSET;
-	private Set<Character> lShiftLetters = new HashSet<>();
-	private Map<Character, Coordinates> letters = new HashMap<>();
-	private Map<Character, Coordinates> noShift = new HashMap<>();
-	private Map<Character, Coordinates> lShift = new HashMap<>();
-	private Map<Character, Coordinates> rShift = new HashMap<>();
-	private Map<Character, Coordinates> altgr = new HashMap<>();
-	private Coordinates[] enterCo;
-	private Coordinates lShiftCo;
-	private Coordinates rShiftCo;
-	private Coordinates lCtrlCo;
-	private Coordinates rCtrlCo;
-	private Coordinates altCo;	
-	private Coordinates altgrCo;
+	private final KeyboardModel model;
 	
 	/**
 	 * Create a KeyMapper for the specified locale
 	 * @param layoutID a complete language_country Locale like <i>en_GB</i> or <i>de_DE</i>
 	 */
 	public KeyMapper(String layoutID) {
-		try {
-			fillSetLShiftLetter("set_letters_lshift_" + layoutID + ".txt");
-			fillMap("co_letters_" + layoutID + ".csv", letters);
-			fillMap("co_noshift_" + layoutID + ".csv", noShift);
-			fillMap("co_lshift_" + layoutID + ".csv", lShift);
-			fillMap("co_rshift_" + layoutID + ".csv", rShift);
-			fillMap("co_altgr_" + layoutID + ".csv", altgr);
-			fillSpecials("co_specials_" + layoutID + ".csv");
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
+		model = KeyboardModel.forLayout(layoutID);
+	}
+	
+	KeyboardModel getModel() {
+		return model;
 	}
 	
 	/**
 	 * Get the <code>Coordinates</code> of all keys that correspond to the <code>KeyEvent</code>.
 	 * @param k the KeyEvent
-	 * @return Coordinates for every key involved in creating the KeyEvent
+	 * @return Coordinates for every key involved in creating the KeyEvent. The array is
+	 * shared and must not be modified.
 	 * @throws NotInKeySetException if the keys do not exist on the keyboard
 	 */
 	public Coordinates[] getCoordinatesFor(KeyEvent k) throws NotInKeySetException {
@@ -123,16 +98,16 @@ public class KeyMapper {
 		switch(keyCode) {
 		case KeyEvent.VK_SHIFT:
 			if(k.getKeyLocation() == KeyEvent.KEY_LOCATION_LEFT)
-				return new Coordinates[] {lShiftCo};
-			return new Coordinates[] {rShiftCo};
+				return model.getLShift();
+			return model.getRShift();
 		case KeyEvent.VK_CONTROL:
 			if(k.getKeyLocation() == KeyEvent.KEY_LOCATION_LEFT)
-				return new Coordinates[] {lCtrlCo};
-			return new Coordinates[] {rCtrlCo};
+				return model.getLCtrl();
+			return model.getRCtrl();
 		case KeyEvent.VK_ALT:
-			return new Coordinates[] {altCo};
+			return model.getAlt();
 		case KeyEvent.VK_ALT_GRAPH:
-			return new Coordinates[] {altgrCo};
+			return model.getAltGr();
 		default:
 			throw new NotInKeySetException(c);
 		}
@@ -141,154 +116,18 @@ public class KeyMapper {
 	/**
 	 * Get the <code>Coordinates</code> of all keys that correspond to the character.
 	 * @param c the character
-	 * @return Coordinates for every key involved in creating the character
+	 * @return Coordinates for every key involved in creating the character: the key of the
+	 * character, followed by the modifier key, if any. The array is shared and must not be
+	 * modified.
 	 * @throws NotInKeySetException if the keys do not exist on the keyboard
 	 */
 	public Coordinates[] getCoordinatesFor(char c) throws NotInKeySetException {
-		Coordinates[] co = null;
-		// letter
-		if(Character.isLetter(c)) {
-			char cLower = Character.toLowerCase(c);
-			// with shift key
-			if(Character.isUpperCase(c)) {
-				co = new Coordinates[2];
-				if(lShiftLetters.contains(cLower))
-					co[1] = lShiftCo;
-				else
-					co[1] = rShiftCo;
-			}
-			else {
-				co = new Coordinates[1];
-			}
-			if(!letters.containsKey(cLower))
-				throw new NotInKeySetException(c);
-			co[0] = letters.get(cLower);
-		}
-		// no letter
-		else if(c == '\n')
-			return enterCo;
-		else if(noShift.containsKey(c)) {
-			// no additional modifier key
-			co = new Coordinates[1];
-			co[0] = noShift.get(c);
-		}
-		else {
-			// with modifier key
-			co = new Coordinates[2];
-			if(lShift.containsKey(c)) {
-				co[1] = lShiftCo;
-				co[0] = lShift.get(c);
-			}
-			else if(rShift.containsKey(c)) {
-				co[1] = rShiftCo;
-				co[0] = rShift.get(c);
-			}
-			else if(altgr.containsKey(c)) {
-				co[1] = altgrCo;
-				co[0] = altgr.get(c);
-			}
-			else
-				throw new NotInKeySetException(c);
-		}
+		Coordinates[] co = model.get(c);
+		if(co == null)
+			throw new NotInKeySetException(c);
 		return co;
 	}
 	
-	private void fillSetLShiftLetter(String sourceFileName) throws IOException {
-		try(InputStream is = KeyMapper.class.getResourceAsStream(sourceFileName)) {
-			if(is == null)
-				throw new RuntimeException("Missing resource: " + sourceFileName);
-			try(InputStreamReader r = new InputStreamReader(is, CHARSET)) {
-				int lShiftLetter;
-				while((lShiftLetter = r.read()) != -1) {
-					lShiftLetters.add( (char) lShiftLetter);
-				}
-			}
-		}
-	}
-	
-	private void fillSpecials(String sourceFileName) throws IOException {
-		try(InputStream is = KeyMapper.class.getResourceAsStream(sourceFileName)) {
-			if(is == null)
-				throw new RuntimeException("Missing resource: " + sourceFileName);
-			try(Scanner s = new Scanner(is, CHARSET.name())) {
-				// enter key
-				if(!(s.next().equals("enter1")))
-					throw new RuntimeException("enter1" + " expected.");
-				Coordinates enterCo1 = readCoordinates(s);
-				String nextKey = s.next();
-				if(nextKey.equals("enter2")) {
-					enterCo = new Coordinates[] {enterCo1, readCoordinates(s)};
-					nextKey = s.next();
-				}
-				else {
-					enterCo = new Coordinates[] {enterCo1};
-				}
-				
-				// next key must be "space"
-				if(!(nextKey.equals("space")))
-					throw new RuntimeException("space" + " expected.");
-				noShift.put(' ', readCoordinates(s));
-				
-				// left shift
-				if(!(s.next().equals("lshift")))
-					throw new RuntimeException("lshift" + " expected.");
-				lShiftCo = readCoordinates(s);
-				
-				// right shift
-				if(!(s.next().equals("rshift")))
-					throw new RuntimeException("rshift" + " expected.");
-				rShiftCo = readCoordinates(s);
-				
-				// left ctrl
-				if(!(s.next().equals("lctrl")))
-					throw new RuntimeException("lctrl" + " expected.");
-				lCtrlCo = readCoordinates(s);
-				
-				// right ctrl
-				if(!(s.next().equals("rctrl")))
-					throw new RuntimeException("rctrl" + " expected.");
-				rCtrlCo = readCoordinates(s);
-				
-				// alt
-				if(!(s.next().equals("alt")))
-					throw new RuntimeException("alt" + " expected.");
-				altCo = readCoordinates(s);
-				
-				// altgr
-				if(!(s.next().equals("altgr")))
-					throw new RuntimeException("altgr" + " expected.");
-				altgrCo = readCoordinates(s);
-			}
-					
-		}
-
-	}
-	
-	private static void fillMap(String sourceFileName, Map<Character, Coordinates> dest)
-			throws IOException {
-		try(InputStream is = KeyMapper.class.getResourceAsStream(sourceFileName)) {
-			if(is == null)
-				throw new RuntimeException("Missing resource: " + sourceFileName);
-			try(Scanner s = new Scanner(KeyMapper.class.getResourceAsStream(sourceFileName),
-					CHARSET.name())) {
-				String c;
-				while(s.hasNextLine()) {
-					c = s.next();
-					dest.put(c.charAt(0), readCoordinates(s));
-				}
-			}
-		}
-	}
-	
-	private static Coordinates readCoordinates(Scanner s) {
-		Coordinates c = new Coordinates();
-		c.x1 = s.nextInt();
-		c.y1 = s.nextInt();
-		c.x2 = s.nextInt();
-		c.y2 = s.nextInt();
-		return c;
-	}
-	
 	/**
 	 * There is no corresponding key on the keyboard layout.
 	 */
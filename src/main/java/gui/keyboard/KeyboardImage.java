@@ -5,15 +5,16 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
 
 import javax.imageio.ImageIO;
-import javax.swing.Timer;
 
+import gui.AnimationScheduler;
 import gui.keyboard.KeyMapper.NotInKeySetException;
 
 /**
@@ -50,6 +51,14 @@ import gui.keyboard.KeyMapper.NotInKeySetException;
  * 	</tr>
  * </table>
  * 
+ * <p>Every key has a stack of colors in the order in which they have been applied; the key
+ * is painted in the color on top. Changing the colors of a key only repaints the rectangle
+ * of the key. The keyboard is composed in a <code>VolatileImage</code>, in which only the
+ * changed keys are drawn again, so that the cost of painting does not depend on the number
+ * of colored keys.
+ * 
+ * <p>The blinks of all keys are ended by the shared {@link AnimationScheduler}.
+ * 
  * @author Lasse Osterhagen
  *
  */
@@ -69,30 +78,24 @@ public class KeyboardImage extends Component {
 		private Color(String fileName) {this.fileName = fileName;}
 	}
 	
-	/**
-	 * A rectangle that is associated with a color.
-	 */
-	private static class ColoredCoordinates {
-		Coordinates c;
-		Color col;
-		ColoredCoordinates(Coordinates c, Color col) {
-			this.c = c;
-			this.col = col;
-		}
-		@Override
-		public boolean equals(Object obj) {
-			if(!(obj instanceof ColoredCoordinates))
-				return false;
-			ColoredCoordinates o = (ColoredCoordinates) obj;
-			return c.equals(o.c) && col == o.col;
-		}
-	}
+	private static final Color[] NO_COLORS = {};
+	private static final Color[] COLORS = Color.values();
 	
 	private KeyMapper keyMapper;
+	private KeyboardModel model;
 	private BufferedImage backgroundImage;
 	private Map<Color, BufferedImage> colorImages;
 	private Dimension imageSize;
-	private LinkedList<ColoredCoordinates> coordinates2color = new LinkedList<>();
+	// Stack of colors of every key by its id, in the order of coloring
+	private Color[][] colorStacks;
+	private int[] stackSizes;
+	// Keys whose top color has changed since the composite image has been drawn
+	private int[] dirtyKeys;
+	private int dirtyCount;
+	private boolean[] dirty;
+	private boolean allDirty = true;
+	private VolatileImage composite;
+	private final AnimationScheduler.Expiry blinkEnd = this::blinkExpired;
 	
 	/**
 	 * Create a keyboard image for a keyboard of a specific locale.
@@ -102,6 +105,13 @@ public class KeyboardImage extends Component {
 	 */
 	public KeyboardImage(String layoutID, Color backgroundColor, Color... additionalColors) {
 		keyMapper = new KeyMapper(layoutID);
+		model = keyMapper.getModel();
+		int keyCount = model.getKeyCount();
+		colorStacks = new Color[keyCount][];
+		Arrays.fill(colorStacks, NO_COLORS);
+		stackSizes = new int[keyCount];
+		dirtyKeys = new int[keyCount];
+		dirty = new boolean[keyCount];
 		colorImages = new HashMap<>(additionalColors.length);
 		try {
 			backgroundImage = getImage(backgroundColor, layoutID);
@@ -162,9 +172,12 @@ public class KeyboardImage extends Component {
 	
 	private void colorCoordinates(Coordinates[] cos, Color color) {
 		for(Coordinates co : cos) {
-			coordinates2color.add(new ColoredCoordinates(co, color));
+			int key = co.id;
+			if(stackSizes[key] == colorStacks[key].length)
+				colorStacks[key] = Arrays.copyOf(colorStacks[key], stackSizes[key]+2);
+			colorStacks[key][stackSizes[key]++] = color;
+			keyChanged(co);
 		}
-		repaint();
 	}
 	
 	/**
@@ -204,18 +217,55 @@ public class KeyboardImage extends Component {
 	}
 	
 	private void removeCoordinates(Coordinates[] cos, Color color) {
-		for(Coordinates co : cos) {
-			coordinates2color.remove(new ColoredCoordinates(co, color));
+		for(Coordinates co : cos)
+			removeKeyColor(co, color);
+	}
+	
+	private void removeKeyColor(Coordinates co, Color color) {
+		// Remove the color that has been applied first
+		int key = co.id;
+		Color[] stack = colorStacks[key];
+		int size = stackSizes[key];
+		for(int i=0; i<size; ++i) {
+			if(stack[i] == color) {
+				System.arraycopy(stack, i+1, stack, i, size-i-1);
+				stack[--stackSizes[key]] = null;
+				if(i == size-1)
+					keyChanged(co); // the top color has been removed
+				return;
+			}
 		}
-		repaint();
 	}
 	
 	/**
 	 * Decolor all colored keys.
 	 */
 	public void decolorAll() {
-		coordinates2color.clear();
-		repaint();
+		for(int key=0; key<stackSizes.length; ++key) {
+			if(stackSizes[key] > 0) {
+				Arrays.fill(colorStacks[key], 0, stackSizes[key], null);
+				stackSizes[key] = 0;
+				keyChanged(model.getKey(key));
+			}
+		}
+	}
+	
+	/**
+	 * Get the color in which a key is painted.
+	 * @param co the coordinates of the key
+	 * @return the color on top of its stack, <code>null</code> for the background color
+	 */
+	Color getKeyColor(Coordinates co) {
+		int size = stackSizes[co.id];
+		return size == 0 ? null : colorStacks[co.id][size-1];
+	}
+	
+	private void keyChanged(Coordinates co) {
+		if(!dirty[co.id]) {
+			dirty[co.id] = true;
+			dirtyKeys[dirtyCount++] = co.id;
+		}
+		repaint(co.x1, co.y1, co.x2-co.x1, co.y2-co.y1);
 	}
 	
 	/**
@@ -226,10 +276,14 @@ public class KeyboardImage extends Component {
 	 * @param time the time span in milliseconds
 	 */
 	public void colorKeyBlink(char c, Color color, int time) {
-		colorKey(c, color);
-		Timer t = new Timer(time, evt -> removeKeyColor(c, color));
-		t.setRepeats(false);
-		t.start();
+		if(!colorImages.containsKey(color))
+			throw new RuntimeException("Specified color not in intialized color set.");
+		try {
+			blinkCoordinates(keyMapper.getCoordinatesFor(c), color, time);
+		}
+		catch (NotInKeySetException exc) {
+			// Do not try to color a key that does not exist on the keyboard.
+		}
 	}
 	
 	/**
@@ -240,10 +294,25 @@ public class KeyboardImage extends Component {
 	 * @param time the time span in milliseconds
 	 */
 	public void colorKeyBlink(KeyEvent e, Color color, int time) {
-		colorKey(e, color);
-		Timer t = new Timer(time, evt -> removeKeyColor(e, color));
-		t.setRepeats(false);
-		t.start();
+		if(!colorImages.containsKey(color))
+			throw new RuntimeException("Specified color not in intialized color set.");
+		try {
+			blinkCoordinates(keyMapper.getCoordinatesFor(e), color, time);
+		}
+		catch (NotInKeySetException exc) {
+			// Do not try to color a key that does not exist on the keyboard.
+		}
+	}
+	
+	private void blinkCoordinates(Coordinates[] cos, Color color, int time) {
+		colorCoordinates(cos, color);
+		AnimationScheduler scheduler = AnimationScheduler.getInstance();
+		for(Coordinates co : cos)
+			scheduler.schedule(blinkEnd, color.ordinal() << 16 | co.id, time);
+	}
+	
+	private void blinkExpired(int tag) {
+		removeKeyColor(model.getKey(tag & 0xffff), COLORS[tag >>> 16]);
 	}
 	
 	private static BufferedImage getImage(Color c, String layoutID) throws IOException {
@@ -262,10 +331,67 @@ public class KeyboardImage extends Component {
 	
 	@Override
 	public void paint(Graphics g) {
-		g.drawImage(backgroundImage, 0, 0, null);
-		for(ColoredCoordinates cc : coordinates2color) {
-			g.drawImage(colorImages.get(cc.col), cc.c.x1, cc.c.y1, cc.c.x2, cc.c.y2,
-					cc.c.x1, cc.c.y1, cc.c.x2, cc.c.y2, null);
+		if(composite == null) {
+			composite = createVolatileImage(imageSize.width, imageSize.height);
+			allDirty = true;
+			if(composite == null) {
+				// not displayable: paint directly
+				drawKeys(g);
+				return;
+			}
+		}
+		do {
+			int status = composite.validate(getGraphicsConfiguration());
+			if(status == VolatileImage.IMAGE_INCOMPATIBLE) {
+				composite = createVolatileImage(imageSize.width, imageSize.height);
+				allDirty = true;
+			}
+			else if(status == VolatileImage.IMAGE_RESTORED)
+				allDirty = true;
+			Graphics cg = composite.createGraphics();
+			try {
+				drawKeys(cg);
+			}
+			finally {
+				cg.dispose();
+			}
+			g.drawImage(composite, 0, 0, null);
+		} while(composite.contentsLost());
+	}
+	
+	/**
+	 * Draw the keys that have changed since the last call, or the whole keyboard.
+	 */
+	private void drawKeys(Graphics g) {
+		if(allDirty) {
+			g.drawImage(backgroundImage, 0, 0, null);
+			for(int key=0; key<stackSizes.length; ++key) {
+				if(stackSizes[key] > 0)
+					drawKey(g, model.getKey(key));
+			}
+		}
+		else {
+			for(int i=0; i<dirtyCount; ++i)
+				drawKey(g, model.getKey(dirtyKeys[i]));
+		}
+		for(int i=0; i<dirtyCount; ++i)
+			dirty[dirtyKeys[i]] = false;
+		dirtyCount = 0;
+		allDirty = false;
+	}
+	
+	private void drawKey(Graphics g, Coordinates co) {
+		Color color = getKeyColor(co);
+		BufferedImage image = color == null ? backgroundImage : colorImages.get(color);
+		g.drawImage(image, co.x1, co.y1, co.x2, co.y2, co.x1, co.y1, co.x2, co.y2, null);
+	}
+	
+	@Override
+	public void removeNotify() {
+		super.removeNotify();
+		if(composite != null) {
+			composite.flush();
+			composite = null;
 		}
 	}
 
@@ -0,0 +1,415 @@
+package gui.keyboard;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>The compiled key coordinates of a keyboard layout: for every char the keys that must be
+ * pressed to type it, i. e. the key of the char and possibly a modifier key.
+ * 
+ * <p>The model is compiled from the resource files that are described in {@link KeyMapper}.
+ * The coordinates are looked up in a table that is directly indexed by the char, with a page
+ * of 256 chars for every high byte that occurs. The arrays of coordinates are allocated
+ * once; they are shared and must not be modified. Every distinct key has an id between 0
+ * and {@link #getKeyCount()} (exclusive), which is stored in its coordinates.
+ * 
+ * <p>{@link #forLayout(String)} compiles a layout once and shares it process-wide. A model
+ * can also be written to a compact binary form by {@link #write(OutputStream)} and read
+ * again by {@link #read(InputStream)}, which does not need the resource files:
+ * <pre>
+ * header:
+ *   int   magic ({@value #MAGIC}, "TTKB")
+ *   short version ({@value #VERSION})
+ *   short reserved
+ * int   number of coordinates, then each coordinates as int x1, y1, x2, y2
+ * 6 int indices of the coordinates of left shift, right shift, left ctrl, right ctrl, alt,
+ *       altgr
+ * int   number of key combinations, then each as byte number of keys and int indices of
+ *       their coordinates
+ * int   number of chars, then each as char and int index of its key combination
+ * </pre>
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class KeyboardModel {
+	
+	static final int MAGIC = 0x54544b42;
+	static final short VERSION = 1;
+	private static final Charset CHARSET = persistence.Constants.PROJECT_CHARSET;
+	private static final int PAGE_SHIFT = 8;
+	private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+	
+	private static final ConcurrentHashMap<String, KeyboardModel> models =
+			new ConcurrentHashMap<>();
+	
+	private final Coordinates[][][] pages = new Coordinates[PAGE_SIZE][][];
+	private final char[] chars; // all chars that can be typed, ascending
+	private final Coordinates[] lShift, rShift, lCtrl, rCtrl, alt, altgr;
+	private final List<Coordinates> keys = new ArrayList<>(); // by id
+	
+	private KeyboardModel(Map<Character, Coordinates[]> keyMap, Coordinates[] modifiers) {
+		chars = new char[keyMap.size()];
+		int i = 0;
+		for(char c : keyMap.keySet())
+			chars[i++] = c;
+		Arrays.sort(chars);
+		// Replace the coordinates by those with the ids of the keys
+		Map<Coordinates, Coordinates> withIds = new HashMap<>();
+		Map<Coordinates[], Coordinates[]> combinations = new IdentityHashMap<>();
+		lShift = new Coordinates[] {withId(modifiers[0], withIds)};
+		rShift = new Coordinates[] {withId(modifiers[1], withIds)};
+		lCtrl = new Coordinates[] {withId(modifiers[2], withIds)};
+		rCtrl = new Coordinates[] {withId(modifiers[3], withIds)};
+		alt = new Coordinates[] {withId(modifiers[4], withIds)};
+		altgr = new Coordinates[] {withId(modifiers[5], withIds)};
+		for(char c : chars) {
+			Coordinates[][] page = pages[c >>> PAGE_SHIFT];
+			if(page == null)
+				page = pages[c >>> PAGE_SHIFT] = new Coordinates[PAGE_SIZE][];
+			page[c & (PAGE_SIZE-1)] = combinations.computeIfAbsent(keyMap.get(c), combination -> {
+				Coordinates[] co = new Coordinates[combination.length];
+				for(int j=0; j<co.length; ++j)
+					co[j] = withId(combination[j], withIds);
+				return co;
+			});
+		}
+	}
+	
+	private Coordinates withId(Coordinates co, Map<Coordinates, Coordinates> withIds) {
+		return withIds.computeIfAbsent(co, k -> {
+			Coordinates key = new Coordinates(keys.size(), k.x1, k.y1, k.x2, k.y2);
+			keys.add(key);
+			return key;
+		});
+	}
+	
+	/**
+	 * Get the shared model of a keyboard layout. It is compiled on first use.
+	 * @param layoutID the id of the layout, e. g. <i>DE_qw</i>
+	 * @return the model
+	 * @throws RuntimeException if a resource file of the layout is missing or malformed
+	 */
+	public static KeyboardModel forLayout(String layoutID) {
+		return models.computeIfAbsent(layoutID, KeyboardModel::compile);
+	}
+	
+	/**
+	 * Get the coordinates of all keys that must be pressed to type a char.
+	 * @param c the char
+	 * @return the coordinates of the key of the char, followed by those of the modifier key,
+	 * if any. Must not be modified. <code>null</code> if the char cannot be typed.
+	 */
+	Coordinates[] get(char c) {
+		Coordinates[][] page = pages[c >>> PAGE_SHIFT];
+		return page == null ? null : page[c & (PAGE_SIZE-1)];
+	}
+	
+	/**
+	 * Get the number of distinct keys.
+	 * @return the number of keys that can be pressed for any char or modifier
+	 */
+	public int getKeyCount() {
+		return keys.size();
+	}
+	
+	/**
+	 * Get the coordinates of a key.
+	 * @param id the id of the key
+	 * @return the coordinates
+	 */
+	Coordinates getKey(int id) {
+		return keys.get(id);
+	}
+	
+	Coordinates[] getLShift() {
+		return lShift;
+	}
+	
+	Coordinates[] getRShift() {
+		return rShift;
+	}
+	
+	Coordinates[] getLCtrl() {
+		return lCtrl;
+	}
+	
+	Coordinates[] getRCtrl() {
+		return rCtrl;
+	}
+	
+	Coordinates[] getAlt() {
+		return alt;
+	}
+	
+	Coordinates[] getAltGr() {
+		return altgr;
+	}
+	
+	/**
+	 * Write the model in its binary form.
+	 * @param os the stream, will not be closed
+	 * @throws IOException if writing fails
+	 */
+	public void write(OutputStream os) throws IOException {
+		List<Coordinates> coordinates = new ArrayList<>();
+		Map<Coordinates, Integer> coordinatesIndex = new HashMap<>();
+		List<Coordinates[]> combinations = new ArrayList<>();
+		Map<Coordinates[], Integer> combinationIndex = new IdentityHashMap<>();
+		for(Coordinates[] modifier : modifiers())
+			index(modifier[0], coordinates, coordinatesIndex);
+		for(char c : chars) {
+			Coordinates[] combination = get(c);
+			if(combinationIndex.putIfAbsent(combination, combinations.size()) == null)
+				combinations.add(combination);
+			for(Coordinates co : combination)
+				index(co, coordinates, coordinatesIndex);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeShort(0);
+		out.writeInt(coordinates.size());
+		for(Coordinates co : coordinates) {
+			out.writeInt(co.x1);
+			out.writeInt(co.y1);
+			out.writeInt(co.x2);
+			out.writeInt(co.y2);
+		}
+		for(Coordinates[] modifier : modifiers())
+			out.writeInt(coordinatesIndex.get(modifier[0]));
+		out.writeInt(combinations.size());
+		for(Coordinates[] combination : combinations) {
+			out.writeByte(combination.length);
+			for(Coordinates co : combination)
+				out.writeInt(coordinatesIndex.get(co));
+		}
+		out.writeInt(chars.length);
+		for(char c : chars) {
+			out.writeChar(c);
+			out.writeInt(combinationIndex.get(get(c)));
+		}
+		out.flush();
+		bytes.writeTo(os);
+	}
+	
+	/**
+	 * Read a model that has been written by {@link #write(OutputStream)}.
+	 * @param is the stream, will be read to its end but not closed
+	 * @return the model
+	 * @throws IOException if reading fails or the stream does not contain a model
+	 */
+	public static KeyboardModel read(InputStream is) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int n;
+		while((n = is.read(buffer)) != -1)
+			bytes.write(buffer, 0, n);
+		ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+		try {
+			if(in.getInt() != MAGIC)
+				throw new IOException("Not a keyboard model");
+			short version = in.getShort();
+			if(version != VERSION)
+				throw new IOException("Unsupported keyboard model version: " + version);
+			in.getShort();
+			Coordinates[] coordinates = new Coordinates[in.getInt()];
+			for(int i=0; i<coordinates.length; ++i)
+				coordinates[i] = new Coordinates(in.getInt(), in.getInt(), in.getInt(),
+						in.getInt());
+			Coordinates[] modifiers = new Coordinates[6];
+			for(int i=0; i<modifiers.length; ++i)
+				modifiers[i] = coordinates[in.getInt()];
+			Coordinates[][] combinations = new Coordinates[in.getInt()][];
+			for(int i=0; i<combinations.length; ++i) {
+				combinations[i] = new Coordinates[in.get()];
+				for(int j=0; j<combinations[i].length; ++j)
+					combinations[i][j] = coordinates[in.getInt()];
+			}
+			Map<Character, Coordinates[]> keys = new HashMap<>();
+			for(int i=in.getInt(); i>0; --i)
+				keys.put(in.getChar(), combinations[in.getInt()]);
+			return new KeyboardModel(keys, modifiers);
+		}
+		catch(RuntimeException e) { // BufferUnderflowException, IndexOutOfBoundsException
+			throw new IOException("Malformed keyboard model", e);
+		}
+	}
+	
+	private Coordinates[][] modifiers() {
+		return new Coordinates[][] {lShift, rShift, lCtrl, rCtrl, alt, altgr};
+	}
+	
+	private static void index(Coordinates co, List<Coordinates> coordinates,
+			Map<Coordinates, Integer> coordinatesIndex) {
+		if(coordinatesIndex.putIfAbsent(co, coordinates.size()) == null)
+			coordinates.add(co);
+	}
+	
+	// ---- Compilation from the resource files ----
+	
+	/**
+	 * Parse the resource files of a layout and compute the keys of every char.
+	 */
+	static KeyboardModel compile(String layoutID) {
+		Parser p = new Parser();
+		try {
+			p.fillSetLShiftLetter("set_letters_lshift_" + layoutID + ".txt");
+			fillMap("co_letters_" + layoutID + ".csv", p.letters);
+			fillMap("co_noshift_" + layoutID + ".csv", p.noShift);
+			fillMap("co_lshift_" + layoutID + ".csv", p.lShift);
+			fillMap("co_rshift_" + layoutID + ".csv", p.rShift);
+			fillMap("co_altgr_" + layoutID + ".csv", p.altgr);
+			p.fillSpecials("co_specials_" + layoutID + ".csv");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		// Share the arrays of equal key combinations
+		Map<List<Coordinates>, Coordinates[]> combinations = new HashMap<>();
+		Map<Character, Coordinates[]> keys = new HashMap<>();
+		for(int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; ++c) {
+			Coordinates[] co = p.getCoordinatesFor((char) c);
+			if(co != null)
+				keys.put((char) c, combinations.computeIfAbsent(Arrays.asList(co), l -> co));
+		}
+		return new KeyboardModel(keys, new Coordinates[] {p.lShiftCo, p.rShiftCo, p.lCtrlCo,
+				p.rCtrlCo, p.altCo, p.altgrCo});
+	}
+	
+	private static class Parser {
+		Set<Character> lShiftLetters = new HashSet<>();
+		Map<Character, Coordinates> letters = new HashMap<>();
+		Map<Character, Coordinates> noShift = new HashMap<>();
+		Map<Character, Coordinates> lShift = new HashMap<>();
+		Map<Character, Coordinates> rShift = new HashMap<>();
+		Map<Character, Coordinates> altgr = new HashMap<>();
+		Coordinates[] enterCo;
+		Coordinates lShiftCo;
+		Coordinates rShiftCo;
+		Coordinates lCtrlCo;
+		Coordinates rCtrlCo;
+		Coordinates altCo;	
+		Coordinates altgrCo;
+		
+		/**
+		 * @return null if the char is not on the keyboard
+		 */
+		Coordinates[] getCoordinatesFor(char c) {
+			// letter
+			if(Character.isLetter(c)) {
+				char cLower = Character.toLowerCase(c);
+				if(!letters.containsKey(cLower))
+					return null;
+				// with shift key
+				if(Character.isUpperCase(c))
+					return new Coordinates[] {letters.get(cLower),
+							lShiftLetters.contains(cLower) ? lShiftCo : rShiftCo};
+				return new Coordinates[] {letters.get(cLower)};
+			}
+			// no letter
+			if(c == '\n')
+				return enterCo;
+			if(noShift.containsKey(c))
+				// no additional modifier key
+				return new Coordinates[] {noShift.get(c)};
+			// with modifier key
+			if(lShift.containsKey(c))
+				return new Coordinates[] {lShift.get(c), lShiftCo};
+			if(rShift.containsKey(c))
+				return new Coordinates[] {rShift.get(c), rShiftCo};
+			if(altgr.containsKey(c))
+				return new Coordinates[] {altgr.get(c), altgrCo};
+			return null;
+		}
+		
+		void fillSetLShiftLetter(String sourceFileName) throws IOException {
+			try(InputStream is = KeyboardModel.class.getResourceAsStream(sourceFileName)) {
+				if(is == null)
+					throw new RuntimeException("Missing resource: " + sourceFileName);
+				try(InputStreamReader r = new InputStreamReader(is, CHARSET)) {
+					int lShiftLetter;
+					while((lShiftLetter = r.read()) != -1) {
+						lShiftLetters.add( (char) lShiftLetter);
+					}
+				}
+			}
+		}
+		
+		void fillSpecials(String sourceFileName) throws IOException {
+			try(InputStream is = KeyboardModel.class.getResourceAsStream(sourceFileName)) {
+				if(is == null)
+					throw new RuntimeException("Missing resource: " + sourceFileName);
+				try(Scanner s = new Scanner(is, CHARSET.name())) {
+					// enter key
+					if(!(s.next().equals("enter1")))
+						throw new RuntimeException("enter1" + " expected.");
+					Coordinates enterCo1 = readCoordinates(s);
+					String nextKey = s.next();
+					if(nextKey.equals("enter2")) {
+						enterCo = new Coordinates[] {enterCo1, readCoordinates(s)};
+						nextKey = s.next();
+					}
+					else {
+						enterCo = new Coordinates[] {enterCo1};
+					}
+					
+					// next key must be "space"
+					if(!(nextKey.equals("space")))
+						throw new RuntimeException("space" + " expected.");
+					noShift.put(' ', readCoordinates(s));
+					
+					lShiftCo = readKey(s, "lshift");
+					rShiftCo = readKey(s, "rshift");
+					lCtrlCo = readKey(s, "lctrl");
+					rCtrlCo = readKey(s, "rctrl");
+					altCo = readKey(s, "alt");
+					altgrCo = readKey(s, "altgr");
+				}
+			}
+		}
+		
+		private static Coordinates readKey(Scanner s, String key) {
+			if(!(s.next().equals(key)))
+				throw new RuntimeException(key + " expected.");
+			return readCoordinates(s);
+		}
+	}
+	
+	private static void fillMap(String sourceFileName, Map<Character, Coordinates> dest)
+			throws IOException {
+		try(InputStream is = KeyboardModel.class.getResourceAsStream(sourceFileName)) {
+			if(is == null)
+				throw new RuntimeException("Missing resource: " + sourceFileName);
+			try(Scanner s = new Scanner(is, CHARSET.name())) {
+				String c;
+				while(s.hasNextLine()) {
+					c = s.next();
+					dest.put(c.charAt(0), readCoordinates(s));
+				}
+			}
+		}
+	}
+	
+	private static Coordinates readCoordinates(Scanner s) {
+		return new Coordinates(s.nextInt(), s.nextInt(), s.nextInt(), s.nextInt());
+	}
+
+}
@@ -18,6 +18,10 @@ public class Constants {
 	 * Name of directory where plugins reside
 	 */
 	static final String PLUGINS_DIR = "plugins";
+	/**
+	 * Name of directory where keystroke journals are saved
+	 */
+	static final String JOURNAL_DIR = "journal";
 	/**
 	 * Key of {@link java.util.prefs.Preferences} to full path to the user-defined data
 	 * directory
@@ -54,6 +58,15 @@ public class Constants {
 		return Paths.get(prefs.get(Constants.PREF_USERSAVE_DIR, null)).resolve(PLUGINS_DIR);
 	}
 	
+	/**
+	 * Get path to the directory where keystroke journals are saved. The directory is not
+	 * created by the installation and may not exist yet.
+	 * @return path to journal directory
+	 */
+	public static Path getJournalDir() {
+		return Paths.get(prefs.get(Constants.PREF_USERSAVE_DIR, null)).resolve(JOURNAL_DIR);
+	}
+	
 	/**
 	 * Get path to the user-defined data directory
 	 * @return path to user-defined data directory
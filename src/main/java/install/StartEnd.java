@@ -97,7 +97,10 @@ public class StartEnd {
 		}
 		// Open database connection
 		Path dbPath = Constants.getUserSaveDir().resolve(dbName);
+		persistence.SqliteDbBase.getInstance().setTuning(
+				persistence.SqliteTuning.fromProperties(appProperties));
 		persistence.DbAccess.getInstance().connect(dbPath.toString());
+		persistence.SchemaMigration.migrate(persistence.DbAccess.getInstance());
 		SwingUtilities.invokeLater(() -> showMainWindow());
 	}
 	
@@ -48,6 +48,7 @@ public class CreateInitialTables {
 			makeTables();
 			FillTableParser ftp = new FillTableParser(db);
 			ftp.parse(r);
+			SchemaMigration.migrate(db);
 		} catch (IOException | TableParserException | SQLException e) {
 			e.printStackTrace();
 		} finally {
@@ -6,5 +6,19 @@ public class DbAccess {
 		return SqliteDbBase.getInstance();
 	}
 	
+	/**
+	 * Write all sessions that are waiting in the queue of the {@link SessionWriter} and
+	 * close the database connection afterwards. If the writer does not catch up within
+	 * {@value SessionWriter#FLUSH_TIMEOUT_MILLIS} ms, the connection is left open, because
+	 * the writer may still hold it.
+	 */
+	public static void disconnect() {
+		if(!SessionWriter.getInstance().flush()) {
+			System.err.println("Session writer did not finish; not all sessions may be saved.");
+			return;
+		}
+		getInstance().disconnect();
+	}
+	
 }
 
@@ -21,6 +21,11 @@ public interface DbBase {
 		T process(ResultSet rs) throws SQLException, DatabaseException;
 	}
 	
+	@FunctionalInterface
+	public interface TransactionProcessor {
+		void process(DbBase db) throws SQLException, DatabaseException;
+	}
+	
 	public void connect(String path2DB);
 	public void disconnect();
 	public int executeUpdate(String sql);
@@ -34,5 +39,12 @@ public interface DbBase {
 			ResultSetProcessor rsProcessor);
 	public <T> T processPrepResultSet2Val(String sqlSelect, PstmProcessor pstmProcessor,
 			ResultSetReturnProcessor<T> rsReturnProcessor);
+	/**
+	 * Execute all updates of <tt>transactionProcessor</tt> in a single transaction. Calls to
+	 * the update methods of <tt>db</tt> inside the transaction do not commit on their own.
+	 * If an exception is thrown, the transaction will be rolled back.
+	 * @param transactionProcessor the updates of the transaction
+	 */
+	public void executeTransaction(TransactionProcessor transactionProcessor);
 	
 }
@@ -0,0 +1,68 @@
+package persistence;
+
+import trainer.PerformanceRate;
+import trainer.PerformanceStats;
+import trainer.lineCreators.Bookmark;
+
+/**
+ * A null object pattern implementation for <tt>SessionPersist</tt> that does not save
+ * any session. Used for sessions that should leave no trace in the database, like
+ * simulated ones.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class NullSessionPersist extends SessionPersist {
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void saveSession2DB(int exerciseID, PerformanceRate pr, long requiredTime) {}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void saveSession2DB(int exerciseID, PerformanceStats ps, long requiredTime) {}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void saveSessionAsync(int exerciseID, PerformanceStats ps, long requiredTime) {}
+	
+	/**
+	 * Returns no bookmark.
+	 * @return <code>null</code>
+	 */
+	@Override
+	public Bookmark getBookmark(int exerciseID) {
+		return null;
+	}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void saveBookmark(int exerciseID, Bookmark bookmark) {}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void deleteBookmark(int exerciseID) {}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void saveBookmarkAsync(int exerciseID, Bookmark bookmark) {}
+	
+	/**
+	 * Does nothing.
+	 */
+	@Override
+	public void deleteBookmarkAsync(int exerciseID) {}
+
+}
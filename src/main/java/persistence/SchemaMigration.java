@@ -0,0 +1,74 @@
+package persistence;
+
+/**
+ * <p>Upgrades the schema of a database that has been created by {@link CreateInitialTables}
+ * to the current version.
+ * 
+ * <p>The schema version is stored in <i>PRAGMA user_version</i>. A database created by
+ * <code>CreateInitialTables.makeTables()</code> has version 0. Each migration step is
+ * executed in its own transaction together with the increment of the version, so that an
+ * interrupted upgrade will be continued at the next start.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class SchemaMigration {
+	
+	/**
+	 * The SQL statements of each migration step. Step <i>i</i> upgrades version <i>i</i>
+	 * to version <i>i+1</i>. Only append new steps; never change existing ones.
+	 */
+	private static final String[][] MIGRATIONS = {
+		// 1: covering indexes for SessionPersist queries
+		{
+			"CREATE INDEX IF NOT EXISTS idxSessionsExerciseTime ON sessions "
+				+ "(idExercise, timeStamp, numHits, numErrors, requiredTime)",
+			"CREATE INDEX IF NOT EXISTS idxSessionResultsSession ON sessionResults "
+				+ "(idSession, element, numHits, numErrors)"
+		},
+		// 2: reading positions of text exercises
+		{
+			"CREATE TABLE IF NOT EXISTS bookmarks ("
+				+ "idExercise INTEGER PRIMARY KEY, "
+				+ "byteOffset INTEGER NOT NULL, "
+				+ "wordIndex INTEGER NOT NULL, "
+				+ "timeStamp INTEGER NOT NULL, "
+				+ "FOREIGN KEY (idExercise) REFERENCES exercises(id) ON DELETE CASCADE)"
+		},
+	};
+	
+	/**
+	 * The schema version after {@link #migrate(DbBase)}.
+	 */
+	public static final int CURRENT_VERSION = MIGRATIONS.length;
+	
+	/**
+	 * Get the schema version of the connected database.
+	 * @param db the connected database
+	 * @return the schema version
+	 */
+	public static int getVersion(DbBase db) {
+		return db.processResultSet2Val("PRAGMA user_version", rs -> rs.getInt(1));
+	}
+	
+	/**
+	 * Upgrade the connected database to {@link #CURRENT_VERSION}. Databases that are
+	 * already up to date, or that have been upgraded by a newer version of the application,
+	 * are left unchanged.
+	 * @param db the connected database
+	 * @return the schema version before the upgrade
+	 */
+	public static int migrate(DbBase db) {
+		int version = getVersion(db);
+		for(int v = version; v < CURRENT_VERSION; ++v) {
+			final int step = v;
+			db.executeTransaction(tdb -> {
+				for(String sql : MIGRATIONS[step])
+					tdb.executeUpdate(sql);
+				tdb.executeUpdate("PRAGMA user_version=" + (step+1));
+			});
+		}
+		return version;
+	}
+
+}
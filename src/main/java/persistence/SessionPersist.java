@@ -1,10 +1,25 @@
 package persistence;
 
+import java.sql.Statement;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
 
 import trainer.PerformanceRate;
+import trainer.PerformanceStats;
+import trainer.lineCreators.Bookmark;
 
+/**
+ * Reads and writes the sessions of exercises. The reading methods wait until the sessions
+ * that are still in the queue of the {@link SessionWriter} have been written, so that they
+ * include the session that has just been finished.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
 public class SessionPersist {
 	
 	/**
@@ -26,6 +41,7 @@ public class SessionPersist {
 	 * @return the last <i>n</i> session of the Exercise the were completed
 	 */
 	public ArrayList<Session> getSessions(int exerciseID, int n) {
+		SessionWriter.getInstance().flush();
 		ArrayList<Session> result = new ArrayList<>();
 		DbAccess.getInstance().processPrepResultSet(
 				"SELECT timeStamp, numHits, numErrors, requiredTime FROM "
@@ -47,12 +63,76 @@ public class SessionPersist {
 		return result;
 	}
 	
+	/**
+	 * Get the hits and errors per char, summed up over the last <i>n</i> sessions of the
+	 * specified Exercise.
+	 * @param exerciseID the id of the Exercise as specified in the database
+	 * @param n the maximum number of sessions to be included
+	 * @return the performance rate for every char that appeared in the sessions, sorted
+	 * by the char
+	 */
+	public Map<Character, PerformanceRate> getCharPerformance(int exerciseID, int n) {
+		SessionWriter.getInstance().flush();
+		Map<Character, PerformanceRate> result = new TreeMap<>();
+		DbAccess.getInstance().processPrepResultSet(
+				"SELECT element, SUM(numHits), SUM(numErrors) FROM sessionResults "
+				+ "WHERE idSession IN (SELECT id FROM sessions WHERE idExercise=? "
+				+ "ORDER BY timeStamp DESC LIMIT ?) GROUP BY element",
+				pstm -> {
+					pstm.setInt(1, exerciseID);
+					pstm.setInt(2, n);
+				},
+				rs->{
+					while(rs.next()) {
+						result.put(rs.getString(1).charAt(0),
+								new PerformanceRate(rs.getInt(2), rs.getInt(3)));
+					}
+				}
+				);
+		return result;
+	}
+	
+	/**
+	 * Get the history of a single char over the last <i>n</i> sessions of the specified
+	 * Exercise. The {@link Session#getPerformanceRate() performance rate} of the returned
+	 * sessions is the performance rate of the char. Sessions in which the char did not
+	 * appear are left out.
+	 * Sessions will be sorted by their time stamps in <strong>descending</strong> order.
+	 * @param exerciseID the id of the Exercise as specified in the database
+	 * @param c the char
+	 * @param n the maximum number of sessions to be returned
+	 * @return the sessions with the performance rate of the char
+	 */
+	public ArrayList<Session> getCharHistory(int exerciseID, char c, int n) {
+		SessionWriter.getInstance().flush();
+		ArrayList<Session> result = new ArrayList<>();
+		DbAccess.getInstance().processPrepResultSet(
+				"SELECT s.timeStamp, r.numHits, r.numErrors, s.requiredTime FROM "
+				+ "sessions s JOIN sessionResults r ON r.idSession=s.id "
+				+ "WHERE s.idExercise=? AND r.element=? ORDER BY s.timeStamp DESC LIMIT ?",
+				pstm -> {
+					pstm.setInt(1, exerciseID);
+					pstm.setString(2, String.valueOf(c));
+					pstm.setInt(3, n);
+				},
+				rs->{
+					while(rs.next()) {
+						Session s = new Session();
+						s.timeStamp = rs.getLong(1);
+						s.performanceRate = new PerformanceRate(rs.getInt(2), rs.getInt(3));
+						s.requiredTime = rs.getLong(4);
+						result.add(s);
+					}
+				}
+				);
+		return result;
+	}
 	
 	/**
 	 * <p>Save the results of a training session to the database.
 	 * 
-	 * <p>The {@link trainer.PracticeController PracticeController} will call this method
-	 * at a regular end of a training session to save the performance results.
+	 * <p>Only the total performance rate will be saved.
+	 * Use {@link #saveSession2DB(int, PerformanceStats, long)} to save the results per char.
 	 * 
 	 * @param exerciseID ID of the performed <code>Exercise</code>
 	 * @param pr the performance rate for the session
@@ -73,5 +153,153 @@ public class SessionPersist {
 					pstm.executeUpdate();
 				});
 	}
+	
+	/**
+	 * <p>Save the results of a training session including the hits and errors of every
+	 * char to the database.
+	 * 
+	 * <p>The session and its results per char are written in a single transaction. The
+	 * results per char are inserted as one batch.
+	 * 
+	 * <p>The {@link trainer.PracticeController PracticeController} will call this method
+	 * at a regular end of a training session to save the performance results.
+	 * 
+	 * @param exerciseID ID of the performed <code>Exercise</code>
+	 * @param ps the performance statistics of the session
+	 * @param requiredTime the time required to finish the exercise
+	 */
+	public void saveSession2DB(int exerciseID, PerformanceStats ps, long requiredTime) {
+		long timeStamp = Instant.now().toEpochMilli();
+		DbAccess.getInstance().executeTransaction(db -> insertSession(db, exerciseID, timeStamp,
+				ps.getTotalPerformanceRate(), ps.getHits_errors(), requiredTime));
+	}
+	
+	/**
+	 * <p>Save the results of a training session like
+	 * {@link #saveSession2DB(int, PerformanceStats, long)}, but in the background.
+	 * 
+	 * <p>The results are copied and put into the queue of the {@link SessionWriter}, which
+	 * writes them with its next transaction. The time stamp of the session is the time of
+	 * this call.
+	 * 
+	 * @param exerciseID ID of the performed <code>Exercise</code>
+	 * @param ps the performance statistics of the session
+	 * @param requiredTime the time required to finish the exercise
+	 */
+	public void saveSessionAsync(int exerciseID, PerformanceStats ps, long requiredTime) {
+		SessionWriter.getInstance().submit(exerciseID, Instant.now().toEpochMilli(),
+				ps.getTotalPerformanceRate(), ps.getHits_errors(), requiredTime);
+	}
+	
+	/**
+	 * Get the reading position at which the last session of a text exercise has stopped.
+	 * @param exerciseID ID of the <code>Exercise</code>
+	 * @return the bookmark, or <code>null</code> if none has been saved
+	 */
+	public Bookmark getBookmark(int exerciseID) {
+		SessionWriter.getInstance().flush();
+		return DbAccess.getInstance().processPrepResultSet2Val(
+				"SELECT byteOffset, wordIndex FROM bookmarks WHERE idExercise=?",
+				pstm -> pstm.setInt(1, exerciseID),
+				rs -> rs.next() ? new Bookmark(rs.getLong(1), rs.getLong(2)) : null);
+	}
+	
+	/**
+	 * Save the reading position of a text exercise. Replaces the previous bookmark of the
+	 * exercise.
+	 * @param exerciseID ID of the <code>Exercise</code>
+	 * @param bookmark the bookmark
+	 */
+	public void saveBookmark(int exerciseID, Bookmark bookmark) {
+		saveBookmark(DbAccess.getInstance(), exerciseID, bookmark);
+	}
+	
+	/**
+	 * Save the reading position of a text exercise like
+	 * {@link #saveBookmark(int, Bookmark)}, but in the background by the
+	 * {@link SessionWriter}.
+	 * @param exerciseID ID of the <code>Exercise</code>
+	 * @param bookmark the bookmark
+	 */
+	public void saveBookmarkAsync(int exerciseID, Bookmark bookmark) {
+		SessionWriter.getInstance().submitBookmark(exerciseID, bookmark);
+	}
+	
+	/**
+	 * Delete the bookmark of an exercise, so that its next session starts at the beginning
+	 * of the text.
+	 * @param exerciseID ID of the <code>Exercise</code>
+	 */
+	public void deleteBookmark(int exerciseID) {
+		deleteBookmark(DbAccess.getInstance(), exerciseID);
+	}
+	
+	/**
+	 * Delete the bookmark of an exercise like {@link #deleteBookmark(int)}, but in the
+	 * background by the {@link SessionWriter}.
+	 * @param exerciseID ID of the <code>Exercise</code>
+	 */
+	public void deleteBookmarkAsync(int exerciseID) {
+		SessionWriter.getInstance().submitBookmark(exerciseID, null);
+	}
+	
+	static void saveBookmark(DbBase db, int exerciseID, Bookmark bookmark) {
+		db.executeUpdatePrepStm(
+				"INSERT OR REPLACE INTO bookmarks"
+				+ "(idExercise, byteOffset, wordIndex, timeStamp) VALUES"
+				+ "(?, ?, ?, ?)",
+				pstm->{
+					pstm.setInt(1, exerciseID);
+					pstm.setLong(2, bookmark.getOffset());
+					pstm.setLong(3, bookmark.getWordIndex());
+					pstm.setLong(4, Instant.now().toEpochMilli());
+					pstm.executeUpdate();
+				});
+	}
+	
+	static void deleteBookmark(DbBase db, int exerciseID) {
+		db.executeUpdatePrepStm(
+				"DELETE FROM bookmarks WHERE idExercise=?",
+				pstm->{
+					pstm.setInt(1, exerciseID);
+					pstm.executeUpdate();
+				});
+	}
+	
+	/**
+	 * Insert a session and its results per char. Must be called within a transaction.
+	 */
+	static void insertSession(DbBase db, int exerciseID, long timeStamp, PerformanceRate pr,
+			Set<Entry<Character, PerformanceRate>> hits_errors, long requiredTime) {
+		int[] idSession = new int[1];
+		db.executeUpdatePrepStm(
+				"INSERT INTO sessions"
+				+ "(idExercise, timeStamp, numHits, numErrors, requiredTime) VALUES"
+				+ "(?, ?, ?, ?, ?)",
+				Statement.RETURN_GENERATED_KEYS,
+				pstm->{
+					pstm.setInt(1, exerciseID);
+					pstm.setLong(2, timeStamp);
+					pstm.setInt(3, pr.getHits());
+					pstm.setInt(4, pr.getErrors());
+					pstm.setLong(5, requiredTime);
+					pstm.executeUpdate();
+					idSession[0] = pstm.getGeneratedKeys().getInt(1);
+				});
+		db.executeUpdatePrepStm(
+				"INSERT INTO sessionResults"
+				+ "(idSession, element, numHits, numErrors) VALUES"
+				+ "(?, ?, ?, ?)",
+				pstm->{
+					for(Entry<Character, PerformanceRate> e : hits_errors) {
+						pstm.setInt(1, idSession[0]);
+						pstm.setString(2, e.getKey().toString());
+						pstm.setInt(3, e.getValue().getHits());
+						pstm.setInt(4, e.getValue().getErrors());
+						pstm.addBatch();
+					}
+					pstm.executeBatch();
+				});
+	}
 
 }
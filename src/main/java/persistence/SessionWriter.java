@@ -0,0 +1,334 @@
+package persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import trainer.PerformanceRate;
+import trainer.lineCreators.Bookmark;
+
+/**
+ * <p>Write-behind queue for the results of training sessions and the bookmarks of text
+ * exercises.
+ *
+ * <p>Sessions are put into a bounded queue and written by a single background thread.
+ * All sessions that are waiting when the writer wakes up are written in one transaction.
+ * If the queue is full, {@link #submit(int, long, PerformanceRate, Set, long) submit}
+ * blocks until the writer has caught up.
+ *
+ * <p>If the transaction fails, the sessions are written again one by one, each in its own
+ * transaction. Sessions that still cannot be written are kept and tried again with the next
+ * transaction; the {@link FailureListener} is informed about them.
+ * 
+ * <p>{@link #flush()} waits until all sessions that have been submitted before are written,
+ * or have failed. It is called by {@link DbAccess#disconnect()}.
+ *
+ * @author Lasse Osterhagen
+ *
+ */
+public class SessionWriter {
+
+	private static final int QUEUE_CAPACITY = 64;
+	/**
+	 * The time {@link #flush()} waits for the writer at most.
+	 */
+	public static final long FLUSH_TIMEOUT_MILLIS = 10_000;
+
+	// Singleton pattern
+	private static SessionWriter instance = new SessionWriter();
+	public static SessionWriter getInstance() {return instance;}
+
+	private final BlockingQueue<Request> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+	private Thread writer;
+	private volatile long committedSessions;
+	private volatile long failedSessions;
+	private volatile long lastCommitLatency;
+	private volatile long maxCommitLatency;
+	private volatile long totalCommitLatency;
+	private volatile long commits;
+
+	private SessionWriter() {}
+	
+	/**
+	 * Is informed when sessions could not be written.
+	 */
+	@FunctionalInterface
+	public interface FailureListener {
+		/**
+		 * Called on the thread of the writer after a failed transaction.
+		 * @param e the exception of the last failed transaction
+		 * @param failedSessions the number of sessions that are kept to be written later
+		 */
+		void writeFailed(RuntimeException e, int failedSessions);
+	}
+	
+	private volatile FailureListener failureListener = (e, n) -> {};
+	// Writes whose transaction has failed, only accessed by the writer
+	private final ArrayList<PendingWrite> failed = new ArrayList<>();
+
+	private interface Request {}
+
+	private static abstract class PendingWrite implements Request {
+		abstract void write(DbBase db);
+		int sessionCount() {return 0;}
+	}
+
+	private static class PendingSession extends PendingWrite {
+		final int exerciseID;
+		final long timeStamp;
+		final PerformanceRate pr;
+		final Set<Entry<Character, PerformanceRate>> hits_errors;
+		final long requiredTime;
+
+		PendingSession(int exerciseID, long timeStamp, PerformanceRate pr,
+				Set<Entry<Character, PerformanceRate>> hits_errors, long requiredTime) {
+			this.exerciseID = exerciseID;
+			this.timeStamp = timeStamp;
+			this.pr = pr;
+			this.hits_errors = hits_errors;
+			this.requiredTime = requiredTime;
+		}
+
+		@Override
+		void write(DbBase db) {
+			SessionPersist.insertSession(db, exerciseID, timeStamp, pr, hits_errors, requiredTime);
+		}
+
+		@Override
+		int sessionCount() {return 1;}
+	}
+
+	private static class PendingBookmark extends PendingWrite {
+		final int exerciseID;
+		final Bookmark bookmark; // null to delete the bookmark
+
+		PendingBookmark(int exerciseID, Bookmark bookmark) {
+			this.exerciseID = exerciseID;
+			this.bookmark = bookmark;
+		}
+
+		@Override
+		void write(DbBase db) {
+			if(bookmark == null)
+				SessionPersist.deleteBookmark(db, exerciseID);
+			else
+				SessionPersist.saveBookmark(db, exerciseID, bookmark);
+		}
+	}
+
+	private static class FlushRequest implements Request {
+		final CountDownLatch done = new CountDownLatch(1);
+	}
+
+	/**
+	 * Put a session into the queue.
+	 * @param exerciseID ID of the performed <code>Exercise</code>
+	 * @param timeStamp the time stamp of the session in milliseconds
+	 * @param pr the total performance rate, will be copied
+	 * @param hits_errors the performance rates per char. Must not be changed afterwards.
+	 * @param requiredTime the time required to finish the exercise
+	 */
+	public void submit(int exerciseID, long timeStamp, PerformanceRate pr,
+			Set<Entry<Character, PerformanceRate>> hits_errors, long requiredTime) {
+		put(new PendingSession(exerciseID, timeStamp,
+				new PerformanceRate(pr.getHits(), pr.getErrors()), hits_errors, requiredTime));
+	}
+
+	/**
+	 * Put the bookmark of a text exercise into the queue. It is written in the order of
+	 * submission together with the sessions.
+	 * @param exerciseID ID of the <code>Exercise</code>
+	 * @param bookmark the bookmark, <code>null</code> to delete the bookmark of the exercise
+	 */
+	public void submitBookmark(int exerciseID, Bookmark bookmark) {
+		put(new PendingBookmark(exerciseID, bookmark));
+	}
+
+	public void setFailureListener(FailureListener failureListener) {
+		this.failureListener = failureListener;
+	}
+	
+	/**
+	 * Wait until all sessions that have been submitted so far are written to the database,
+	 * or their transaction has failed. Waits at most {@value #FLUSH_TIMEOUT_MILLIS} ms.
+	 * @return true if the writer has caught up within the time
+	 */
+	public boolean flush() {
+		synchronized(this) {
+			if(writer == null)
+				return true; // nothing has ever been submitted
+		}
+		FlushRequest flush = new FlushRequest();
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_TIMEOUT_MILLIS);
+		try {
+			if(!queue.offer(flush, FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+				return false;
+			return flush.done.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Get the number of sessions and flush requests that are waiting to be written.
+	 * @return the current depth of the queue
+	 */
+	public int getQueueDepth() {
+		return queue.size();
+	}
+
+	/**
+	 * Get the number of sessions that have been written successfully.
+	 * @return the number of committed sessions
+	 */
+	public long getCommittedSessions() {
+		return committedSessions;
+	}
+
+	/**
+	 * Get the number of sessions that could not be written, because their transaction
+	 * failed. They are tried again with the next transaction.
+	 * @return the number of failed sessions that have not been written yet
+	 */
+	public long getFailedSessions() {
+		return failedSessions;
+	}
+
+	/**
+	 * Get the duration of the last transaction, including its commit.
+	 * @return the latency in nanoseconds, 0 if nothing has been written yet
+	 */
+	public long getLastCommitLatency() {
+		return lastCommitLatency;
+	}
+
+	/**
+	 * Get the duration of the longest transaction so far.
+	 * @return the latency in nanoseconds
+	 */
+	public long getMaxCommitLatency() {
+		return maxCommitLatency;
+	}
+
+	/**
+	 * Get the mean duration of all transactions so far.
+	 * @return the latency in nanoseconds, 0 if nothing has been written yet
+	 */
+	public long getMeanCommitLatency() {
+		long n = commits;
+		return n == 0 ? 0 : totalCommitLatency/n;
+	}
+
+	/**
+	 * Forget the sessions that have failed. Only for tests: must only be called after
+	 * {@link #flush()}, while nothing is submitted.
+	 */
+	void discardFailed() {
+		failed.clear();
+		failedSessions = 0;
+	}
+	
+	private void put(Request request) {
+		startWriter();
+		try {
+			queue.put(request);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while queueing", e);
+		}
+	}
+
+	private synchronized void startWriter() {
+		if(writer != null)
+			return;
+		writer = new Thread(this::write, "SessionWriter");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	private void write() {
+		ArrayList<Request> batch = new ArrayList<>(QUEUE_CAPACITY);
+		ArrayList<PendingWrite> writes = new ArrayList<>(QUEUE_CAPACITY);
+		while(true) {
+			try {
+				batch.add(queue.take());
+			} catch (InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch);
+			// Writes that have failed before come first, as they are older
+			writes.addAll(failed);
+			failed.clear();
+			for(Request r : batch) {
+				if(r instanceof PendingWrite)
+					writes.add((PendingWrite) r);
+			}
+			if(!writes.isEmpty())
+				writeAll(writes);
+			for(Request r : batch) {
+				if(r instanceof FlushRequest)
+					((FlushRequest) r).done.countDown();
+			}
+			batch.clear();
+			writes.clear();
+		}
+	}
+
+	private void writeAll(ArrayList<PendingWrite> writes) {
+		RuntimeException failure = write(writes);
+		if(failure != null && writes.size() > 1) {
+			// Write one by one, so that a single bad session does not take the others with it
+			failure = null;
+			for(PendingWrite w : writes) {
+				RuntimeException e = write(Collections.singletonList(w));
+				if(e != null) {
+					failure = e;
+					failed.add(w);
+				}
+			}
+		}
+		else if(failure != null)
+			failed.addAll(writes);
+		int n = 0;
+		for(PendingWrite w : failed)
+			n += w.sessionCount();
+		failedSessions = n;
+		if(failure != null) {
+			failure.printStackTrace();
+			if(n > 0)
+				failureListener.writeFailed(failure, n);
+		}
+	}
+	
+	/**
+	 * Write in a single transaction.
+	 * @return the exception if the transaction has failed, otherwise <code>null</code>
+	 */
+	private RuntimeException write(List<PendingWrite> writes) {
+		long start = System.nanoTime();
+		try {
+			DbAccess.getInstance().executeTransaction(db -> {
+				for(PendingWrite w : writes)
+					w.write(db);
+			});
+		} catch (RuntimeException e) {
+			return e;
+		}
+		long latency = System.nanoTime() - start;
+		lastCommitLatency = latency;
+		maxCommitLatency = Math.max(maxCommitLatency, latency);
+		totalCommitLatency += latency;
+		++commits;
+		for(PendingWrite w : writes)
+			committedSessions += w.sessionCount();
+		return null;
+	}
+
+}
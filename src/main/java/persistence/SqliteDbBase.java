@@ -9,31 +9,68 @@ import java.sql.Statement;
 
 import org.sqlite.SQLiteConfig;
 
+/**
+ * <p>The SQLite implementation of {@link DbBase}.
+ * 
+ * <p>The connection is configured by {@link SqliteTuning}. Prepared statements are kept in
+ * a {@link StatementCache} and reused by later calls with the same SQL text.
+ * 
+ * <p>All methods are synchronized, because the {@link SessionWriter} accesses the
+ * connection from its own thread.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
 public class SqliteDbBase implements DbBase {
 	
 	private Connection con;
+	private boolean inTransaction;
+	private SqliteTuning tuning = new SqliteTuning();
+	private StatementCache statementCache;
 	
 	// Singleton pattern
 	private static SqliteDbBase instance = new SqliteDbBase();	
 	public static SqliteDbBase getInstance() {return instance;}
 	private SqliteDbBase() {}
 	
+	/**
+	 * Set the tuning settings that will be used by the next call to {@link #connect(String)}.
+	 * @param tuning the tuning settings
+	 */
+	public void setTuning(SqliteTuning tuning) {
+		this.tuning = tuning;
+	}
+	
+	public SqliteTuning getTuning() {
+		return tuning;
+	}
+	
 	@Override
-	public void connect(String path2DB) {
+	public synchronized void connect(String path2DB) {
 		try {
 			//Class.forName("org.sqlite.JDBC");
 			SQLiteConfig config = new SQLiteConfig();  
 	        config.enforceForeignKeys(true);
+	        tuning.apply(config);
 			con = DriverManager.getConnection("jdbc:sqlite:" + path2DB, config.toProperties());
+			// not supported by SQLiteConfig
+			try (Statement stat = con.createStatement()) {
+				stat.execute("PRAGMA mmap_size=" + tuning.getMmapSize());
+			}
+			statementCache = new StatementCache(con, tuning.getStatementCacheSize());
 		} catch (SQLException e) {
 			throw new RuntimeException(e);
 		}
 	}
 	
 	@Override
-	public void disconnect() {
+	public synchronized void disconnect() {
 		if(con != null) {
 			try {
+				if(statementCache != null) {
+					statementCache.close();
+					statementCache = null;
+				}
 				if(!con.isClosed())
 					con.close();
 			}
@@ -44,7 +81,7 @@ public class SqliteDbBase implements DbBase {
 	}
 	
 	@Override
-	public int executeUpdate(String sql) {
+	public synchronized int executeUpdate(String sql) {
 		int numChanged = 0;
 		try (Statement stat = con.createStatement()) {
 			numChanged = stat.executeUpdate(sql);
@@ -55,25 +92,59 @@ public class SqliteDbBase implements DbBase {
 	}
 	
 	@Override
-	public void executeUpdatePrepStm(String sql, PstmProcessor pstmProcessor) {
+	public synchronized void executeUpdatePrepStm(String sql, PstmProcessor pstmProcessor) {
 		executeUpdatePrepStm(sql, Statement.NO_GENERATED_KEYS, pstmProcessor);
 	}
 	
 	@Override
-	public void executeUpdatePrepStm(String sql, int autoGeneratedKeys,
+	public synchronized void executeUpdatePrepStm(String sql, int autoGeneratedKeys,
 			PstmProcessor pstmProcessor) {
-		try (PreparedStatement pstm = con.prepareStatement(sql, autoGeneratedKeys)){
+		PreparedStatement pstm = null;
+		boolean succeeded = false;
+		try {
+			pstm = statementCache.prepare(sql, autoGeneratedKeys);
+			if(inTransaction) {
+				// committed by executeTransaction()
+				pstmProcessor.process(pstm);
+			}
+			else {
+				con.setAutoCommit(false);
+				pstmProcessor.process(pstm);
+				con.commit();
+				con.setAutoCommit(true);
+			}
+			succeeded = true;
+		} catch (SQLException | DatabaseException e) {
+			throw new RuntimeException(e);
+		} finally {
+			statementCache.release(pstm, succeeded);
+		}
+	}
+	
+	@Override
+	public synchronized void executeTransaction(TransactionProcessor transactionProcessor) {
+		if(inTransaction)
+			throw new IllegalStateException("Nested transactions are not supported.");
+		try {
 			con.setAutoCommit(false);
-			pstmProcessor.process(pstm);
-			con.commit();
-			con.setAutoCommit(true);
+			inTransaction = true;
+			try {
+				transactionProcessor.process(this);
+				con.commit();
+			} catch (SQLException | DatabaseException | RuntimeException e) {
+				con.rollback();
+				throw e;
+			} finally {
+				inTransaction = false;
+				con.setAutoCommit(true);
+			}
 		} catch (SQLException | DatabaseException e) {
 			throw new RuntimeException(e);
 		}
 	}
 	
 	@Override
-	public void processResultSet(String sqlSelect, ResultSetProcessor rsProcessor) {
+	public synchronized void processResultSet(String sqlSelect, ResultSetProcessor rsProcessor) {
 		try(ResultSet rs = con.createStatement().executeQuery(sqlSelect)) {
 			rsProcessor.process(rs);
 		} catch (SQLException | DatabaseException e) {
@@ -82,7 +153,7 @@ public class SqliteDbBase implements DbBase {
 	}
 	
 	@Override
-	public <T> T processResultSet2Val(String sqlSelect,
+	public synchronized <T> T processResultSet2Val(String sqlSelect,
 			ResultSetReturnProcessor<T> rsReturnProcessor) {
 		T returnVal = null;
 		try(ResultSet rs = con.createStatement().executeQuery(sqlSelect)) {
@@ -94,29 +165,31 @@ public class SqliteDbBase implements DbBase {
 	}
 	
 	@Override
-	public void processPrepResultSet(String sqlSelect, PstmProcessor pstmProcessor,
+	public synchronized void processPrepResultSet(String sqlSelect, PstmProcessor pstmProcessor,
 			ResultSetProcessor rsProcessor) {
-		try(PreparedStatement pstm = con.prepareStatement(sqlSelect)) {
-			pstmProcessor.process(pstm);
-			try(ResultSet rs = pstm.executeQuery()) {
-				rsProcessor.process(rs);
-			}
-		} catch (SQLException | DatabaseException e) {
-			throw new RuntimeException(e);
-		}
-		
+		processPrepResultSet2Val(sqlSelect, pstmProcessor, rs -> {
+			rsProcessor.process(rs);
+			return null;
+		});
 	}
+	
 	@Override
-	public <T> T processPrepResultSet2Val(String sqlSelect, PstmProcessor pstmProcessor,
+	public synchronized <T> T processPrepResultSet2Val(String sqlSelect, PstmProcessor pstmProcessor,
 			ResultSetReturnProcessor<T> rsReturnProcessor) {
 		T returnVal = null;
-		try(PreparedStatement pstm = con.prepareStatement(sqlSelect)) {
+		PreparedStatement pstm = null;
+		boolean succeeded = false;
+		try {
+			pstm = statementCache.prepare(sqlSelect, Statement.NO_GENERATED_KEYS);
 			pstmProcessor.process(pstm);
 			try(ResultSet rs = pstm.executeQuery()) {
 				returnVal = rsReturnProcessor.process(rs);
 			}
+			succeeded = true;
 		} catch (SQLException | DatabaseException e) {
 			throw new RuntimeException(e);
+		} finally {
+			statementCache.release(pstm, succeeded);
 		}
 		return returnVal;
 	}
@@ -0,0 +1,151 @@
+package persistence;
+
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+
+/**
+ * <p>Connection settings for {@link SqliteDbBase}. The settings take effect with the next
+ * call to {@link SqliteDbBase#connect(String)}.
+ * 
+ * <p>The defaults are chosen for a database that mainly grows by appended sessions:
+ * <ul>
+ * <li>journal mode <i>WAL</i>, so that readers do not block the writer</li>
+ * <li>synchronous <i>NORMAL</i>, which in WAL mode only syncs at checkpoints</li>
+ * <li>a page cache of 8 MiB</li>
+ * <li>a memory mapped region of 64 MiB</li>
+ * <li>up to 32 cached <code>PreparedStatement</code>s</li>
+ * </ul>
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class SqliteTuning {
+	
+	/**
+	 * Property keys that are read by {@link #fromProperties(Properties)}.
+	 */
+	public static final String JOURNAL_MODE_KEY = "db.journalMode";
+	public static final String SYNCHRONOUS_KEY = "db.synchronous";
+	public static final String CACHE_SIZE_KEY = "db.cacheSize";
+	public static final String MMAP_SIZE_KEY = "db.mmapSize";
+	public static final String STATEMENT_CACHE_SIZE_KEY = "db.statementCacheSize";
+	
+	private JournalMode journalMode = JournalMode.WAL;
+	private SynchronousMode synchronous = SynchronousMode.NORMAL;
+	private int cacheSize = -8192; // negative: size in KiB
+	private long mmapSize = 64L << 20;
+	private int statementCacheSize = 32;
+	
+	/**
+	 * Create tuning settings from properties. Missing properties and properties with an
+	 * invalid value keep their default values; an invalid value is reported to
+	 * <code>System.err</code>.
+	 * @param properties the properties, e. g. the application properties
+	 * @return the tuning settings
+	 */
+	public static SqliteTuning fromProperties(Properties properties) {
+		SqliteTuning tuning = new SqliteTuning();
+		setFromProperty(properties, JOURNAL_MODE_KEY,
+				v -> tuning.setJournalMode(JournalMode.valueOf(v.toUpperCase())));
+		setFromProperty(properties, SYNCHRONOUS_KEY,
+				v -> tuning.setSynchronous(SynchronousMode.valueOf(v.toUpperCase())));
+		setFromProperty(properties, CACHE_SIZE_KEY,
+				v -> tuning.setCacheSize(Integer.parseInt(v)));
+		setFromProperty(properties, MMAP_SIZE_KEY,
+				v -> tuning.setMmapSize(Long.parseLong(v)));
+		setFromProperty(properties, STATEMENT_CACHE_SIZE_KEY,
+				v -> tuning.setStatementCacheSize(Integer.parseInt(v)));
+		return tuning;
+	}
+	
+	private static void setFromProperty(Properties properties, String key,
+			Consumer<String> setter) {
+		String value = properties.getProperty(key);
+		if(value == null)
+			return;
+		try {
+			setter.accept(value.trim());
+		}
+		catch (IllegalArgumentException e) {
+			// includes NumberFormatException
+			System.err.println("Invalid value of property " + key + ": " + value
+					+ "; the default value is used.");
+		}
+	}
+	
+	/**
+	 * Apply the settings that are supported by <code>SQLiteConfig</code>.
+	 * @param config the configuration of the connection to be opened
+	 */
+	void apply(SQLiteConfig config) {
+		config.setJournalMode(journalMode);
+		config.setSynchronous(synchronous);
+		config.setCacheSize(cacheSize);
+	}
+
+	public JournalMode getJournalMode() {
+		return journalMode;
+	}
+
+	public void setJournalMode(JournalMode journalMode) {
+		this.journalMode = journalMode;
+	}
+
+	public SynchronousMode getSynchronous() {
+		return synchronous;
+	}
+
+	public void setSynchronous(SynchronousMode synchronous) {
+		this.synchronous = synchronous;
+	}
+
+	/**
+	 * Get the size of the page cache.
+	 * @return the number of pages, or the size in KiB if negative
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Set the size of the page cache (<i>PRAGMA cache_size</i>).
+	 * @param cacheSize the number of pages, or the size in KiB if negative
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	public long getMmapSize() {
+		return mmapSize;
+	}
+
+	/**
+	 * Set the maximum number of bytes of the database file that are accessed by memory
+	 * mapped I/O (<i>PRAGMA mmap_size</i>).
+	 * @param mmapSize the number of bytes, 0 to disable memory mapped I/O
+	 */
+	public void setMmapSize(long mmapSize) {
+		if(mmapSize < 0)
+			throw new IllegalArgumentException("mmapSize must not be negative");
+		this.mmapSize = mmapSize;
+	}
+
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	/**
+	 * Set the maximum number of <code>PreparedStatement</code>s that are kept open for reuse.
+	 * @param statementCacheSize the number of statements, 0 to disable caching
+	 */
+	public void setStatementCacheSize(int statementCacheSize) {
+		if(statementCacheSize < 0)
+			throw new IllegalArgumentException("statementCacheSize must not be negative");
+		this.statementCacheSize = statementCacheSize;
+	}
+
+}
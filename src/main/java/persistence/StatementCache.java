@@ -0,0 +1,100 @@
+package persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An LRU cache of <code>PreparedStatement</code>s of a single connection, keyed by the
+ * SQL text and the <i>autoGeneratedKeys</i> flag. The least recently used statement is
+ * closed when the cache is full.
+ * 
+ * <p>A statement that is obtained by {@link #prepare(String, int)} must be given back
+ * by {@link #release(PreparedStatement, boolean)} before the same SQL is prepared again.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+class StatementCache {
+	
+	private final Connection con;
+	private final int capacity;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+	
+	/**
+	 * Construct a StatementCache.
+	 * @param con the connection
+	 * @param capacity the maximum number of cached statements, 0 to close every statement
+	 * after its use
+	 */
+	@SuppressWarnings("serial")
+	StatementCache(Connection con, int capacity) {
+		this.con = con;
+		this.capacity = capacity;
+		statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+				if(size() <= StatementCache.this.capacity)
+					return false;
+				closeQuietly(eldest.getValue());
+				return true;
+			}
+		};
+	}
+	
+	/**
+	 * Get a prepared statement for the SQL text, either from the cache or newly prepared.
+	 * @param sql the SQL text
+	 * @param autoGeneratedKeys see {@link Connection#prepareStatement(String, int)}
+	 * @return the statement with cleared parameters
+	 * @throws SQLException if the statement could not be prepared
+	 */
+	PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+		PreparedStatement pstm = statements.get(key(sql, autoGeneratedKeys));
+		if(pstm != null) {
+			pstm.clearParameters();
+			return pstm;
+		}
+		pstm = con.prepareStatement(sql, autoGeneratedKeys);
+		if(capacity > 0)
+			statements.put(key(sql, autoGeneratedKeys), pstm);
+		return pstm;
+	}
+	
+	/**
+	 * Give back a statement after its use.
+	 * @param pstm the statement, may be <code>null</code>
+	 * @param reusable false if the statement failed and should not be reused
+	 */
+	void release(PreparedStatement pstm, boolean reusable) {
+		if(pstm == null)
+			return;
+		if(reusable && statements.containsValue(pstm))
+			return;
+		statements.values().remove(pstm);
+		closeQuietly(pstm);
+	}
+	
+	/**
+	 * Close all cached statements.
+	 */
+	void close() {
+		statements.values().forEach(StatementCache::closeQuietly);
+		statements.clear();
+	}
+	
+	private static String key(String sql, int autoGeneratedKeys) {
+		return autoGeneratedKeys + sql;
+	}
+	
+	private static void closeQuietly(PreparedStatement pstm) {
+		try {
+			pstm.close();
+		} catch (SQLException e) {
+			// nothing left to release
+		}
+	}
+
+}
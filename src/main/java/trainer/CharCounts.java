@@ -0,0 +1,121 @@
+package trainer;
+
+import java.util.Arrays;
+
+/**
+ * <p>A table of <tt>int</tt> counters, keyed by chars. Every char owns the same number of
+ * counters (columns).
+ * 
+ * <p>Chars below {@link #DENSE_SIZE} (Basic Latin up to Latin Extended-B, which covers the
+ * chars of all current keyboard layouts) are counted in plain arrays that are indexed by the
+ * char itself. All other chars are kept in a sparse overflow of sorted arrays. The overflow only
+ * allocates memory, when a char appears for the first time, so incrementing a counter does not
+ * allocate for any char that has been counted before.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+
+class CharCounts {
+	
+	static final int DENSE_SIZE = 0x250;
+	
+	private final int columns;
+	private final int[][] dense;
+	private char[] sparseChars = new char[0];
+	private int[][] sparse;
+	private int sparseSize;
+	private int size;
+	
+	/**
+	 * Create an empty table.
+	 * @param columns the number of counters per char
+	 */
+	CharCounts(int columns) {
+		this.columns = columns;
+		dense = new int[columns][DENSE_SIZE];
+		sparse = new int[columns][0];
+	}
+	
+	/**
+	 * Increment a counter of a char by one.
+	 * @param c the char
+	 * @param column the index of the counter
+	 * @return the new value of the counter
+	 */
+	int increment(char c, int column) {
+		if(c < DENSE_SIZE) {
+			if(!containsDense(c))
+				++size;
+			return ++dense[column][c];
+		}
+		int index = Arrays.binarySearch(sparseChars, 0, sparseSize, c);
+		if(index < 0)
+			index = insertSparse(-index-1, c);
+		return ++sparse[column][index];
+	}
+	
+	/**
+	 * Get the value of a counter.
+	 * @param c the char
+	 * @param column the index of the counter
+	 * @return the value of the counter or zero, if the char has not been counted yet
+	 */
+	int get(char c, int column) {
+		if(c < DENSE_SIZE)
+			return dense[column][c];
+		int index = Arrays.binarySearch(sparseChars, 0, sparseSize, c);
+		return index < 0 ? 0 : sparse[column][index];
+	}
+	
+	/**
+	 * Get the number of chars that have been counted at least once.
+	 * @return the number of chars
+	 */
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * Get all chars that have been counted at least once.
+	 * @return the chars in ascending order
+	 */
+	char[] chars() {
+		char[] result = new char[size];
+		int n = 0;
+		for(char c=0; c<DENSE_SIZE; ++c) {
+			if(containsDense(c))
+				result[n++] = c;
+		}
+		System.arraycopy(sparseChars, 0, result, n, sparseSize);
+		return result;
+	}
+	
+	private boolean containsDense(char c) {
+		for(int[] column : dense) {
+			if(column[c] != 0)
+				return true;
+		}
+		return false;
+	}
+	
+	private int insertSparse(int index, char c) {
+		if(sparseSize == sparseChars.length) {
+			int newLength = Math.max(4, 2*sparseSize);
+			sparseChars = Arrays.copyOf(sparseChars, newLength);
+			for(int i=0; i<columns; ++i)
+				sparse[i] = Arrays.copyOf(sparse[i], newLength);
+		}
+		int numMoved = sparseSize - index;
+		System.arraycopy(sparseChars, index, sparseChars, index+1, numMoved);
+		for(int[] column : sparse) {
+			System.arraycopy(column, index, column, index+1, numMoved);
+			column[index] = 0;
+		}
+		sparseChars[index] = c;
+		++sparseSize;
+		++size;
+		return index;
+	}
+
+}
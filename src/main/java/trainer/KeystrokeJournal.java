@@ -0,0 +1,188 @@
+package trainer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Records every keystroke of a practice session to a compact binary file.
+ *
+ * <p>{@link #record(char, char, boolean)} is called by the {@link LineMonitor} on the
+ * thread that handles the key events. It only writes into a preallocated ring buffer and
+ * never blocks. If the ring buffer is full, the keystroke is dropped and counted. A
+ * background thread drains the ring buffer into a memory mapped file.
+ *
+ * <p>File format (big-endian):
+ * <pre>
+ * header, {@value #HEADER_SIZE} bytes:
+ *   int   magic ({@value #MAGIC}, "TTKJ")
+ *   short version ({@value #VERSION})
+ *   short record size ({@value #RECORD_SIZE})
+ *   int   exercise id
+ *   long  start time as unix time in milliseconds
+ *   long  number of records
+ *   long  number of dropped keystrokes
+ *   4 bytes reserved
+ * records, {@value #RECORD_SIZE} bytes each:
+ *   long  nanoseconds since the previous keystroke (since the start of the journal for
+ *         the first one), shifted left by one; the lowest bit is 1 for a correct keystroke
+ *   char  the expected char
+ *   char  the typed char
+ * </pre>
+ * The number of records in the header is updated after each drain, so that the file can
+ * be read even if the application terminated without closing the journal.
+ *
+ * @author Lasse Osterhagen
+ * @see KeystrokeJournalReader
+ *
+ */
+public class KeystrokeJournal implements Closeable {
+
+	static final int MAGIC = 0x54544b4a;
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 40;
+	static final int RECORD_SIZE = 12;
+	static final int COUNT_OFFSET = 20;
+	static final int DROPPED_OFFSET = 28;
+
+	private static final int CAPACITY = 4096; // power of 2
+	private static final int MASK = CAPACITY-1;
+	private static final long MAP_CHUNK = RECORD_SIZE * 16384L;
+	private static final long DRAIN_INTERVAL_NANOS = 20_000_000;
+
+	// Ring buffer, written by the typing thread and read by the drainer
+	private final long[] deltas = new long[CAPACITY];
+	private final int[] chars = new int[CAPACITY];
+	private final AtomicLong head = new AtomicLong(); // next slot to write
+	private final AtomicLong tail = new AtomicLong(); // next slot to read
+	private long lastNanos;
+	private volatile long dropped;
+
+	// File, only accessed by the drainer (and by close() after the drainer has terminated)
+	private final FileChannel channel;
+	private final MappedByteBuffer header;
+	private MappedByteBuffer records;
+	private long filePosition = HEADER_SIZE;
+	private long count;
+
+	private final Thread drainer;
+	private volatile boolean closed;
+
+	/**
+	 * Create a new journal file and start recording.
+	 * @param file the journal file. An existing file will be overwritten.
+	 * @param exerciseID the id of the exercise of the session
+	 * @throws IOException if the file could not be created
+	 */
+	public KeystrokeJournal(Path file, int exerciseID) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+		header.putInt(MAGIC);
+		header.putShort(VERSION);
+		header.putShort((short) RECORD_SIZE);
+		header.putInt(exerciseID);
+		header.putLong(System.currentTimeMillis());
+		header.putLong(0);
+		header.putLong(0);
+		records = channel.map(MapMode.READ_WRITE, filePosition, MAP_CHUNK);
+		lastNanos = System.nanoTime();
+		drainer = new Thread(this::drainLoop, "KeystrokeJournal");
+		drainer.setDaemon(true);
+		drainer.start();
+	}
+
+	/**
+	 * Record a keystroke. Never blocks.
+	 * @param expected the char that should have been typed
+	 * @param typed the char that has been typed
+	 * @param correct true if the keystroke was correct
+	 */
+	public void record(char expected, char typed, boolean correct) {
+		long now = System.nanoTime();
+		long h = head.get();
+		if(h - tail.get() == CAPACITY) {
+			dropped = dropped+1; // only written by this thread
+			return;
+		}
+		int i = (int) h & MASK;
+		deltas[i] = (now-lastNanos) << 1 | (correct ? 1 : 0);
+		chars[i] = expected << 16 | typed;
+		lastNanos = now;
+		head.lazySet(h+1);
+	}
+
+	/**
+	 * Get the number of keystrokes that have been dropped because the ring buffer was full.
+	 * @return the number of dropped keystrokes
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Write all recorded keystrokes and close the file.
+	 * @throws IOException if the file could not be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(closed)
+			return;
+		closed = true;
+		LockSupport.unpark(drainer);
+		try {
+			drainer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		drain();
+		header.putLong(DROPPED_OFFSET, dropped);
+		records.force();
+		header.force();
+		try {
+			channel.truncate(filePosition);
+		} catch (IOException e) {
+			// Some platforms do not allow to truncate a mapped file; the header knows
+			// the number of records anyway.
+		}
+		channel.close();
+	}
+
+	private void drainLoop() {
+		try {
+			while(!closed) {
+				drain();
+				LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void drain() throws IOException {
+		long t = tail.get();
+		long h = head.get();
+		if(t == h)
+			return;
+		for(; t < h; ++t) {
+			if(records.remaining() < RECORD_SIZE)
+				records = channel.map(MapMode.READ_WRITE, filePosition, MAP_CHUNK);
+			int i = (int) t & MASK;
+			records.putLong(deltas[i]);
+			records.putChar((char) (chars[i] >>> 16));
+			records.putChar((char) chars[i]);
+			filePosition += RECORD_SIZE;
+			++count;
+		}
+		tail.lazySet(t);
+		header.putLong(COUNT_OFFSET, count);
+	}
+
+}
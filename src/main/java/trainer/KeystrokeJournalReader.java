@@ -0,0 +1,108 @@
+package trainer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a file that has been written by {@link KeystrokeJournal}.
+ *
+ * @author Lasse Osterhagen
+ *
+ */
+public class KeystrokeJournalReader {
+
+	/**
+	 * Receives the keystrokes of a journal.
+	 */
+	@FunctionalInterface
+	public interface KeystrokeProcessor {
+		/**
+		 * Process a single keystroke.
+		 * @param deltaNanos the nanoseconds since the previous keystroke
+		 * @param expected the char that should have been typed
+		 * @param typed the char that has been typed
+		 * @param correct true if the keystroke was correct
+		 */
+		void process(long deltaNanos, char expected, char typed, boolean correct);
+	}
+
+	private final int exerciseID;
+	private final long startTime;
+	private final long dropped;
+	private final ByteBuffer records;
+
+	/**
+	 * Open a journal file and read its header.
+	 * @param file the journal file
+	 * @throws IOException if the file could not be read or is not a journal file
+	 */
+	public KeystrokeJournalReader(Path file) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if(channel.size() < KeystrokeJournal.HEADER_SIZE)
+				throw new IOException("Not a keystroke journal: " + file);
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, KeystrokeJournal.HEADER_SIZE);
+			if(header.getInt() != KeystrokeJournal.MAGIC)
+				throw new IOException("Not a keystroke journal: " + file);
+			short version = header.getShort();
+			if(version != KeystrokeJournal.VERSION)
+				throw new IOException("Unsupported keystroke journal version: " + version);
+			int recordSize = header.getShort();
+			exerciseID = header.getInt();
+			startTime = header.getLong();
+			long count = header.getLong();
+			dropped = header.getLong();
+			// The file may be shorter than the header claims if it has been cut off
+			count = Math.min(count, (channel.size()-KeystrokeJournal.HEADER_SIZE)/recordSize);
+			records = channel.map(MapMode.READ_ONLY, KeystrokeJournal.HEADER_SIZE,
+					count*recordSize);
+		}
+	}
+
+	public int getExerciseID() {
+		return exerciseID;
+	}
+
+	/**
+	 * Get the start time of the journal.
+	 * @return the start time as unix time in milliseconds
+	 */
+	public long getStartTime() {
+		return startTime;
+	}
+
+	/**
+	 * Get the number of keystrokes in the journal.
+	 * @return the number of records
+	 */
+	public long getRecordCount() {
+		return records.capacity()/KeystrokeJournal.RECORD_SIZE;
+	}
+
+	/**
+	 * Get the number of keystrokes that were not recorded, because the journal could not
+	 * keep up.
+	 * @return the number of dropped keystrokes
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Pass all keystrokes in the order of their recording to a processor.
+	 * @param processor the processor
+	 */
+	public void forEach(KeystrokeProcessor processor) {
+		ByteBuffer buffer = records.duplicate();
+		while(buffer.remaining() >= KeystrokeJournal.RECORD_SIZE) {
+			long delta = buffer.getLong();
+			char expected = buffer.getChar();
+			char typed = buffer.getChar();
+			processor.process(delta >>> 1, expected, typed, (delta & 1) == 1);
+		}
+	}
+
+}
@@ -2,6 +2,7 @@ package trainer;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.util.Arrays;
 import java.util.Observable;
 
 /**
@@ -10,6 +11,10 @@ import java.util.Observable;
  * 
  * <p>The class depends on a <code>PracticeController</code> that manages practice execution.
  * 
+ * <p>Every keystroke is reported to the registered {@link KeystrokeListener}s. For
+ * compatibility, <code>Observer</code>s are still notified with a {@link KeyTypedEvent},
+ * but only if there are any.
+ * 
  * @author Lasse Osterhagen
  *
  */
@@ -20,6 +25,22 @@ public class LineMonitor extends Observable implements KeyListener {
 	private int position;
 	private PracticeController pc;
 	private PerformanceStats performanceStats;
+	private KeystrokeJournal keystrokeJournal;
+	private KeystrokeListener[] listeners = new KeystrokeListener[0];
+	
+	/**
+	 * Listener that will be notified about every keystroke.
+	 */
+	@FunctionalInterface
+	public interface KeystrokeListener {
+		/**
+		 * Called after a keystroke has been checked, and after the <tt>PracticeController</tt>
+		 * has been informed about it.
+		 * @param c the typed char
+		 * @param correct true if the typed char was correct
+		 */
+		void keyTyped(char c, boolean correct);
+	}
 
 	public LineMonitor(PracticeController pc) {
 		this.pc = pc;
@@ -35,6 +56,34 @@ public class LineMonitor extends Observable implements KeyListener {
 		position = 0;
 	}
 	
+	/**
+	 * Record every keystroke to a journal.
+	 * @param keystrokeJournal the journal, or <code>null</code> to stop recording
+	 */
+	public void setKeystrokeJournal(KeystrokeJournal keystrokeJournal) {
+		this.keystrokeJournal = keystrokeJournal;
+	}
+	
+	/**
+	 * Register a listener that will be notified about every keystroke.
+	 * @param listener the listener
+	 */
+	public void addKeystrokeListener(KeystrokeListener listener) {
+		KeystrokeListener[] newListeners = Arrays.copyOf(listeners, listeners.length+1);
+		newListeners[listeners.length] = listener;
+		listeners = newListeners;
+	}
+	
+	/**
+	 * Remove a listener that was registered by
+	 * {@link #addKeystrokeListener(KeystrokeListener)}.
+	 * @param listener the listener
+	 */
+	public void removeKeystrokeListener(KeystrokeListener listener) {
+		listeners = Arrays.stream(listeners).filter(l -> l != listener)
+				.toArray(KeystrokeListener[]::new);
+	}
+	
 	/**
 	 * Get the current position within the string line.
 	 * @return the current position
@@ -66,7 +115,7 @@ public class LineMonitor extends Observable implements KeyListener {
 	 * Checks whether the the typed char is correct and if so, advances the
 	 * current char position by one. Notifies the {@link trainer.PracticeController} directly
 	 * about a correctly typed char and requests a new line, if needed. Besides, notifies
-	 * registered observers with a {@link trainer.KeyTypedEvent}. Actualizes the
+	 * registered {@link KeystrokeListener}s and observers. Actualizes the
 	 * {@link trainer.PerformanceStats}.
 	 * @param c the typed char
 	 * @return true if typed char was correct, otherwise false
@@ -74,9 +123,12 @@ public class LineMonitor extends Observable implements KeyListener {
 	public boolean advanceIfCorrect(char c) {
 		// atm return type is used for test only
 		boolean correct;
-		setChanged();
 		if(!(pc.getState() == PracticeController.State.RUNNING))
 			throw new IllegalStateException("Illegal state: " + pc.getState());
+		if(keystrokeJournal != null)
+			keystrokeJournal.record(getCurrentChar(), c, getCurrentChar() == c);
+		performanceStats.getNGramStats().addKeystroke(getCurrentChar(), getCurrentChar() == c,
+				pc.getClock().nanoTime());
 		if(getCurrentChar() == c) {
 			pc.incrementCorrectTypedChars();
 			performanceStats.addHit(c);
@@ -86,15 +138,19 @@ public class LineMonitor extends Observable implements KeyListener {
 			else {
 				++position;
 			}
-			notifyObservers(new KeyTypedEvent(c, true));
 			correct = true;
 		}
 		else {
 			performanceStats.addError(getCurrentChar());
 			performanceStats.addWrongTyped(c);
-			notifyObservers(new KeyTypedEvent(c, false));
 			correct = false;
 		}
+		for(KeystrokeListener listener : listeners)
+			listener.keyTyped(c, correct);
+		if(countObservers() > 0) {
+			setChanged();
+			notifyObservers(new KeyTypedEvent(c, correct));
+		}
 		// This state happens only if at the end of an Exercise with LimitType.None
 		if(position == line.length()) {
 			pc.regStop();
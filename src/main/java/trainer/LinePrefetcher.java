@@ -0,0 +1,161 @@
+package trainer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import trainer.lineCreators.Bookmark;
+import trainer.lineCreators.Bookmarkable;
+import trainer.lineCreators.LineCreator;
+
+/**
+ * <p>Creates the lines of a {@link LineCreator} in the background and keeps up to
+ * <i>lookAhead</i> of them in a buffer, so that slow <tt>LineCreator</tt>s do not stall
+ * the thread that asks for the next line.
+ *
+ * <p>The <tt>LineCreator</tt> is only accessed by the background thread between
+ * {@link #start()} and {@link #stop()}. A <tt>RuntimeException</tt> that is thrown by the
+ * <tt>LineCreator</tt> is rethrown by {@link #next()} once all lines before it have been
+ * taken.
+ * 
+ * <p>If the <tt>LineCreator</tt> is {@link Bookmarkable}, every line is queued together with
+ * the bookmark that has been taken just before the line was created.
+ *
+ * @author Lasse Osterhagen
+ *
+ */
+class LinePrefetcher {
+
+	// A line and the position of its first word; the end of the lines has no text
+	private static class Line {
+		final String text;
+		final Bookmark bookmark;
+		
+		Line(String text, Bookmark bookmark) {
+			this.text = text;
+			this.bookmark = bookmark;
+		}
+	}
+
+	private static final long STOP_TIMEOUT_MILLIS = 1000;
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "LinePrefetcher");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private final LineCreator lineCreator;
+	private final int maxLineLength;
+	private final Bookmarkable bookmarkable; // lineCreator, if it supports bookmarks
+	private final BlockingQueue<Line> lines;
+	private final CountDownLatch finished = new CountDownLatch(1);
+	private volatile boolean started;
+	private volatile boolean stopped;
+	private volatile RuntimeException failure;
+	private boolean exhausted;
+	private Future<?> task;
+	private Bookmark bookmark; // of the line that has been taken last
+
+	/**
+	 * Construct a LinePrefetcher.
+	 * @param lineCreator the <tt>LineCreator</tt> that creates the lines
+	 * @param maxLineLength the maximum length of a line
+	 * @param lookAhead the maximum number of lines that are created in advance
+	 */
+	LinePrefetcher(LineCreator lineCreator, int maxLineLength, int lookAhead) {
+		this.lineCreator = lineCreator;
+		this.maxLineLength = maxLineLength;
+		bookmarkable = lineCreator instanceof Bookmarkable ? (Bookmarkable) lineCreator : null;
+		lines = new ArrayBlockingQueue<>(lookAhead);
+	}
+
+	/**
+	 * Start creating lines in the background.
+	 */
+	void start() {
+		task = executor.submit(this::fill);
+	}
+
+	/**
+	 * Get the next line. Blocks if the line has not been created yet.
+	 * @return the next line, or <code>null</code> if the <tt>LineCreator</tt> has no
+	 * more lines
+	 * @throws RuntimeException the exception that has been thrown by the
+	 * <tt>LineCreator</tt>
+	 */
+	String next() {
+		if(exhausted)
+			return null;
+		Line line;
+		try {
+			line = lines.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the next line", e);
+		}
+		bookmark = line.bookmark;
+		if(line.text == null) {
+			exhausted = true;
+			if(failure != null)
+				throw failure;
+			return null;
+		}
+		return line.text;
+	}
+	
+	/**
+	 * Get the bookmark of the line that has been returned by {@link #next()} last.
+	 * @return the bookmark that has been taken before the line was created (at the end of
+	 * the lines: after the last line), or <code>null</code> if the <tt>LineCreator</tt> is
+	 * not <tt>Bookmarkable</tt>
+	 */
+	Bookmark getBookmark() {
+		return bookmark;
+	}
+
+	/**
+	 * Stop creating lines. Waits a limited time for a line that is being created, so
+	 * that the <tt>LineCreator</tt> can be stopped afterwards.
+	 */
+	void stop() {
+		stopped = true;
+		if(task == null)
+			return;
+		task.cancel(true);
+		if(!started)
+			return; // fill() will not run or will see stopped
+		try {
+			finished.await(STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void fill() {
+		started = true;
+		try {
+			try {
+				while(!stopped && lineCreator.hasNext()) {
+					Bookmark b = bookmarkable == null ? null : bookmarkable.getBookmark();
+					lines.put(new Line(lineCreator.create(maxLineLength), b));
+				}
+			}
+			catch(RuntimeException e) {
+				if(!stopped)
+					failure = e;
+			}
+			Bookmark end = bookmarkable == null ? null : bookmarkable.getBookmark();
+			lines.put(new Line(null, end));
+		} catch (InterruptedException e) {
+			// stop() has been called
+		}
+		finally {
+			finished.countDown();
+		}
+	}
+
+}
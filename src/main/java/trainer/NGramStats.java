@@ -0,0 +1,296 @@
+package trainer;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * <p>Performance statistics of transitions between keys: the hits, errors, and the
+ * inter-key latency of every bigram and trigram the typist has typed.
+ *
+ * <p>N-grams are only recorded within words, i. e. they do not contain white space. The
+ * latency of an n-gram is the time between the correct keystroke of its second to last char
+ * and the correct keystroke of its last char, smoothed by an exponentially weighted moving
+ * average. Errors are counted for the n-gram that ends with the char that should have been
+ * typed.
+ *
+ * <p>Every n-gram has a weight that grows with its error rate and with its latency relative
+ * to the mean latency of all keystrokes. The weight is recomputed whenever the n-gram is
+ * typed. {@link #appendSample(SplittableRandom, StringBuilder)} draws n-grams with a
+ * probability proportional to their weights.
+ *
+ * <p>The n-grams are packed into a <code>long</code> and kept in an open-addressing hash
+ * table of primitive arrays, so that recording a keystroke takes constant time and does not
+ * allocate memory. The weights are summed up in blocks of about <i>sqrt(n)</i> n-grams,
+ * so that drawing an n-gram takes <i>O(sqrt(n))</i> time.
+ *
+ * @author Lasse Osterhagen
+ *
+ */
+public class NGramStats {
+
+	/**
+	 * Weight of an n-gram with an error rate of 1, in addition to the base weight of 1.
+	 */
+	public static final int ERROR_WEIGHT = 20;
+	/**
+	 * Weight of an n-gram that takes twice as long as the mean keystroke, in addition to
+	 * the base weight of 1. Latencies of more than four times the mean count as four times
+	 * the mean.
+	 */
+	public static final int LATENCY_WEIGHT = 10;
+	private static final double MAX_EXCESS_LATENCY = 3;
+	private static final double ALPHA = 0.2; // EWMA factor per n-gram
+	private static final double MEAN_ALPHA = 0.02; // EWMA factor for the mean latency
+	private static final long MAX_LATENCY = 2_000_000_000L; // longer pauses are ignored
+	private static final char NONE = '\0';
+
+	// Hash table: slot -> entry index + 1, 0 if empty
+	private long[] slotKeys = new long[64];
+	private int[] slotEntries = new int[64];
+
+	// Entries in order of their first appearance
+	private int size;
+	private long[] keys = new long[32];
+	private int[] hits = new int[32];
+	private int[] errors = new int[32];
+	private double[] latencies = new double[32];
+	private int[] weights = new int[32];
+
+	// Sums of the weights of blocks of entries
+	private int blockShift = 3;
+	private long[] blockSums = new long[4];
+	private long totalWeight;
+
+	private double meanLatency;
+	private char prev1 = NONE;
+	private char prev2 = NONE;
+	private long lastHitTime;
+
+	/**
+	 * Record a keystroke.
+	 * @param expected the char that should have been typed
+	 * @param correct true if the expected char has been typed
+	 * @param nanoTime the time of the keystroke as by {@link System#nanoTime()}
+	 */
+	public void addKeystroke(char expected, boolean correct, long nanoTime) {
+		boolean inWord = !Character.isWhitespace(expected);
+		if(!correct) {
+			if(inWord && prev1 != NONE) {
+				addError(bigram(prev1, expected));
+				if(prev2 != NONE)
+					addError(trigram(prev2, prev1, expected));
+			}
+			return;
+		}
+		long latency = nanoTime - lastHitTime;
+		boolean timed = prev1 != NONE && latency > 0 && latency < MAX_LATENCY;
+		if(timed) {
+			meanLatency = meanLatency == 0 ? latency :
+				meanLatency + MEAN_ALPHA*(latency-meanLatency);
+		}
+		if(inWord && prev1 != NONE) {
+			addHit(bigram(prev1, expected), timed ? latency : -1);
+			if(prev2 != NONE)
+				addHit(trigram(prev2, prev1, expected), timed ? latency : -1);
+		}
+		prev2 = inWord ? prev1 : NONE;
+		prev1 = inWord ? expected : NONE;
+		lastHitTime = nanoTime;
+	}
+
+	/**
+	 * Get the number of recorded n-grams.
+	 * @return the number of bigrams and trigrams
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of hits of an n-gram.
+	 * @param nGram a bigram or trigram
+	 * @return the number of hits of the last char of the n-gram
+	 */
+	public int getHits(String nGram) {
+		int e = find(pack(nGram));
+		return e < 0 ? 0 : hits[e];
+	}
+
+	/**
+	 * Get the number of errors of an n-gram.
+	 * @param nGram a bigram or trigram
+	 * @return the number of errors of the last char of the n-gram
+	 */
+	public int getErrors(String nGram) {
+		int e = find(pack(nGram));
+		return e < 0 ? 0 : errors[e];
+	}
+
+	/**
+	 * Get the smoothed latency of an n-gram.
+	 * @param nGram a bigram or trigram
+	 * @return the latency in nanoseconds, 0 if unknown
+	 */
+	public double getLatency(String nGram) {
+		int e = find(pack(nGram));
+		return e < 0 ? 0 : latencies[e];
+	}
+
+	/**
+	 * Get the current weight of an n-gram.
+	 * @param nGram a bigram or trigram
+	 * @return the weight, 0 if the n-gram has not been recorded
+	 */
+	public int getWeight(String nGram) {
+		int e = find(pack(nGram));
+		return e < 0 ? 0 : weights[e];
+	}
+
+	/**
+	 * Get the smoothed latency of all timed keystrokes.
+	 * @return the latency in nanoseconds, 0 if unknown
+	 */
+	public double getMeanLatency() {
+		return meanLatency;
+	}
+
+	/**
+	 * Draw a random n-gram with a probability proportional to its weight and append its
+	 * chars.
+	 * @param random the source of randomness
+	 * @param sb the StringBuilder to which the n-gram is appended
+	 * @return the number of appended chars, 0 if no n-gram has been recorded yet
+	 */
+	public int appendSample(SplittableRandom random, StringBuilder sb) {
+		if(totalWeight == 0)
+			return 0;
+		long r = random.nextLong(totalWeight);
+		int block = 0;
+		while(r >= blockSums[block]) {
+			r -= blockSums[block];
+			++block;
+		}
+		int e = block << blockShift;
+		while(r >= weights[e]) {
+			r -= weights[e];
+			++e;
+		}
+		long key = keys[e];
+		int length = (int) (key >>> 48);
+		for(int i=length-1; i>=0; --i)
+			sb.append((char) (key >>> (16*i)));
+		return length;
+	}
+
+	private static long bigram(char c1, char c2) {
+		return 2L << 48 | (long) c1 << 16 | c2;
+	}
+
+	private static long trigram(char c1, char c2, char c3) {
+		return 3L << 48 | (long) c1 << 32 | (long) c2 << 16 | c3;
+	}
+
+	private static long pack(String nGram) {
+		if(nGram.length() == 2)
+			return bigram(nGram.charAt(0), nGram.charAt(1));
+		if(nGram.length() == 3)
+			return trigram(nGram.charAt(0), nGram.charAt(1), nGram.charAt(2));
+		throw new IllegalArgumentException("Not a bigram or trigram: " + nGram);
+	}
+
+	private void addHit(long key, long latency) {
+		int e = findOrAdd(key);
+		++hits[e];
+		if(latency > 0)
+			latencies[e] = latencies[e] == 0 ? latency :
+				latencies[e] + ALPHA*(latency-latencies[e]);
+		updateWeight(e);
+	}
+
+	private void addError(long key) {
+		int e = findOrAdd(key);
+		++errors[e];
+		updateWeight(e);
+	}
+
+	private void updateWeight(int e) {
+		double errorRate = (double) errors[e]/(hits[e]+errors[e]);
+		int weight = 1 + (int) Math.ceil(errorRate*ERROR_WEIGHT);
+		if(latencies[e] > 0 && meanLatency > 0)
+			weight += (int) Math.ceil(Math.min(MAX_EXCESS_LATENCY,
+					Math.max(0, latencies[e]/meanLatency - 1))*LATENCY_WEIGHT);
+		int delta = weight - weights[e];
+		weights[e] = weight;
+		blockSums[e >> blockShift] += delta;
+		totalWeight += delta;
+	}
+
+	private static int hash(long key, int mask) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private int find(long key) {
+		int mask = slotKeys.length-1;
+		for(int s = hash(key, mask); slotEntries[s] != 0; s = (s+1) & mask) {
+			if(slotKeys[s] == key)
+				return slotEntries[s]-1;
+		}
+		return -1;
+	}
+
+	private int findOrAdd(long key) {
+		int mask = slotKeys.length-1;
+		int s = hash(key, mask);
+		for(; slotEntries[s] != 0; s = (s+1) & mask) {
+			if(slotKeys[s] == key)
+				return slotEntries[s]-1;
+		}
+		int e = size++;
+		if(e == keys.length)
+			growEntries();
+		keys[e] = key;
+		if(e >> blockShift >= blockSums.length || size > 1 << (2*blockShift))
+			reblock();
+		slotKeys[s] = key;
+		slotEntries[s] = e+1;
+		if(2*size > slotKeys.length)
+			rehash();
+		return e;
+	}
+
+	private void growEntries() {
+		int capacity = 2*keys.length;
+		keys = Arrays.copyOf(keys, capacity);
+		hits = Arrays.copyOf(hits, capacity);
+		errors = Arrays.copyOf(errors, capacity);
+		latencies = Arrays.copyOf(latencies, capacity);
+		weights = Arrays.copyOf(weights, capacity);
+	}
+
+	/**
+	 * Keep the block size at about the square root of the number of entries.
+	 */
+	private void reblock() {
+		while(size > 1 << (2*blockShift))
+			++blockShift;
+		blockSums = new long[(keys.length >> blockShift) + 1];
+		for(int e=0; e<size; ++e)
+			blockSums[e >> blockShift] += weights[e];
+	}
+
+	private void rehash() {
+		int capacity = 2*slotKeys.length;
+		slotKeys = new long[capacity];
+		slotEntries = new int[capacity];
+		int mask = capacity-1;
+		for(int e=0; e<size; ++e) {
+			int s = hash(keys[e], mask);
+			while(slotEntries[s] != 0)
+				s = (s+1) & mask;
+			slotKeys[s] = keys[e];
+			slotEntries[s] = e+1;
+		}
+	}
+
+}
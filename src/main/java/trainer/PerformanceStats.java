@@ -1,5 +1,6 @@
 package trainer;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
@@ -9,8 +10,13 @@ import java.util.TreeMap;
  * <p>Class to monitor the performance statistics of a typist during a practice unit.
  * 
  * <p>The class keeps track of the performance statistics of every appearing character
- * that has to be typed in a <tt>Map&lt;Character,{@link PerformanceRate}&gt;</tt>. It
- * also provides a <tt>PerformanceRate</tt> for the total performance.
+ * that has to be typed. It also provides a <tt>PerformanceRate</tt> for the total performance.
+ * 
+ * <p>The hits and errors are counted in primitive arrays that are indexed by the char, so that
+ * recording a keystroke neither allocates memory nor depends on the number of chars that have
+ * already appeared. A <tt>Map&lt;Character,{@link PerformanceRate}&gt;</tt> view is only built
+ * on demand by {@link #getHits_errors()}. Consumers that need to follow every change can
+ * register a {@link CharRateListener} instead.
  * 
  * @author Lasse Osterhagen
  *
@@ -18,9 +24,60 @@ import java.util.TreeMap;
 
 public class PerformanceStats {
 	
+	private static final int HITS = 0;
+	private static final int ERRORS = 1;
+	
 	private PerformanceRate totalPerformanceRate = new PerformanceRate();
-	protected Map<Character, PerformanceRate> hits_errors = new TreeMap<Character, PerformanceRate>();
-	protected Map<Character, Integer> wrongTyped = new TreeMap<Character, Integer>();
+	private CharCounts hits_errors = new CharCounts(2);
+	private CharCounts wrongTyped = new CharCounts(1);
+	// number of changes of hits_errors; used to decide whether the map view is outdated
+	private int modCount;
+	private Set<Map.Entry<Character,PerformanceRate>> hits_errorsView;
+	private int hits_errorsViewModCount = -1;
+	private CharRateListener[] listeners = new CharRateListener[0];
+	private final NGramStats nGramStats = new NGramStats();
+	
+	/**
+	 * Listener that will be notified about every hit or error of a char.
+	 */
+	@FunctionalInterface
+	public interface CharRateListener {
+		/**
+		 * Called after a hit or an error has been added for a char.
+		 * @param c the char
+		 * @param hits the new number of hits for the char
+		 * @param errors the new number of errors for the char
+		 */
+		void charRateChanged(char c, int hits, int errors);
+	}
+	
+	/**
+	 * Get the performance statistics of bigrams and trigrams. They are fed by the
+	 * {@link LineMonitor} with the time of every keystroke.
+	 * @return the n-gram statistics
+	 */
+	public NGramStats getNGramStats() {
+		return nGramStats;
+	}
+	
+	/**
+	 * Register a listener that will be notified about every hit or error.
+	 * @param listener the listener
+	 */
+	public void addCharRateListener(CharRateListener listener) {
+		CharRateListener[] newListeners = Arrays.copyOf(listeners, listeners.length+1);
+		newListeners[listeners.length] = listener;
+		listeners = newListeners;
+	}
+	
+	/**
+	 * Remove a listener that was registered by {@link #addCharRateListener(CharRateListener)}.
+	 * @param listener the listener
+	 */
+	public void removeCharRateListener(CharRateListener listener) {
+		listeners = Arrays.stream(listeners).filter(l -> l != listener)
+				.toArray(CharRateListener[]::new);
+	}
 	
 	/**
 	 * Add a correctly typed char.
@@ -28,8 +85,10 @@ public class PerformanceStats {
 	 */
 	public void addHit(char c) {
 		totalPerformanceRate.addHit();
-		hits_errors.putIfAbsent(c, new PerformanceRate());
-		hits_errors.get(c).addHit();
+		int hits = hits_errors.increment(c, HITS);
+		++modCount;
+		for(CharRateListener l : listeners)
+			l.charRateChanged(c, hits, hits_errors.get(c, ERRORS));
 	}
 	
 	/**
@@ -39,8 +98,10 @@ public class PerformanceStats {
 	 */
 	public void addError(char c) {
 		totalPerformanceRate.addError();
-		hits_errors.putIfAbsent(c, new PerformanceRate());
-		hits_errors.get(c).addError();
+		int errors = hits_errors.increment(c, ERRORS);
+		++modCount;
+		for(CharRateListener l : listeners)
+			l.charRateChanged(c, hits_errors.get(c, HITS), errors);
 	}
 	
 	/**
@@ -49,7 +110,7 @@ public class PerformanceStats {
 	 * @param c the wrongly typed char
 	 */
 	public void addWrongTyped(char c) {
-		wrongTyped.compute(c, (k,v)-> v==null ? 0 : ++v);
+		wrongTyped.increment(c, 0);
 	}
 	
 	/**
@@ -61,12 +122,51 @@ public class PerformanceStats {
 	}
 	
 	/**
-	 * Get the set of chars that appeared during the practice unit and their
+	 * Get the number of hits for a single char.
+	 * @param c the char
+	 * @return the number of hits or zero, if the char has not appeared yet
+	 */
+	public int getHits(char c) {
+		return hits_errors.get(c, HITS);
+	}
+	
+	/**
+	 * Get the number of errors for a single char.
+	 * @param c the char
+	 * @return the number of errors or zero, if the char has not appeared yet
+	 */
+	public int getErrors(char c) {
+		return hits_errors.get(c, ERRORS);
+	}
+	
+	/**
+	 * Get how often a char has been typed instead of the target char.
+	 * @param c the wrongly typed char
+	 * @return the number of times the char has been typed wrongly
+	 */
+	public int getWrongTyped(char c) {
+		return wrongTyped.get(c, 0);
+	}
+	
+	/**
+	 * <p>Get the set of chars that appeared during the practice unit and their
 	 * corresponding {@link PerformanceRate}s.
+	 * 
+	 * <p>The set is a snapshot that is sorted by chars. It will be rebuilt by the next call
+	 * of this method, if further hits or errors have been added in the meantime.
 	 * @return the set of appeared chars and their corresponding <tt>PerformanceRate</tt>s
 	 */
 	public Set<Map.Entry<Character,PerformanceRate>> getHits_errors() {
-		return Collections.unmodifiableSet(hits_errors.entrySet());
+		if(hits_errorsViewModCount != modCount) {
+			TreeMap<Character, PerformanceRate> map = new TreeMap<>();
+			for(char c : hits_errors.chars()) {
+				map.put(c, new PerformanceRate(hits_errors.get(c, HITS),
+						hits_errors.get(c, ERRORS)));
+			}
+			hits_errorsView = Collections.unmodifiableSet(map.entrySet());
+			hits_errorsViewModCount = modCount;
+		}
+		return hits_errorsView;
 	}
 
 }
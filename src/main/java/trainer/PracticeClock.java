@@ -0,0 +1,32 @@
+package trainer;
+
+/**
+ * The source of time of a {@link PracticeController}. Allows to run practice sessions
+ * with a virtual time.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public interface PracticeClock {
+	
+	/**
+	 * Get the current time.
+	 * @return the current time in milliseconds, as by {@link System#currentTimeMillis()}
+	 */
+	long currentTimeMillis();
+	
+	/**
+	 * Get the value of a high-resolution timer, only meaningful for time differences.
+	 * @return the current value in nanoseconds, as by {@link System#nanoTime()}
+	 */
+	long nanoTime();
+	
+	/**
+	 * Create a timer that calls an action after a delay.
+	 * @param delay the delay in milliseconds after the timer has been started
+	 * @param action the action
+	 * @return the timer, not started yet
+	 */
+	SimpleTimerInterface createTimer(int delay, Runnable action);
+
+}
@@ -1,13 +1,32 @@
 package trainer;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.Observable;
+import java.util.SplittableRandom;
 
 import persistence.SessionPersist;
+import trainer.lineCreators.Bookmark;
+import trainer.lineCreators.Bookmarkable;
 import trainer.lineCreators.LineCreator;
 import trainer.lineCreators.LineCreatorFactory;
 import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
 import trainer.lineCreators.InitException;
 
+/**
+ * <p>Controls the execution of a practice session: creates the lines of its
+ * {@link Exercise}, manages the {@link State} of the session, and saves the results of a
+ * regularly stopped session. Sessions of {@link Bookmarkable} <tt>LineCreator</tt>s
+ * continue at the line at which the previous session of the exercise has stopped.
+ * 
+ * <p>Changes of the state and new lines are reported to the registered
+ * {@link StateListener}s and {@link LineListener}s. For compatibility,
+ * <code>Observer</code>s are still notified with an {@link Event}, but only if there are
+ * any.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
 public class PracticeController extends Observable {
 	
 	public enum State {
@@ -23,6 +42,36 @@ public class PracticeController extends Observable {
 		NEW_LINE
 	}
 	
+	/**
+	 * Listener that will be notified about every change of the state.
+	 */
+	@FunctionalInterface
+	public interface StateListener {
+		/**
+		 * Called after the state has changed.
+		 * @param state the new state
+		 */
+		void stateChanged(State state);
+	}
+	
+	/**
+	 * Listener that will be notified about every new line.
+	 */
+	@FunctionalInterface
+	public interface LineListener {
+		/**
+		 * Called after the lines have moved on.
+		 * @param line1 the line that the typist has to type now
+		 * @param line2 the following line
+		 */
+		void newLine(String line1, String line2);
+	}
+	
+	/**
+	 * The default number of lines that are created in advance.
+	 */
+	public static final int DEFAULT_LOOK_AHEAD = 3;
+	
 	private Exercise exercise;
 	private State state;
 	private PerformanceStats performanceStats;
@@ -36,20 +85,60 @@ public class PracticeController extends Observable {
 	private long startTime;
 	private long stopTime;
 	private long requiredTime;
+	private PracticeClock clock;
 	private SimpleTimerInterface stopWatch = new NullStopWatch();
 	private SessionPersist sessionPersist = new SessionPersist();
+	private long seed;
+	private int lookAhead = DEFAULT_LOOK_AHEAD;
+	private LinePrefetcher linePrefetcher;
+	private Bookmarkable bookmarkable; // lineCreator, if it supports bookmarks
+	private Bookmark line1Bookmark; // the position of line1 within the text
+	private Bookmark line2Bookmark;
+	private KeystrokeJournal keystrokeJournal;
+	private StateListener[] stateListeners = new StateListener[0];
+	private LineListener[] lineListeners = new LineListener[0];
 	
 	public PracticeController(Exercise exercise, int maxLineLength)
 			throws ImplementationNotFound, InitException {
+		this(exercise, maxLineLength, new SplittableRandom().nextLong());
+	}
+	
+	/**
+	 * Construct a PracticeController whose generated lines are reproducible.
+	 * @param exercise the exercise
+	 * @param maxLineLength the maximum length of a line
+	 * @param seed the seed of the random number generator that is passed to the
+	 * <tt>LineCreator</tt>. With the same seed and the same sequence of keystrokes, the
+	 * same lines will be generated.
+	 * @throws ImplementationNotFound if the LineCreator type of the exercise does not exist
+	 * @throws InitException if the LineCreator could not be initialized
+	 */
+	public PracticeController(Exercise exercise, int maxLineLength, long seed)
+			throws ImplementationNotFound, InitException {
+		this(exercise, maxLineLength, seed, SystemClock.getInstance());
+	}
+	
+	/**
+	 * Construct a PracticeController that takes its time from a {@link PracticeClock}.
+	 * @param exercise the exercise
+	 * @param maxLineLength the maximum length of a line
+	 * @param seed the seed of the random number generator that is passed to the
+	 * <tt>LineCreator</tt>
+	 * @param clock the clock that measures the session and stops time-limited exercises
+	 * @throws ImplementationNotFound if the LineCreator type of the exercise does not exist
+	 * @throws InitException if the LineCreator could not be initialized
+	 */
+	public PracticeController(Exercise exercise, int maxLineLength, long seed,
+			PracticeClock clock) throws ImplementationNotFound, InitException {
+		this.clock = clock;
 		this.exercise = exercise;
 		this.maxLineLength = maxLineLength;
+		this.seed = seed;
 		performanceStats = new PerformanceStats();
-		lineCreator = LineCreatorFactory.getLineCreator(exercise.getLineCreatorType(),
-				exercise.getParam(), performanceStats);
+		lineCreator = createLineCreator();
 		lineMonitor = new LineMonitor(this);
 		if(exercise.getLimitType() == Exercise.LimitType.TIME) {
-			stopWatch = new StopWatch(exercise.getLimitUnits()*1000,
-					evt->regStop());
+			stopWatch = clock.createTimer(exercise.getLimitUnits()*1000, this::regStop);
 		}
 		state = State.INIT;
 	}
@@ -57,8 +146,20 @@ public class PracticeController extends Observable {
 	public void ready() {
 		if(!(state == State.INIT))
 			throw new IllegalStateException("ready() only allowed to be called during State.INIT.");
+		if(lineCreator instanceof Bookmarkable)
+			continueAtBookmark();
+		if(lookAhead > 0 && !lineCreator.isAdaptive()) {
+			linePrefetcher = new LinePrefetcher(lineCreator, maxLineLength, lookAhead);
+			linePrefetcher.start();
+		}
 		//prepare line2 that will become line1 after call to newLine()
-		line2 = lineCreator.create(maxLineLength);
+		if(linePrefetcher == null) {
+			if(bookmarkable != null)
+				line2Bookmark = bookmarkable.getBookmark();
+			line2 = lineCreator.create(maxLineLength);
+		}
+		else
+			line2 = nextLine();
 		newLine();
 		setState(State.READY);
 	}
@@ -66,32 +167,165 @@ public class PracticeController extends Observable {
 	public void run() {
 		setState(State.RUNNING);
 		stopWatch.start();
-		startTime = System.currentTimeMillis();
+		startTime = clock.currentTimeMillis();
 	}
 	
 	public void userStop() {
 		stopWatch.stop(); // needed in case this was a time-limited exercise
+		saveBookmark();
 		stop();
 		setState(State.USER_STOPPED);
 	}
 	
 	public void regStop() {
+		saveBookmark();
 		stop();
-		sessionPersist.saveSession2DB(exercise.getId(),
-				performanceStats.getTotalPerformanceRate(), requiredTime);
+		sessionPersist.saveSessionAsync(exercise.getId(), performanceStats, requiredTime);
 		setState(State.REG_STOPPED);
 	}
 	
+	private void continueAtBookmark() {
+		bookmarkable = (Bookmarkable) lineCreator;
+		Bookmark bookmark = sessionPersist.getBookmark(exercise.getId());
+		if(bookmark == null)
+			return;
+		bookmarkable.seek(bookmark);
+		if(!bookmarkable.hasNext()) {
+			// the text has become shorter since the bookmark has been saved
+			try {
+				lineCreator.stop();
+				lineCreator = createLineCreator();
+				bookmarkable = (Bookmarkable) lineCreator;
+			} catch (ImplementationNotFound | InitException e) {
+				throw new IllegalStateException(e); // has succeeded before
+			}
+		}
+	}
+	
+	/**
+	 * Save the position of the line that has not been completed, or delete the bookmark if
+	 * the whole text has been typed. The bookmark is written in the background.
+	 */
+	private void saveBookmark() {
+		if(line1Bookmark == null)
+			return; // not bookmarkable or not ready
+		// line2 is only empty if the LineCreator has no more lines
+		if(line2.isEmpty() && lineMonitor.getPosition() == line1.length())
+			sessionPersist.deleteBookmarkAsync(exercise.getId());
+		else
+			sessionPersist.saveBookmarkAsync(exercise.getId(), line1Bookmark);
+		line1Bookmark = null;
+	}
+	
 	private void stop() {
-		stopTime = System.currentTimeMillis();
+		stopTime = clock.currentTimeMillis();
 		requiredTime = stopTime-startTime;
+		if(linePrefetcher != null)
+			linePrefetcher.stop();
 		lineCreator.stop();
+		if(keystrokeJournal != null) {
+			lineMonitor.setKeystrokeJournal(null);
+			try {
+				keystrokeJournal.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			keystrokeJournal = null;
+		}
+	}
+	
+	/**
+	 * Register a listener that will be notified about every change of the state.
+	 * @param listener the listener
+	 */
+	public void addStateListener(StateListener listener) {
+		StateListener[] newListeners = Arrays.copyOf(stateListeners, stateListeners.length+1);
+		newListeners[stateListeners.length] = listener;
+		stateListeners = newListeners;
+	}
+	
+	/**
+	 * Remove a listener that was registered by {@link #addStateListener(StateListener)}.
+	 * @param listener the listener
+	 */
+	public void removeStateListener(StateListener listener) {
+		stateListeners = Arrays.stream(stateListeners).filter(l -> l != listener)
+				.toArray(StateListener[]::new);
+	}
+	
+	/**
+	 * Register a listener that will be notified about every new line.
+	 * @param listener the listener
+	 */
+	public void addLineListener(LineListener listener) {
+		LineListener[] newListeners = Arrays.copyOf(lineListeners, lineListeners.length+1);
+		newListeners[lineListeners.length] = listener;
+		lineListeners = newListeners;
+	}
+	
+	/**
+	 * Remove a listener that was registered by {@link #addLineListener(LineListener)}.
+	 * @param listener the listener
+	 */
+	public void removeLineListener(LineListener listener) {
+		lineListeners = Arrays.stream(lineListeners).filter(l -> l != listener)
+				.toArray(LineListener[]::new);
+	}
+	
+	/**
+	 * Get the seed of the random number generator of this practice session.
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+	
+	/**
+	 * Record all keystrokes of this session. The journal will be closed when the
+	 * session stops.
+	 * @param keystrokeJournal the journal
+	 */
+	public void setKeystrokeJournal(KeystrokeJournal keystrokeJournal) {
+		if(!(state == State.INIT))
+			throw new IllegalStateException("setKeystrokeJournal() only allowed to be called during State.INIT.");
+		this.keystrokeJournal = keystrokeJournal;
+		lineMonitor.setKeystrokeJournal(keystrokeJournal);
+	}
+	
+	/**
+	 * Set where the results of a regularly stopped session are saved.
+	 * @param sessionPersist the <tt>SessionPersist</tt>, e. g. a
+	 * {@link persistence.NullSessionPersist NullSessionPersist}
+	 * to not save the session at all
+	 */
+	public void setSessionPersist(SessionPersist sessionPersist) {
+		if(!(state == State.INIT))
+			throw new IllegalStateException("setSessionPersist() only allowed to be called during State.INIT.");
+		this.sessionPersist = sessionPersist;
+	}
+	
+	/**
+	 * Set the number of lines that are created in advance by a background thread.
+	 * Lines of adaptive <tt>LineCreator</tt>s are never created in advance.
+	 * @param lookAhead the number of lines, 0 to create every line just before it is needed
+	 * @see LineCreator#isAdaptive()
+	 */
+	public void setLookAhead(int lookAhead) {
+		if(!(state == State.INIT))
+			throw new IllegalStateException("setLookAhead() only allowed to be called during State.INIT.");
+		if(lookAhead < 0)
+			throw new IllegalArgumentException("lookAhead must not be negative");
+		this.lookAhead = lookAhead;
 	}
 	
 	public Exercise getExercise() {
 		return exercise;
 	}
 	
+	public PracticeClock getClock() {
+		return clock;
+	}
+	
 	public LineMonitor getLineMonitor() {
 		return lineMonitor;
 	}
@@ -109,22 +343,46 @@ public class PracticeController extends Observable {
 	}
 	
 	public void newLine() {
-		setChanged();
 		line1 = line2;
-		if(lineCreator.hasNext()) {
-			line2 = lineCreator.create(maxLineLength);
-		}
-		else
-			line2 = "";
+		line1Bookmark = line2Bookmark;
+		if(bookmarkable != null && linePrefetcher == null)
+			line2Bookmark = bookmarkable.getBookmark();
+		line2 = nextLine();
 		lineMonitor.setLine(line1);
-		notifyObservers(Event.NEW_LINE);
+		for(LineListener listener : lineListeners)
+			listener.newLine(line1, line2);
+		if(countObservers() > 0) {
+			setChanged();
+			notifyObservers(Event.NEW_LINE);
+		}
+	}
+
+	private LineCreator createLineCreator() throws ImplementationNotFound, InitException {
+		return LineCreatorFactory.getLineCreator(exercise.getLineCreatorType(),
+				exercise.getParam(), performanceStats, new SplittableRandom(seed));
+	}
+	
+	private String nextLine() {
+		if(linePrefetcher != null) {
+			String line = linePrefetcher.next();
+			if(bookmarkable != null)
+				line2Bookmark = linePrefetcher.getBookmark();
+			return line == null ? "" : line;
+		}
+		if(lineCreator.hasNext())
+			return lineCreator.create(maxLineLength);
+		return "";
 	}
 
 	private void setState(State state) {
 		if(this.state != state) {
-			setChanged();
 			this.state = state;
-			notifyObservers(Event.STATE_CHANGED);
+			for(StateListener listener : stateListeners)
+				listener.stateChanged(state);
+			if(countObservers() > 0) {
+				setChanged();
+				notifyObservers(Event.STATE_CHANGED);
+			}
 		}
 	}
 	
@@ -137,7 +395,7 @@ public class PracticeController extends Observable {
 	}
 	
 	public long getCurrentTime() {
-		long timeDifference = System.currentTimeMillis() - startTime;
+		long timeDifference = clock.currentTimeMillis() - startTime;
 		if (exercise.getLimitType() == Exercise.LimitType.TIME)
 			return exercise.getLimitUnits()*1000-timeDifference;
 		else
@@ -0,0 +1,33 @@
+package trainer;
+
+/**
+ * The <tt>PracticeClock</tt> of the real time. Its timers are {@link StopWatch}es and call
+ * their actions on the event dispatch thread.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class SystemClock implements PracticeClock {
+	
+	// Singleton pattern
+	private static SystemClock instance = new SystemClock();
+	public static SystemClock getInstance() {return instance;}
+	
+	private SystemClock() {}
+
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+
+	@Override
+	public long nanoTime() {
+		return System.nanoTime();
+	}
+
+	@Override
+	public SimpleTimerInterface createTimer(int delay, Runnable action) {
+		return new StopWatch(delay, evt->action.run());
+	}
+
+}
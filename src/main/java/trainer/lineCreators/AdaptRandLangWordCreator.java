@@ -1,5 +1,7 @@
 package trainer.lineCreators;
 
+import java.util.SplittableRandom;
+
 import trainer.PerformanceStats;
 
 /**
@@ -16,8 +18,13 @@ public class AdaptRandLangWordCreator extends AdaptRandWordCreator {
 		super(charSet, ps);
 	}
 	
-	protected GenericWordCreator getStringCreator(String adaptCharSet) {
-		return new RandLangWordCreator(adaptCharSet);
+	public AdaptRandLangWordCreator(String charSet, PerformanceStats ps, SplittableRandom random) {
+		super(charSet, ps, random);
+	}
+	
+	@Override
+	protected AdaptableWordCreator getStringCreator(String charSet, SplittableRandom random) {
+		return new RandLangWordCreator(charSet, random);
 	}
 
 }
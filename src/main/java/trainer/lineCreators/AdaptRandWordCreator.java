@@ -1,17 +1,20 @@
 package trainer.lineCreators;
 
 import java.util.Map.Entry;
+import java.util.SplittableRandom;
 
 import trainer.PerformanceRate;
 import trainer.PerformanceStats;
 
-import java.util.Set;
-
 /**
- * Similar as {@link RandWordCreator}, but the probability of occurrence of a char depends
+ * <p>Similar as {@link RandWordCreator}, but the probability of occurrence of a char depends
  * on the current {@link trainer.PerformanceStats}, with a high error rate for a given char
  * increasing the chance of its occurrence.
  * 
+ * <p>The underlying {@link AdaptableWordCreator} is created only once. It is kept up to date
+ * by a {@link PerformanceStats.CharRateListener}, which changes the weight of a single
+ * char whenever a hit or an error for that char is recorded.
+ * 
  * @author Lasse Osterhagen
  *
  */
@@ -19,23 +22,24 @@ import java.util.Set;
 public class AdaptRandWordCreator implements GenericWordCreator {
 	
 	public static final double ADAPT_VAL = 60.0;
-	private String charSet;
-	private PerformanceStats ps;
+	private AdaptableWordCreator wordCreator;
 	private double adaptFactor;
 	
 	/**
 	 * Defines how the <i>adapted</i> charSet will be used to create generic words.
 	 * Override this method in subclasses to provide different word creation
 	 * strategies.
-	 * @param adaptCharSet the <i>adapted</i> char set.
+	 * @param charSet the initial char set.
 	 * The <i>adapted</i> char set consists of chars from which new generic words
 	 * should be constructed. The frequency of recurrence of an individual char in the
-	 * set increases with the typists error rate for that char.
-	 * @return the implementation of <tt>GenericWordCreator</tt> that will be used
+	 * set increases with the typists error rate for that char. It is maintained by
+	 * calls to {@link AdaptableWordCreator#setExtraWeight(char, int)}.
+	 * @param random the random number generator that the word creator should use
+	 * @return the implementation of <tt>AdaptableWordCreator</tt> that will be used
 	 * to create generic words (this class: {@link RandWordCreator}.
 	 */
-	protected GenericWordCreator getStringCreator(String adaptCharSet) {
-		return new RandWordCreator(adaptCharSet);
+	protected AdaptableWordCreator getStringCreator(String charSet, SplittableRandom random) {
+		return new RandWordCreator(charSet, random);
 	}
 	
 	/**
@@ -44,9 +48,22 @@ public class AdaptRandWordCreator implements GenericWordCreator {
 	 * @param ps the current performance statistics of the typist
 	 */
 	public AdaptRandWordCreator(String charSet, PerformanceStats ps) {
-		this.charSet = charSet;
-		this.ps = ps;
+		this(charSet, ps, new SplittableRandom());
+	}
+	
+	/**
+	 * Class constructor with a given random number generator.
+	 * @param charSet the initial char set from which generic words should be created
+	 * @param ps the current performance statistics of the typist
+	 * @param random the random number generator
+	 */
+	public AdaptRandWordCreator(String charSet, PerformanceStats ps, SplittableRandom random) {
 		this.adaptFactor = ADAPT_VAL/charSet.length();
+		this.wordCreator = getStringCreator(charSet, random);
+		for(Entry<Character, PerformanceRate> e : ps.getHits_errors()) {
+			adapt(e.getKey(), e.getValue().getHits(), e.getValue().getErrors());
+		}
+		ps.addCharRateListener(this::adapt);
 	}
 	
 	/**
@@ -56,19 +73,23 @@ public class AdaptRandWordCreator implements GenericWordCreator {
 	 */
 	@Override
 	public String create(int length) {
-		StringBuilder chars = new StringBuilder(3*charSet.length());
-		
-		// Create the adapted charSet
-		// The adapted charSet consists at least of the initial charSet
-		chars.append(charSet);
-		Set<Entry<Character, PerformanceRate>> hits_errors = ps.getHits_errors();
-		hits_errors.stream()
-			.forEach(e -> {
-				for(int i=0; i<e.getValue().getErrorRate()*adaptFactor; ++i) {
-					chars.append(e.getKey());
-				}
-			});
-		return getStringCreator(chars.toString()).create(length);
+		return wordCreator.create(length);
+	}
+	
+	@Override
+	public void create(int length, StringBuilder sb) {
+		wordCreator.create(length, sb);
+	}
+	
+	@Override
+	public boolean isAdaptive() {
+		return true;
+	}
+	
+	private void adapt(char c, int hits, int errors) {
+		double errorRate = (double) errors/(hits+errors);
+		// The char is added once for each started unit of errorRate*adaptFactor
+		wordCreator.setExtraWeight(c, (int) Math.ceil(errorRate*adaptFactor));
 	}
 
 }
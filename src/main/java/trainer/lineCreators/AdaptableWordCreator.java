@@ -0,0 +1,22 @@
+package trainer.lineCreators;
+
+/**
+ * A {@link GenericWordCreator} whose probability of choosing a char can be raised
+ * while it is in use.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public interface AdaptableWordCreator extends GenericWordCreator {
+	
+	/**
+	 * Set the extra weight of a char. The char will be chosen as often as if it was
+	 * contained <tt>extraWeight</tt> more times in the char set the word creator has
+	 * been constructed with. Chars that are not part of that char set can be
+	 * added this way.
+	 * @param c the char
+	 * @param extraWeight the extra weight, 0 to reset the char to its initial weight
+	 */
+	public void setExtraWeight(char c, int extraWeight);
+
+}
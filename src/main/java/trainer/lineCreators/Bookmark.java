@@ -0,0 +1,63 @@
+package trainer.lineCreators;
+
+/**
+ * A reading position within a text: the byte offset and the index of a word.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class Bookmark {
+	
+	/**
+	 * The beginning of a text.
+	 */
+	public static final Bookmark START = new Bookmark(0, 0);
+	
+	private final long offset;
+	private final long wordIndex;
+	
+	/**
+	 * Construct a Bookmark.
+	 * @param offset the byte offset of the word, -1 if unknown
+	 * @param wordIndex the index of the word, counted from 0
+	 */
+	public Bookmark(long offset, long wordIndex) {
+		this.offset = offset;
+		this.wordIndex = wordIndex;
+	}
+	
+	/**
+	 * Get the byte offset of the word within the file.
+	 * @return the offset, -1 if unknown
+	 */
+	public long getOffset() {
+		return offset;
+	}
+	
+	/**
+	 * Get the index of the word within the text.
+	 * @return the index, counted from 0
+	 */
+	public long getWordIndex() {
+		return wordIndex;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if(!(obj instanceof Bookmark))
+			return false;
+		Bookmark b = (Bookmark) obj;
+		return offset == b.offset && wordIndex == b.wordIndex;
+	}
+	
+	@Override
+	public int hashCode() {
+		return Long.hashCode(offset*31 + wordIndex);
+	}
+	
+	@Override
+	public String toString() {
+		return "Bookmark [offset=" + offset + ", wordIndex=" + wordIndex + "]";
+	}
+
+}
@@ -0,0 +1,25 @@
+package trainer.lineCreators;
+
+/**
+ * A <tt>LineCreator</tt> that reads through a text and can continue at a
+ * {@link Bookmark}, so that a long text can be practiced over several sessions.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public interface Bookmarkable extends LineCreator {
+	
+	/**
+	 * Get the position of the first word of the line that will be created next.
+	 * @return the bookmark
+	 */
+	Bookmark getBookmark();
+	
+	/**
+	 * Continue at a bookmark. The next line starts with the word of the bookmark.
+	 * @param bookmark the bookmark, as returned by {@link #getBookmark()} of a
+	 * <tt>LineCreator</tt> of the same text
+	 */
+	void seek(Bookmark bookmark);
+
+}
@@ -1,9 +1,11 @@
 package trainer.lineCreators;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.Map;
 
 import trainer.PerformanceStats;
@@ -11,6 +13,21 @@ import trainer.PerformanceStats;
 public abstract class FileLineCreatorProvider implements LineCreatorProvider {
 	
 	protected abstract LineCreator createLineCreator(InputStream is) throws IOException;
+	
+	/**
+	 * Create a <tt>LineCreator</tt> from a file of the user defined texts directory. By
+	 * default, the file is opened as an <tt>InputStream</tt> that is passed to
+	 * {@link #createLineCreator(InputStream)} and closed afterwards. Override this method
+	 * to access the file directly, e. g. to map it into memory.
+	 * @param file the file
+	 * @return the LineCreator
+	 * @throws IOException if the file could not be read
+	 */
+	protected LineCreator createLineCreator(Path file) throws IOException {
+		try(InputStream is = Files.newInputStream(file)) {
+			return createLineCreator(is);
+		}
+	}
 
 	@Override
 	public LineCreator getLineCreator(String param, PerformanceStats ps) throws InitException {
@@ -31,11 +48,10 @@ public abstract class FileLineCreatorProvider implements LineCreatorProvider {
 		}
 		else {
 			// File with words/texts resides inside subdirectory of user defined save directory
-			try(FileInputStream fis = new FileInputStream(install.Constants.getTextsDir()
-					.resolve(fileName).toFile())) {
-				return createLineCreator(fis);
+			try {
+				return createLineCreator(userFile(fileName));
 			}
-			catch (FileNotFoundException e) {
+			catch (FileNotFoundException | NoSuchFileException e) {
 				throw new InitException(InitException.Type.MISSING_FILE, fileName);
 			}
 			catch (IOException e) {
@@ -44,6 +60,16 @@ public abstract class FileLineCreatorProvider implements LineCreatorProvider {
 		}
 	}
 	
+	/**
+	 * Get the path of a file that is not local, i. e. that resides in the user defined
+	 * save directory.
+	 * @param fileName the name of the file
+	 * @return the path
+	 */
+	protected static Path userFile(String fileName) {
+		return install.Constants.getTextsDir().resolve(fileName);
+	}
+	
 	@Override
 	public String shortParam(String param) {
 		Map<String, String> paramMap = StringCode.decode(param);
@@ -1,7 +1,38 @@
 package trainer.lineCreators;
 
+/**
+ * Creates generic words of a given length.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
 public interface GenericWordCreator {
 	
+	/**
+	 * Create a word.
+	 * @param length the length of the word
+	 * @return the created word
+	 */
 	public String create(int length);
+	
+	/**
+	 * Append a word to a <tt>StringBuilder</tt>. Implementations should override this
+	 * method to write the chars of the word directly into <tt>sb</tt>, without creating
+	 * an intermediate <tt>String</tt>.
+	 * @param length the length of the word
+	 * @param sb the <tt>StringBuilder</tt> to which the word will be appended
+	 */
+	public default void create(int length, StringBuilder sb) {
+		sb.append(create(length));
+	}
+	
+	/**
+	 * To check if the created words depend on the current performance of the typist.
+	 * @return true if the word creator is adaptive. By default false.
+	 * @see LineCreator#isAdaptive()
+	 */
+	public default boolean isAdaptive() {
+		return false;
+	}
 
 }
@@ -1,6 +1,6 @@
 package trainer.lineCreators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 import java.util.ResourceBundle;
 
 import trainer.PerformanceStats;
@@ -21,7 +21,7 @@ public class GenericWordLineCreatorProvider implements LineCreatorProvider {
 	
 	@FunctionalInterface
 	public interface GenericWordCreatorSupplier {
-		GenericWordCreator create(String param, PerformanceStats ps);
+		GenericWordCreator create(String param, PerformanceStats ps, SplittableRandom random);
 	}
 	 
 	public GenericWordLineCreatorProvider(String descriptionKey,
@@ -36,10 +36,11 @@ public class GenericWordLineCreatorProvider implements LineCreatorProvider {
 	private class GenericWordLineCreator implements LineCreator {
 		
 		private GenericWordCreator wordCreator;
-		private Random random = new Random();
+		private SplittableRandom random;
 		
-		public GenericWordLineCreator(GenericWordCreator wordCreator) {
+		public GenericWordLineCreator(GenericWordCreator wordCreator, SplittableRandom random) {
 			this.wordCreator = wordCreator;
+			this.random = random;
 		}
 		/**
 		 * Creates a line of words.
@@ -55,7 +56,7 @@ public class GenericWordLineCreatorProvider implements LineCreatorProvider {
 				if(maxLength - wordLength < 0)
 					break;
 				maxLength = maxLength-wordLength-1; // minus space
-				sb.append(wordCreator.create(wordLength));
+				wordCreator.create(wordLength, sb);
 				sb.append(' ');
 			}
 			//delete last space before line break
@@ -64,11 +65,27 @@ public class GenericWordLineCreatorProvider implements LineCreatorProvider {
 			sb.append('\n');
 			return sb.toString();
 		}
+		
+		@Override
+		public boolean isAdaptive() {
+			return wordCreator.isAdaptive();
+		}
 	}
 
 	@Override
 	public LineCreator getLineCreator(String param, PerformanceStats ps) {
-		return new GenericWordLineCreator(wordCreatorSupplier.create(param, ps));
+		return getLineCreator(param, ps, new SplittableRandom());
+	}
+	
+	/**
+	 * The word creator and the line creator each get their own generator, split off
+	 * from <tt>random</tt>.
+	 */
+	@Override
+	public LineCreator getLineCreator(String param, PerformanceStats ps,
+			SplittableRandom random) {
+		return new GenericWordLineCreator(wordCreatorSupplier.create(param, ps, random.split()),
+				random.split());
 	}
 
 	@Override
@@ -0,0 +1,230 @@
+package trainer.lineCreators;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * <p>Calls the {@link LineCreator} of a plugin on a separate thread with a deadline, so that
+ * a plugin that hangs or is very slow cannot freeze the trainer.
+ * 
+ * <p>If {@link #create(int)} of the plugin does not return within the deadline, the call is
+ * cancelled and the line is created by a built-in fallback <tt>LineCreator</tt> instead.
+ * Since the plugin may not be called concurrently, the fallback is also used as long as
+ * a cancelled call has not returned yet. {@link #hasNext()} of the plugin is called the same
+ * way; as long as the fallback is used, or if the plugin does not answer in time, there
+ * is a next line.
+ * 
+ * <p>A circuit breaker stops calling the plugin after {@value #FAILURE_THRESHOLD} timeouts
+ * in a row. Then all lines are created by the fallback for {@value #OPEN_MILLIS} ms. After
+ * that, the plugin gets one more try: if it returns in time, it is used again, otherwise the
+ * circuit breaker opens again.
+ * 
+ * <p>Exceptions that are thrown by the plugin are rethrown. {@link #isAdaptive()} is passed
+ * on to the plugin directly. The latencies, timeouts and fallbacks are recorded in the
+ * {@link PluginMetrics} of the plugin type.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class GuardedLineCreator implements LineCreator {
+	
+	public static final long DEFAULT_DEADLINE_MILLIS = 250;
+	public static final int FAILURE_THRESHOLD = 3;
+	public static final long OPEN_MILLIS = 30_000;
+	/**
+	 * The chars of the words of the fallback.
+	 */
+	public static final String FALLBACK_CHARS = "asdfghjkl";
+	
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread t = new Thread(r, "PluginLineCreator");
+		t.setDaemon(true);
+		return t;
+	});
+	
+	private final LineCreator plugin;
+	private final Supplier<LineCreator> fallbackSupplier;
+	private final PluginMetrics metrics;
+	private final long deadlineNanos;
+	private final long openNanos;
+	private LineCreator fallback; // created on first use
+	private Future<?> running; // the last call of the plugin
+	private volatile boolean busy; // true until the last call of the plugin has returned
+	private int failures; // timeouts in a row
+	private long openUntil;
+	private boolean open;
+	
+	/**
+	 * Guard the <tt>LineCreator</tt> of a plugin with the default deadline. The fallback
+	 * creates random words of {@link #FALLBACK_CHARS}.
+	 * @param type the type of the plugin
+	 * @param plugin the LineCreator of the plugin
+	 * @param random the random number generator of the practice session. The fallback
+	 * gets a split of it, so that it does not share it with the plugin thread.
+	 */
+	public GuardedLineCreator(String type, LineCreator plugin, SplittableRandom random) {
+		this(plugin, fallbackSupplier(random.split()), PluginMetrics.forType(type),
+				DEFAULT_DEADLINE_MILLIS, OPEN_MILLIS);
+	}
+	
+	/**
+	 * Guard the <tt>LineCreator</tt> of a plugin.
+	 * @param plugin the LineCreator of the plugin
+	 * @param fallbackSupplier supplies the LineCreator that is used instead of the plugin.
+	 * Called at most once.
+	 * @param metrics the metrics of the plugin type
+	 * @param deadlineMillis the time a call of the plugin may take
+	 * @param openMillis the time the plugin is not called after too many timeouts
+	 */
+	public GuardedLineCreator(LineCreator plugin, Supplier<LineCreator> fallbackSupplier,
+			PluginMetrics metrics, long deadlineMillis, long openMillis) {
+		this.plugin = plugin;
+		this.fallbackSupplier = fallbackSupplier;
+		this.metrics = metrics;
+		deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+		openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+	}
+	
+	@Override
+	public synchronized String create(int length) {
+		long start = System.nanoTime();
+		if(!isPluginCallable())
+			return createFallback(length);
+		String line;
+		try {
+			line = callPlugin(() -> plugin.create(length));
+		} catch (TimeoutException e) {
+			return createFallback(length);
+		}
+		metrics.recordCall(System.nanoTime() - start);
+		return line;
+	}
+	
+	/**
+	 * Returns true without calling the plugin as long as the fallback creates the lines, or
+	 * if the plugin does not answer within the deadline.
+	 */
+	@Override
+	public synchronized boolean hasNext() {
+		if(!isPluginCallable())
+			return true;
+		try {
+			return callPlugin(plugin::hasNext);
+		} catch (TimeoutException e) {
+			return true;
+		}
+	}
+	
+	@Override
+	public boolean isAdaptive() {
+		return plugin.isAdaptive();
+	}
+	
+	@Override
+	public synchronized void stop() {
+		if(running != null)
+			running.cancel(true);
+		// A plugin that hangs in create() may also hang in stop()
+		executor.execute(plugin::stop);
+		if(fallback != null)
+			fallback.stop();
+	}
+	
+	/**
+	 * To check if the circuit breaker is open, i. e. the plugin is currently not called.
+	 * @return true if the lines are created by the fallback
+	 */
+	public synchronized boolean isOpen() {
+		return open && System.nanoTime() - openUntil < 0;
+	}
+	
+	public PluginMetrics getMetrics() {
+		return metrics;
+	}
+	
+	private boolean isPluginCallable() {
+		return !isOpen() && !busy;
+	}
+	
+	/**
+	 * Call the plugin on a thread of the executor and wait until the deadline.
+	 * @param call the call of the plugin
+	 * @return the result of the call
+	 * @throws TimeoutException if the call has not returned within the deadline or the
+	 * waiting thread has been interrupted; the call has been cancelled then
+	 */
+	private <T> T callPlugin(Callable<T> call) throws TimeoutException {
+		busy = true;
+		AtomicBoolean started = new AtomicBoolean();
+		Future<T> future = executor.submit(() -> {
+			if(!started.compareAndSet(false, true))
+				return null; // timed out before it started
+			try {
+				return call.call();
+			}
+			finally {
+				busy = false;
+			}
+		});
+		running = future;
+		try {
+			T result = future.get(deadlineNanos, TimeUnit.NANOSECONDS);
+			failures = 0;
+			open = false;
+			return result;
+		} catch (TimeoutException e) {
+			cancel(started);
+			metrics.recordTimeout();
+			if(++failures >= FAILURE_THRESHOLD || open) {
+				open = true;
+				openUntil = System.nanoTime() + openNanos;
+			}
+			throw e;
+		} catch (ExecutionException e) {
+			failures = 0;
+			open = false;
+			if(e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			cancel(started);
+			Thread.currentThread().interrupt();
+			throw new TimeoutException("Interrupted");
+		}
+	}
+	
+	private void cancel(AtomicBoolean started) {
+		running.cancel(true);
+		if(started.compareAndSet(false, true))
+			busy = false; // the plugin has not been called
+	}
+	
+	private String createFallback(int length) {
+		metrics.recordFallback();
+		if(fallback == null)
+			fallback = fallbackSupplier.get();
+		return fallback.create(length);
+	}
+	
+	private static Supplier<LineCreator> fallbackSupplier(SplittableRandom random) {
+		return () -> {
+			try {
+				return LineCreatorFactory.getLineCreator("GENERIC_RAND", FALLBACK_CHARS, null,
+						random);
+			} catch (LineCreatorFactory.ImplementationNotFound | InitException e) {
+				throw new IllegalStateException("Built-in fallback not available", e);
+			}
+		};
+	}
+
+}
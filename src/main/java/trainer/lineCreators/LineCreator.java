@@ -28,6 +28,15 @@ public interface LineCreator {
 	 */
 	public default boolean hasNext() {return true;}
 	
+	/**
+	 * To check if the created lines depend on the current performance of the typist.
+	 * Lines of an adaptive <tt>LineCreator</tt> are not created in advance, but just before
+	 * they are needed, so that they reflect the latest performance statistics. Its
+	 * methods will then only be called from the thread that types.
+	 * @return true if the lines should be created as late as possible. By default false.
+	 */
+	public default boolean isAdaptive() {return false;}
+	
 	/**
 	 * This method will be called by the interface user when the interface won't be used
 	 * any longer. Override this method to release any open resources.
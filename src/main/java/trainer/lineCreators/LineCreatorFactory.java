@@ -1,18 +1,13 @@
 package trainer.lineCreators;
 
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.AbstractMap.SimpleEntry;
-import java.util.ArrayList;
-import java.util.ServiceLoader;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.SplittableRandom;
 
 import trainer.PerformanceStats;
 
 /**
- * A factory class that provides different implementations for {@link LineCreator}
+ * A factory class that provides different implementations for {@link LineCreator}. The
+ * providers are looked up in the {@link LineCreatorRegistry}. The <tt>LineCreator</tt>s of
+ * plugins are wrapped into a {@link GuardedLineCreator}.
  * 
  * @author Lasse Osterhagen
  *
@@ -20,22 +15,6 @@ import trainer.PerformanceStats;
 
 public class LineCreatorFactory {
 
-	private static Map<String, LineCreatorProvider> localLineCreatorProviders() {
-		return Collections.unmodifiableMap(Stream.of(
-		new SimpleEntry<>("GENERIC_RAND", new GenericWordLineCreatorProvider("GENERIC_RAND",
-			(p,s)->new RandWordCreator(p), Distributions.rightSkewed)),
-		new SimpleEntry<>("GENERIC_RAND_LANG", new GenericWordLineCreatorProvider("GENERIC_RAND_LANG",
-			(p,s)->new RandLangWordCreator(p), Distributions.rightSkewed)),
-		new SimpleEntry<>("ADAPT_RAND", new GenericWordLineCreatorProvider("ADAPT_RAND",
-			(p,s)->new AdaptRandWordCreator(p, s), Distributions.rightSkewed)),
-		new SimpleEntry<>("ADAPT_RAND_LANG", new GenericWordLineCreatorProvider("ADAPT_RAND_LANG",
-				(p,s)->new AdaptRandLangWordCreator(p, s), Distributions.rightSkewed)),
-		new SimpleEntry<>("wordList", new WordListLineCreatorProvider()),
-		new SimpleEntry<>("text", new TextLineCreatorProvider())
-		)
-		.collect(Collectors.toMap((e) -> e.getKey(), e -> e.getValue())));
-	}
-	
 	/**
 	 * Get a {@link LineCreatorProvider} that can provide a {@link LineCreator} of the specified
 	 * type. The type parameter corresponds to the <i>lineCreatorType</i> property of
@@ -46,8 +25,7 @@ public class LineCreatorFactory {
 	 * LineCreator type cannot be found
 	 */
 	public static LineCreatorProvider getLineCreatorProvider(String type) throws ImplementationNotFound {
-		return localLineCreatorProviders().containsKey(type) ?
-				localLineCreatorProviders().get(type) : findPluginLineCreatorProvider(type);
+		return LineCreatorRegistry.getInstance().getProvider(type);
 	}
 	
 	/**
@@ -65,7 +43,29 @@ public class LineCreatorFactory {
 	 */
 	public static LineCreator getLineCreator(String type, String param, PerformanceStats ps)
 			throws ImplementationNotFound, InitException {
-		return getLineCreatorProvider(type).getLineCreator(param, ps);
+		return getLineCreator(type, param, ps, new SplittableRandom());
+	}
+	
+	/**
+	 * Construct a <code>LineCreator</code> of the specified type that draws its random
+	 * decisions from the specified random number generator.
+	 * @param type the type of the LineCreator
+	 * @param param parameters that specify the behavior of the resulting LineCreator
+	 * @param ps a reference to the ongoing performance of the typist
+	 * @param random the random number generator of the practice session. Seeding it with
+	 * the same value will reproduce the same lines.
+	 * @return the initialized LineCreator
+	 * @throws ImplementationNotFound if no implementation of LineCreator for the specified type
+	 * could be found
+	 * @throws InitException if an error occurred during initializing of the LineCreator
+	 * @see #getLineCreator(String, String, PerformanceStats)
+	 */
+	public static LineCreator getLineCreator(String type, String param, PerformanceStats ps,
+			SplittableRandom random) throws ImplementationNotFound, InitException {
+		LineCreatorProvider provider = getLineCreatorProvider(type);
+		LineCreator lc = provider.getLineCreator(param, ps, random);
+		return provider instanceof LineCreatorProviderPlugin ?
+				new GuardedLineCreator(type, lc, random) : lc;
 	}
 	
 	/**
@@ -74,18 +74,8 @@ public class LineCreatorFactory {
 	 * @return all available LineCreator types
 	 */
 	public static String[] getAvailableLineCreatorTypes() {
-		ArrayList<String> l = new ArrayList<>();
-		// Add local LineCreator names
-		l.addAll(localLineCreatorProviders().keySet());
-		// Add plugin LineCreator names
-		ServiceLoader<LineCreatorProviderPlugin> loader =
-				ServiceLoader.load(LineCreatorProviderPlugin.class);
-		Iterator<LineCreatorProviderPlugin> pluginIter = loader.iterator();
-		while(pluginIter.hasNext()) {
-			LineCreatorProviderPlugin lp = pluginIter.next();
-			l.add(lp.getName());
-		}
-		return l.toArray(new String[0]);
+		LineCreatorRegistry.getInstance().reloadPluginsIfChanged();
+		return LineCreatorRegistry.getInstance().getTypes();
 	}
 	
 	/**
@@ -102,19 +92,5 @@ public class LineCreatorFactory {
 			this.pluginType = pluginType;
 		}
 	}
-	
-	private static LineCreatorProvider findPluginLineCreatorProvider(String type)
-			throws ImplementationNotFound {
-		ServiceLoader<LineCreatorProviderPlugin> loader =
-				ServiceLoader.load(LineCreatorProviderPlugin.class);
-		Iterator<LineCreatorProviderPlugin> pluginIter = loader.iterator();
-		while(pluginIter.hasNext()) {
-			LineCreatorProviderPlugin lp = pluginIter.next();
-			if(lp.getName().equals(type)) {
-				return lp;
-			}
-		}
-		throw new ImplementationNotFound(type);
-	}
 
 }
@@ -1,5 +1,7 @@
 package trainer.lineCreators;
 
+import java.util.SplittableRandom;
+
 import trainer.PerformanceStats;
 
 /**
@@ -25,6 +27,22 @@ public interface LineCreatorProvider {
 	 */
 	public LineCreator getLineCreator(String param, PerformanceStats ps) throws InitException;
 	
+	/**
+	 * Provides an implementation for <code>LineCreator</code> that draws all its random
+	 * decisions from <tt>random</tt>. Two <tt>LineCreator</tt>s that have been created with
+	 * generators of the same seed will create the same lines. By default, <tt>random</tt>
+	 * is ignored and {@link #getLineCreator(String, PerformanceStats)} is called.
+	 * @param param see {@link #getLineCreator(String, PerformanceStats)}
+	 * @param ps see {@link #getLineCreator(String, PerformanceStats)}
+	 * @param random the random number generator of the practice session
+	 * @return the LineCreator implementation.
+	 * @throws InitException if the LineCreator could not be created
+	 */
+	public default LineCreator getLineCreator(String param, PerformanceStats ps,
+			SplittableRandom random) throws InitException {
+		return getLineCreator(param, ps);
+	}
+	
 	/**
 	 * A short description of the <tt>LineCreator</tt> provided by this class.
 	 * The description will be displayed by the dialog for choosing an exercise.
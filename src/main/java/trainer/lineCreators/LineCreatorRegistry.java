@@ -0,0 +1,179 @@
+package trainer.lineCreators;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+/**
+ * <p>The registry of all {@link LineCreatorProvider}s by their type.
+ * 
+ * <p>The local providers, which reside inside the .jar package, are created once when the
+ * registry is first used. Plugins are discovered on the first lookup that needs them and are
+ * cached afterwards. They are found by a <code>ServiceLoader</code> on the class path and by
+ * a {@link PluginManager} inside the plugin directory; a plugin of the plugin directory
+ * replaces a plugin with the same name on the class path. The <tt>PluginManager</tt> watches
+ * the plugin directory, so that plugins that are added, replaced, or removed there are
+ * available without a restart. {@link #reloadPlugins()} discovers the plugins again;
+ * {@link #reloadPluginsIfChanged()} does so only if the plugin directory has been modified
+ * since the last discovery.
+ * 
+ * <p>The registry is thread-safe. Lookups do not block: a reload replaces the map of
+ * plugins as a whole.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class LineCreatorRegistry {
+	
+	// Singleton pattern
+	private static class Holder {
+		static final LineCreatorRegistry instance = new LineCreatorRegistry();
+	}
+	public static LineCreatorRegistry getInstance() {return Holder.instance;}
+	
+	private static final long UNKNOWN = Long.MIN_VALUE;
+	
+	private final Map<String, LineCreatorProvider> localProviders;
+	private volatile Map<String, LineCreatorProviderPlugin> plugins; // null until discovered
+	private Map<String, LineCreatorProviderPlugin> classPathPlugins;
+	private PluginManager pluginManager;
+	private long pluginsDirModified = UNKNOWN;
+	
+	private LineCreatorRegistry() {
+		Map<String, LineCreatorProvider> m = new LinkedHashMap<>();
+		m.put("GENERIC_RAND", new GenericWordLineCreatorProvider("GENERIC_RAND",
+			(p,s,r)->new RandWordCreator(p, r), Distributions.rightSkewed));
+		m.put("GENERIC_RAND_LANG", new GenericWordLineCreatorProvider("GENERIC_RAND_LANG",
+			(p,s,r)->new RandLangWordCreator(p, r), Distributions.rightSkewed));
+		m.put("ADAPT_RAND", new GenericWordLineCreatorProvider("ADAPT_RAND",
+			(p,s,r)->new AdaptRandWordCreator(p, s, r), Distributions.rightSkewed));
+		m.put("ADAPT_RAND_LANG", new GenericWordLineCreatorProvider("ADAPT_RAND_LANG",
+			(p,s,r)->new AdaptRandLangWordCreator(p, s, r), Distributions.rightSkewed));
+		m.put("ADAPT_NGRAM", new GenericWordLineCreatorProvider("ADAPT_NGRAM",
+			(p,s,r)->new NGramWordCreator(p, s, r), Distributions.rightSkewed));
+		m.put("wordList", new WordListLineCreatorProvider());
+		m.put("text", new TextLineCreatorProvider());
+		m.put("wikiDump", new WikiDumpLineCreatorProvider());
+		localProviders = Collections.unmodifiableMap(m);
+	}
+	
+	/**
+	 * Get the provider of a <tt>LineCreator</tt> type.
+	 * @param type the type of the LineCreator
+	 * @return the provider
+	 * @throws ImplementationNotFound if neither a local provider nor a plugin of the type
+	 * exists
+	 */
+	public LineCreatorProvider getProvider(String type) throws ImplementationNotFound {
+		LineCreatorProvider provider = localProviders.get(type);
+		if(provider == null)
+			provider = getPlugins().get(type);
+		if(provider == null)
+			throw new ImplementationNotFound(type);
+		return provider;
+	}
+	
+	/**
+	 * Get all available types: first the local ones, then those of the plugins.
+	 * @return the types
+	 */
+	public String[] getTypes() {
+		ArrayList<String> types = new ArrayList<>(localProviders.keySet());
+		types.addAll(getPlugins().keySet());
+		return types.toArray(new String[0]);
+	}
+	
+	/**
+	 * Discover the plugins again.
+	 */
+	public synchronized void reloadPlugins() {
+		pluginsDirModified = pluginsDirModified();
+		Map<String, LineCreatorProviderPlugin> m = new LinkedHashMap<>();
+		for(LineCreatorProviderPlugin plugin : ServiceLoader.load(LineCreatorProviderPlugin.class))
+			m.putIfAbsent(plugin.getName(), plugin);
+		classPathPlugins = m;
+		if(pluginManager == null)
+			pluginManager = createPluginManager();
+		if(pluginManager != null) {
+			pluginManager.scan();
+			try {
+				pluginManager.startWatching();
+			} catch (IOException e) {
+				// Not watchable (e. g. it does not exist yet): the plugins are only reloaded
+				// on request.
+			}
+		}
+		updatePlugins();
+	}
+	
+	/**
+	 * Get the manager of the plugin directory.
+	 * @return the PluginManager, or <code>null</code> if the plugin directory is not known
+	 * (yet)
+	 */
+	public synchronized PluginManager getPluginManager() {
+		return pluginManager;
+	}
+	
+	/**
+	 * Discover the plugins again if the plugin directory has been modified since the last
+	 * discovery.
+	 * @return true if the plugins have been discovered again
+	 */
+	public synchronized boolean reloadPluginsIfChanged() {
+		if(plugins != null && pluginsDirModified() == pluginsDirModified)
+			return false;
+		reloadPlugins();
+		return true;
+	}
+	
+	private Map<String, LineCreatorProviderPlugin> getPlugins() {
+		Map<String, LineCreatorProviderPlugin> m = plugins;
+		if(m == null) {
+			synchronized(this) {
+				if(plugins == null)
+					reloadPlugins();
+				m = plugins;
+			}
+		}
+		return m;
+	}
+	
+	private synchronized void updatePlugins() {
+		Map<String, LineCreatorProviderPlugin> m = new LinkedHashMap<>(classPathPlugins);
+		if(pluginManager != null)
+			pluginManager.getPlugins().forEach((name, lp) -> m.put(name, lp.getPlugin()));
+		plugins = Collections.unmodifiableMap(m);
+	}
+	
+	private PluginManager createPluginManager() {
+		Path dir;
+		try {
+			dir = install.Constants.getPluginsDir();
+		}
+		catch(RuntimeException e) {
+			return null; // no user save directory
+		}
+		PluginManager pm = new PluginManager(dir);
+		pm.setChangeListener(p -> updatePlugins());
+		return pm;
+	}
+	
+	private static long pluginsDirModified() {
+		try {
+			Path dir = install.Constants.getPluginsDir();
+			return Files.getLastModifiedTime(dir).toMillis();
+		}
+		catch(IOException | RuntimeException e) {
+			return UNKNOWN; // no user save directory, or no plugin directory
+		}
+	}
+
+}
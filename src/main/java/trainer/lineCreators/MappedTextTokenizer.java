@@ -0,0 +1,223 @@
+package trainer.lineCreators;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>Splits a UTF-8 encoded text file into words without reading it into the heap.
+ * 
+ * <p>The file is mapped into memory in windows of {@value #WINDOW_SIZE} bytes, which are
+ * decoded incrementally. Words are separated by chars for which
+ * {@link Character#isWhitespace(int)} is true, like with the default delimiter of a
+ * <code>Scanner</code>. Malformed byte sequences are decoded as U+FFFD.
+ * 
+ * <p>Tokenizing can start at any byte offset. Since the offset may point into a word or
+ * into a multi-byte sequence, the rest of that word is skipped. {@link #getPosition()}
+ * returns an offset from which a new <tt>MappedTextTokenizer</tt> continues exactly after
+ * the last returned word.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+class MappedTextTokenizer implements WordTokenizer {
+	
+	static final int WINDOW_SIZE = 1 << 24;
+	private static final char REPLACEMENT = '\uFFFD';
+	
+	private final FileChannel channel;
+	private final long fileSize;
+	private final int windowSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private long position; // offset of the next byte to decode
+	private long wordStart = -1;
+	private final StringBuilder word = new StringBuilder();
+	
+	/**
+	 * Open a text file and start at its beginning.
+	 * @param file the file
+	 * @throws IOException if the file could not be opened
+	 */
+	MappedTextTokenizer(Path file) throws IOException {
+		this(file, 0);
+	}
+	
+	/**
+	 * Open a text file and start at the first word that begins at or after an offset.
+	 * @param file the file
+	 * @param startOffset the offset in bytes
+	 * @throws IOException if the file could not be opened
+	 */
+	MappedTextTokenizer(Path file, long startOffset) throws IOException {
+		this(file, startOffset, WINDOW_SIZE);
+	}
+	
+	// The window size can be reduced for tests
+	MappedTextTokenizer(Path file, long startOffset, int windowSize) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		fileSize = channel.size();
+		this.windowSize = windowSize;
+		try {
+			seek(startOffset);
+		}
+		catch(UncheckedIOException e) {
+			channel.close();
+			throw e.getCause();
+		}
+	}
+	
+	@Override
+	public String next() {
+		int cp;
+		// skip white space
+		do {
+			if(position == fileSize)
+				return null;
+			wordStart = position;
+			cp = nextCodePoint();
+		} while(Character.isWhitespace(cp));
+		word.setLength(0);
+		while(true) {
+			word.appendCodePoint(cp);
+			if(position == fileSize)
+				break;
+			long before = position;
+			cp = nextCodePoint();
+			if(Character.isWhitespace(cp)) {
+				position = before; // keep the white space for getPosition()
+				break;
+			}
+		}
+		return word.toString();
+	}
+	
+	/**
+	 * Get the offset after the last word returned by {@link #next()}.
+	 * @return the offset in bytes
+	 */
+	long getPosition() {
+		return position;
+	}
+	
+	/**
+	 * Get the offset of the last word returned by {@link #next()}.
+	 * @return the offset in bytes, -1 if no word has been returned yet
+	 */
+	@Override
+	public long getWordStart() {
+		return wordStart;
+	}
+	
+	/**
+	 * Continue at the first word that begins at or after an offset. If the offset points
+	 * into a word, the rest of the word is skipped.
+	 */
+	@Override
+	public boolean seek(long offset) {
+		position = Math.max(0, Math.min(offset, fileSize));
+		wordStart = -1;
+		if(position > 0 && position < fileSize)
+			skipPartialWord();
+		return true;
+	}
+	
+	@Override
+	public void close() {
+		window = null;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void skipPartialWord() {
+		// skip the rest of a multi-byte sequence
+		while(position < fileSize && (byteAt(position) & 0xC0) == 0x80)
+			++position;
+		if(Character.isWhitespace(codePointBefore(position)))
+			return;
+		while(position < fileSize) {
+			long before = position;
+			if(Character.isWhitespace(nextCodePoint())) {
+				position = before;
+				return;
+			}
+		}
+	}
+	
+	private int byteAt(long offset) {
+		if(window == null || offset < windowStart || offset >= windowStart+window.limit())
+			map(offset);
+		return window.get((int) (offset-windowStart)) & 0xFF;
+	}
+	
+	private void map(long offset) {
+		try {
+			windowStart = offset;
+			window = channel.map(MapMode.READ_ONLY, offset,
+					Math.min(windowSize, fileSize-offset));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Decode the code point that ends right before an offset. The position is not changed.
+	 */
+	private int codePointBefore(long offset) {
+		// step back over the continuation bytes to the lead byte
+		long start = offset-1;
+		while(start > 0 && offset-start < 4 && (byteAt(start) & 0xC0) == 0x80)
+			--start;
+		long saved = position;
+		position = start;
+		int cp = nextCodePoint();
+		boolean complete = position == offset;
+		position = saved;
+		return complete ? cp : REPLACEMENT;
+	}
+	
+	/**
+	 * Decode the code point at the current position and advance the position.
+	 */
+	private int nextCodePoint() {
+		int b = byteAt(position++);
+		if(b < 0x80)
+			return b;
+		int length, cp;
+		if(b >= 0xF0 && b < 0xF5) {
+			length = 3;
+			cp = b & 0x07;
+		}
+		else if(b >= 0xE0 && b < 0xF0) {
+			length = 2;
+			cp = b & 0x0F;
+		}
+		else if(b >= 0xC2 && b < 0xE0) {
+			length = 1;
+			cp = b & 0x1F;
+		}
+		else
+			return REPLACEMENT; // continuation byte or invalid lead byte
+		for(int i=0; i<length; ++i) {
+			if(position == fileSize)
+				return REPLACEMENT;
+			int c = byteAt(position);
+			if((c & 0xC0) != 0x80)
+				return REPLACEMENT; // keep c for the next code point
+			++position;
+			cp = cp << 6 | c & 0x3F;
+		}
+		if((length == 2 && (cp < 0x800 || (cp >= 0xD800 && cp < 0xE000)))
+				|| (length == 3 && (cp < 0x10000 || cp > 0x10FFFF)))
+			return REPLACEMENT; // overlong encoding or surrogate
+		return cp;
+	}
+
+}
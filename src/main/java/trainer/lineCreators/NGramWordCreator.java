@@ -0,0 +1,73 @@
+package trainer.lineCreators;
+
+import java.util.SplittableRandom;
+
+import trainer.NGramStats;
+import trainer.PerformanceStats;
+
+/**
+ * <p>Creates words that are composed of the bigrams and trigrams the typist has most
+ * difficulties with, as determined by the {@link NGramStats} of the current
+ * {@link PerformanceStats}. Slow and error-prone transitions between keys are drawn more
+ * often.
+ * 
+ * <p>Chars that are not filled by n-grams are chosen randomly from the char set, like by
+ * {@link RandWordCreator}. At the start of a session, when no n-grams have been recorded
+ * yet, all chars are chosen this way.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class NGramWordCreator implements GenericWordCreator {
+	
+	/**
+	 * Probability that the next part of a word is an n-gram instead of a random char.
+	 */
+	public static final double NGRAM_FRACTION = 0.7;
+	
+	private NGramStats nGramStats;
+	private RandWordCreator randWordCreator;
+	private SplittableRandom random;
+	
+	/**
+	 * Class constructor.
+	 * @param charSet the char set from which random chars are chosen
+	 * @param ps the current performance statistics of the typist
+	 * @param random the random number generator
+	 */
+	public NGramWordCreator(String charSet, PerformanceStats ps, SplittableRandom random) {
+		this.nGramStats = ps.getNGramStats();
+		this.randWordCreator = new RandWordCreator(charSet, random.split());
+		this.random = random;
+	}
+
+	@Override
+	public String create(int length) {
+		StringBuilder sb = new StringBuilder(length);
+		create(length, sb);
+		return sb.toString();
+	}
+	
+	@Override
+	public void create(int length, StringBuilder sb) {
+		int end = sb.length() + length;
+		while(sb.length() < end) {
+			int remaining = end - sb.length();
+			if(remaining >= 2 && random.nextDouble() < NGRAM_FRACTION) {
+				int start = sb.length();
+				int n = nGramStats.appendSample(random, sb);
+				if(n > remaining)
+					sb.setLength(start + remaining); // a trigram in place of a bigram
+				if(n > 0)
+					continue;
+			}
+			randWordCreator.create(1, sb);
+		}
+	}
+	
+	@Override
+	public boolean isAdaptive() {
+		return true;
+	}
+
+}
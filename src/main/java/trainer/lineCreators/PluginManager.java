@@ -0,0 +1,322 @@
+package trainer.lineCreators;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Loads {@link LineCreatorProviderPlugin}s from the .jar files inside a plugin directory
+ * and reloads them when the directory changes.
+ * 
+ * <p>Every .jar file is loaded by its own <code>URLClassLoader</code>, whose parent is the
+ * class loader of the application. The plugins of a .jar file are listed in its
+ * <i>META-INF/services/trainer.lineCreators.LineCreatorProviderPlugin</i>, as for the
+ * <code>ServiceLoader</code>. Only this file of the .jar itself is read, so that a .jar does
+ * not pick up the plugins of the application class path.
+ * 
+ * <p>{@link #scan()} loads the .jar files that are new or have been modified since the last
+ * scan and keeps the plugins of the unchanged ones. The loaded plugins are then replaced as
+ * a whole, so that {@link #getPlugins()} never blocks. Class loaders of replaced .jar files
+ * are not closed, because <tt>LineCreator</tt>s of a running practice may still need them;
+ * they are collected by the garbage collector once these are gone. Therefore, every .jar
+ * file is copied to a private temporary file, from which it is loaded. The .jar files of
+ * the plugin directory are never kept open, so that they can be replaced or deleted at any
+ * time, even on platforms that lock open files.
+ * 
+ * <p>The time it took to load and instantiate every plugin is printed after the scan that
+ * has loaded it, so that slow plugins are visible.
+ * 
+ * <p>{@link #startWatching()} starts a daemon thread that scans the directory whenever a
+ * <code>WatchService</code> reports a change and informs the {@link ChangeListener}.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class PluginManager {
+	
+	private static final String SERVICE_FILE =
+			"META-INF/services/" + LineCreatorProviderPlugin.class.getName();
+	// Time to wait for further events, because copying a .jar file causes several of them
+	private static final long SETTLE_MILLIS = 200;
+	
+	/**
+	 * Is informed after a scan that has been caused by a change of the plugin directory.
+	 */
+	@FunctionalInterface
+	public interface ChangeListener {
+		void pluginsChanged(PluginManager pm);
+	}
+	
+	/**
+	 * A plugin together with the .jar file it has been loaded from.
+	 */
+	public static class LoadedPlugin {
+		private final LineCreatorProviderPlugin plugin;
+		private final Path jar;
+		private final long loadTime;
+		
+		LoadedPlugin(LineCreatorProviderPlugin plugin, Path jar, long loadTime) {
+			this.plugin = plugin;
+			this.jar = jar;
+			this.loadTime = loadTime;
+		}
+		
+		public LineCreatorProviderPlugin getPlugin() {
+			return plugin;
+		}
+		
+		public Path getJar() {
+			return jar;
+		}
+		
+		/**
+		 * Get the time it took to load the class of the plugin and to instantiate it.
+		 * @return the load time in nanoseconds
+		 */
+		public long getLoadTime() {
+			return loadTime;
+		}
+	}
+	
+	// The plugins of a .jar file as of its last modification
+	private static class JarEntry {
+		final long modified;
+		final long size;
+		final Path copy;
+		final List<LoadedPlugin> plugins;
+		
+		JarEntry(long modified, long size, Path copy, List<LoadedPlugin> plugins) {
+			this.modified = modified;
+			this.size = size;
+			this.copy = copy;
+			this.plugins = plugins;
+		}
+	}
+	
+	private final Path dir;
+	private final ClassLoader parent;
+	private Map<Path, JarEntry> jars = Collections.emptyMap(); // guarded by this
+	private volatile Map<String, LoadedPlugin> plugins = Collections.emptyMap();
+	private volatile ChangeListener changeListener = pm -> {};
+	private Thread watcher;
+	private WatchService watchService;
+	
+	/**
+	 * Construct a PluginManager. No .jar file is loaded before {@link #scan()}.
+	 * @param dir the plugin directory
+	 */
+	public PluginManager(Path dir) {
+		this.dir = dir;
+		parent = LineCreatorProviderPlugin.class.getClassLoader();
+	}
+	
+	public Path getDir() {
+		return dir;
+	}
+	
+	public void setChangeListener(ChangeListener changeListener) {
+		this.changeListener = changeListener;
+	}
+	
+	/**
+	 * Get the plugins that have been loaded by the last scan.
+	 * @return the plugins by their names, in the order of the .jar file names
+	 */
+	public Map<String, LoadedPlugin> getPlugins() {
+		return plugins;
+	}
+	
+	/**
+	 * Load the .jar files of the plugin directory that are new or have been modified since
+	 * the last scan and forget about those that have been removed. If the plugin directory
+	 * does not exist, there are no plugins.
+	 * <p>A .jar file that cannot be loaded or whose plugins cannot be instantiated is
+	 * skipped; the error is printed.
+	 */
+	public synchronized void scan() {
+		List<Path> files = new ArrayList<>();
+		if(Files.isDirectory(dir)) {
+			try(DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.jar")) {
+				ds.forEach(files::add);
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+		}
+		Collections.sort(files);
+		Map<Path, JarEntry> newJars = new HashMap<>();
+		Map<String, LoadedPlugin> newPlugins = new LinkedHashMap<>();
+		List<LoadedPlugin> loaded = new ArrayList<>();
+		for(Path file : files) {
+			JarEntry entry;
+			try {
+				BasicFileAttributes attr = Files.readAttributes(file, BasicFileAttributes.class);
+				long modified = attr.lastModifiedTime().toMillis();
+				entry = jars.get(file);
+				if(entry == null || entry.modified != modified || entry.size != attr.size()) {
+					entry = load(file, modified, attr.size());
+					loaded.addAll(entry.plugins);
+				}
+			} catch (IOException | ReflectiveOperationException | LinkageError
+					| ClassCastException e) {
+				e.printStackTrace();
+				continue;
+			}
+			newJars.put(file, entry);
+			for(LoadedPlugin p : entry.plugins)
+				newPlugins.putIfAbsent(p.getPlugin().getName(), p);
+		}
+		for(Map.Entry<Path, JarEntry> e : jars.entrySet()) {
+			if(newJars.get(e.getKey()) != e.getValue())
+				deleteCopy(e.getValue().copy);
+		}
+		jars = newJars;
+		plugins = Collections.unmodifiableMap(newPlugins);
+		for(LoadedPlugin p : loaded)
+			System.err.printf("Plugin %s loaded from %s in %.1f ms%n", p.getPlugin().getName(),
+					p.getJar().getFileName(), p.getLoadTime()/1e6);
+	}
+	
+	/**
+	 * Start a daemon thread that watches the plugin directory and scans it on changes.
+	 * @throws IOException if the directory cannot be watched
+	 */
+	public synchronized void startWatching() throws IOException {
+		if(watcher != null)
+			return;
+		watchService = dir.getFileSystem().newWatchService();
+		try {
+			dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+		} catch (IOException e) {
+			watchService.close();
+			throw e;
+		}
+		watcher = new Thread(this::watch, "PluginManager");
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+	
+	/**
+	 * Stop watching the plugin directory. The loaded plugins are kept.
+	 */
+	public synchronized void stopWatching() {
+		if(watcher == null)
+			return;
+		watcher.interrupt();
+		try {
+			watchService.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		watcher = null;
+	}
+	
+	private void watch() {
+		WatchService ws = watchService;
+		try {
+			while(true) {
+				WatchKey key = ws.take();
+				do {
+					key.pollEvents();
+					if(!key.reset())
+						return; // the directory is gone; startWatching() may be called again
+				} while((key = ws.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+				scan();
+				changeListener.pluginsChanged(this);
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopWatching() has been called
+		}
+		finally {
+			synchronized(this) {
+				if(watcher == Thread.currentThread())
+					watcher = null;
+			}
+		}
+	}
+	
+	private JarEntry load(Path file, long modified, long size)
+			throws IOException, ReflectiveOperationException {
+		Path copy = Files.createTempFile("plugin", ".jar");
+		copy.toFile().deleteOnExit();
+		try {
+			Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+			@SuppressWarnings("resource") // see class comment
+			URLClassLoader loader = new URLClassLoader(new URL[] {copy.toUri().toURL()}, parent);
+			List<LoadedPlugin> result = new ArrayList<>();
+			Enumeration<URL> serviceFiles = loader.findResources(SERVICE_FILE);
+			while(serviceFiles.hasMoreElements()) {
+				for(String className : readServiceFile(serviceFiles.nextElement())) {
+					long start = System.nanoTime();
+					Class<? extends LineCreatorProviderPlugin> c =
+							Class.forName(className, true, loader)
+							.asSubclass(LineCreatorProviderPlugin.class);
+					LineCreatorProviderPlugin plugin = c.getDeclaredConstructor().newInstance();
+					result.add(new LoadedPlugin(plugin, file, System.nanoTime() - start));
+				}
+			}
+			return new JarEntry(modified, size, copy, result);
+		}
+		catch(IOException | ReflectiveOperationException | RuntimeException | LinkageError e) {
+			deleteCopy(copy);
+			throw e;
+		}
+	}
+	
+	/**
+	 * Delete the copy of a .jar file whose plugins are not used any longer. This fails on
+	 * platforms that do not allow to delete an open file; the copy is then deleted on exit.
+	 */
+	private static void deleteCopy(Path copy) {
+		try {
+			Files.deleteIfExists(copy);
+		} catch (IOException e) {
+			// still open
+		}
+	}
+	
+	private static Collection<String> readServiceFile(URL url) throws IOException {
+		List<String> classNames = new ArrayList<>();
+		URLConnection connection = url.openConnection();
+		connection.setUseCaches(false); // a cached JarFile would not see a replaced .jar
+		try(BufferedReader br = new BufferedReader(
+				new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while((line = br.readLine()) != null) {
+				int comment = line.indexOf('#');
+				if(comment >= 0)
+					line = line.substring(0, comment);
+				line = line.trim();
+				if(!line.isEmpty())
+					classNames.add(line);
+			}
+		}
+		return classNames;
+	}
+
+}
@@ -0,0 +1,123 @@
+package trainer.lineCreators;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Metrics of the calls of {@link LineCreator#create(int)} of the plugins of one type:
+ * the latency of the calls, the number of calls that exceeded their deadline (including
+ * those of {@link LineCreator#hasNext()}), and the number of lines that have been created
+ * by a fallback instead of the plugin.
+ * 
+ * <p>The percentiles of the latency are computed over the last {@value #SAMPLES} calls.
+ * The metrics of every plugin type are kept for the lifetime of the application.
+ * 
+ * @author Lasse Osterhagen
+ * @see GuardedLineCreator
+ *
+ */
+public class PluginMetrics {
+	
+	public static final int SAMPLES = 1024;
+	
+	private static final ConcurrentHashMap<String, PluginMetrics> metrics =
+			new ConcurrentHashMap<>();
+	
+	/**
+	 * Get the metrics of a plugin type.
+	 * @param type the type of the plugin
+	 * @return the metrics, created on first use
+	 */
+	public static PluginMetrics forType(String type) {
+		return metrics.computeIfAbsent(type, PluginMetrics::new);
+	}
+	
+	private final String type;
+	private final long[] latencies = new long[SAMPLES]; // ring buffer, guarded by this
+	private long calls; // guarded by this
+	private final AtomicLong timeouts = new AtomicLong();
+	private final AtomicLong fallbacks = new AtomicLong();
+	
+	private PluginMetrics(String type) {
+		this.type = type;
+	}
+	
+	public String getType() {
+		return type;
+	}
+	
+	/**
+	 * Record a call that returned within its deadline.
+	 * @param latencyNanos the duration of the call
+	 */
+	synchronized void recordCall(long latencyNanos) {
+		latencies[(int) (calls++ % SAMPLES)] = latencyNanos;
+	}
+	
+	void recordTimeout() {
+		timeouts.incrementAndGet();
+	}
+	
+	void recordFallback() {
+		fallbacks.incrementAndGet();
+	}
+	
+	/**
+	 * Get the number of calls that returned within their deadline.
+	 * @return the number of calls
+	 */
+	public synchronized long getCalls() {
+		return calls;
+	}
+	
+	public long getTimeouts() {
+		return timeouts.get();
+	}
+	
+	public long getFallbacks() {
+		return fallbacks.get();
+	}
+	
+	/**
+	 * Get the median latency of the recent calls.
+	 * @return the latency in nanoseconds, 0 if there have been no calls
+	 */
+	public long getP50() {
+		return getPercentile(50);
+	}
+	
+	/**
+	 * Get the 99th percentile of the latency of the recent calls.
+	 * @return the latency in nanoseconds, 0 if there have been no calls
+	 */
+	public long getP99() {
+		return getPercentile(99);
+	}
+	
+	/**
+	 * Get a percentile of the latency of the recent calls by the nearest-rank method.
+	 * @param percent the percentile, between 0 (exclusive) and 100 (inclusive)
+	 * @return the latency in nanoseconds, 0 if there have been no calls
+	 */
+	public long getPercentile(int percent) {
+		if(percent <= 0 || percent > 100)
+			throw new IllegalArgumentException("Not a percentile: " + percent);
+		long[] sorted;
+		synchronized(this) {
+			sorted = Arrays.copyOf(latencies, (int) Math.min(calls, SAMPLES));
+		}
+		if(sorted.length == 0)
+			return 0;
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(percent/100.0*sorted.length);
+		return sorted[rank-1];
+	}
+	
+	@Override
+	public String toString() {
+		return type + ": p50=" + getP50()/1000 + "us, p99=" + getP99()/1000 + "us, timeouts="
+				+ getTimeouts() + ", fallbacks=" + getFallbacks();
+	}
+
+}
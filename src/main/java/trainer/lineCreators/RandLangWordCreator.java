@@ -1,6 +1,6 @@
 package trainer.lineCreators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * <p>Create pseudo words consisting of random chars, but with language-like
@@ -13,14 +13,14 @@ import java.util.Random;
  * @author Lasse Osterhagen
  *
  */
-public class RandLangWordCreator implements GenericWordCreator {
+public class RandLangWordCreator implements AdaptableWordCreator {
 	
 	private final static String endWordCharsCmp = ",;:-";
 	private final static String endSentenceCharsCmp = ".!?";
-	private String lowerCases;
-	private String upperCases;
-	private String endWordChars;
-	private String endSentenceChars;
+	private WeightedCharSet lowerCases;
+	private WeightedCharSet upperCases;
+	private WeightedCharSet endWordChars;
+	private WeightedCharSet endSentenceChars;
 	// percentage of upper case chars at word begin
 	private final double fractionUpper = .4;
 	// percentage of end chars at word end
@@ -30,7 +30,7 @@ public class RandLangWordCreator implements GenericWordCreator {
 	// true if last char added was an endSentenceChar
 	private boolean sentenceStart = true;
 	
-	private Random random = new Random();
+	private SplittableRandom random;
 	
 	/**
 	 * Class constructor.
@@ -40,6 +40,17 @@ public class RandLangWordCreator implements GenericWordCreator {
 	 * 	and at least one of the following punctuation characters: '.', '!', or '?'.
 	 */
 	public RandLangWordCreator(String charSet) {
+		this(charSet, new SplittableRandom());
+	}
+	
+	/**
+	 * Class constructor with a given random number generator.
+	 * 
+	 * @param charSet see {@link #RandLangWordCreator(String)}
+	 * @param random the random number generator
+	 */
+	public RandLangWordCreator(String charSet, SplittableRandom random) {
+		this.random = random;
 		// Validate charSet argument
 		StringBuilder uppers = new StringBuilder();
 		StringBuilder lowers = new StringBuilder();
@@ -56,13 +67,13 @@ public class RandLangWordCreator implements GenericWordCreator {
 			else if(endSentenceCharsCmp.indexOf(c) >= 0)
 				endSChars.append(c);
 		}
-		lowerCases = lowers.toString();
-		upperCases = uppers.toString();
-		endWordChars = endWChars.toString();
-		endSentenceChars = endSChars.toString();
-		if( lowerCases.length() == 0 ||
-			upperCases.length() == 0 ||
-			endSentenceChars.length() == 0)
+		lowerCases = new WeightedCharSet(lowers.toString());
+		upperCases = new WeightedCharSet(uppers.toString());
+		endWordChars = new WeightedCharSet(endWChars.toString());
+		endSentenceChars = new WeightedCharSet(endSChars.toString());
+		if( lowerCases.isEmpty() ||
+			upperCases.isEmpty() ||
+			endSentenceChars.isEmpty())
 			throw new IllegalArgumentException("The specified charSet is invalid:\n"
 					+ "it must contain lower case letters, upper case letters, and\n"
 					+ "one of the following chars: '.', '!', or '?'");
@@ -70,40 +81,59 @@ public class RandLangWordCreator implements GenericWordCreator {
 
 	@Override
 	public String create(int length) {
-		StringBuffer sb = new StringBuffer(length);
-		
+		StringBuilder sb = new StringBuilder(length);
+		create(length, sb);
+		return sb.toString();
+	}
+	
+	@Override
+	public void create(int length, StringBuilder sb) {
 		// First char
 		if(sentenceStart || random.nextDouble() < fractionUpper) {
-			sb.append(upperCases.charAt(random.nextInt(upperCases.length())));
+			sb.append(upperCases.next(random));
 			sentenceStart = false;
 		}
 		else {
-			sb.append(lowerCases.charAt(random.nextInt(lowerCases.length())));
+			sb.append(lowerCases.next(random));
 		}
 		
 		//Chars between
 		for(int i=1; i<length-1; ++i) {
-			sb.append(lowerCases.charAt(random.nextInt(lowerCases.length())));
+			sb.append(lowerCases.next(random));
 		}
 
 		//Last char
 		if(random.nextDouble() < fractionEndChars) {
-			if(endWordChars.length() == 0 ||
+			if(endWordChars.isEmpty() ||
 					random.nextDouble() < fractionSentenceEndChars) {
 				// Append a sentence ending punctuation
-				sb.append(endSentenceChars.charAt(random.nextInt(endSentenceChars.length())));
+				sb.append(endSentenceChars.next(random));
 				sentenceStart = true;
 			}
 			else {
 				// Append a word ending punctuation
-				sb.append(endWordChars.charAt(random.nextInt(endWordChars.length())));
+				sb.append(endWordChars.next(random));
 			}
 		}
 		else {
-			sb.append(lowerCases.charAt(random.nextInt(lowerCases.length())));
+			sb.append(lowerCases.next(random));
 		}
-
-		return sb.toString();
+	}
+	
+	/**
+	 * Set the extra weight of a char. Chars that are neither letters nor one of the
+	 * punctuation chars ",;:-.!?" are ignored.
+	 */
+	@Override
+	public void setExtraWeight(char c, int extraWeight) {
+		if(Character.isLowerCase(c))
+			lowerCases.setExtraWeight(c, extraWeight);
+		else if(Character.isUpperCase(c))
+			upperCases.setExtraWeight(c, extraWeight);
+		else if(endWordCharsCmp.indexOf(c) >= 0)
+			endWordChars.setExtraWeight(c, extraWeight);
+		else if(endSentenceCharsCmp.indexOf(c) >= 0)
+			endSentenceChars.setExtraWeight(c, extraWeight);
 	}
 
 }
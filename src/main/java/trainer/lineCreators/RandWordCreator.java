@@ -1,7 +1,6 @@
 package trainer.lineCreators;
 
-import java.util.Random;
-import java.util.stream.IntStream;
+import java.util.SplittableRandom;
 
 /**
  * This class creates words of a specified length by randomly
@@ -11,9 +10,10 @@ import java.util.stream.IntStream;
  *
  */
 
-public class RandWordCreator implements GenericWordCreator {
+public class RandWordCreator implements AdaptableWordCreator {
 	
-	private String charSet;
+	private WeightedCharSet charSet;
+	private SplittableRandom random;
 	
 	/**
 	 * Construct a RandWordCreator.
@@ -22,7 +22,17 @@ public class RandWordCreator implements GenericWordCreator {
 	 * more often in the char set.
 	 */
 	public RandWordCreator(String charSet) {
-		this.charSet = charSet;
+		this(charSet, new SplittableRandom());
+	}
+	
+	/**
+	 * Construct a RandWordCreator that uses a given random number generator.
+	 * @param charSet the character set from which words should be constructed
+	 * @param random the random number generator
+	 */
+	public RandWordCreator(String charSet, SplittableRandom random) {
+		this.charSet = new WeightedCharSet(charSet);
+		this.random = random;
 	}
 	
 	/**
@@ -32,11 +42,20 @@ public class RandWordCreator implements GenericWordCreator {
 	 */
 	@Override
 	public String create(int length) {
-		Random r = new Random();
-		IntStream s = r.ints(length, 0, charSet.length());
 		StringBuilder sb = new StringBuilder(length);
-		s.forEach(index -> sb.append(charSet.charAt(index)));
+		create(length, sb);
 		return sb.toString();
 	}
+	
+	@Override
+	public void create(int length, StringBuilder sb) {
+		for(int i=0; i<length; ++i)
+			sb.append(charSet.next(random));
+	}
+	
+	@Override
+	public void setExtraWeight(char c, int extraWeight) {
+		charSet.setExtraWeight(c, extraWeight);
+	}
 
 }
@@ -0,0 +1,310 @@
+package trainer.lineCreators;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>Imports a UTF-8 text for text exercises: converts it into typeable chars by a
+ * {@link TypeableConverter} and writes its words separated by single spaces. A
+ * {@link TextLineCreator} on the imported file neither needs to convert nor to skip white
+ * space, and a text exercise starts instantly regardless of the size of the text (see
+ * {@link TextLineCreatorProvider}).
+ * 
+ * <p>Large texts are split into chunks of about {@value #DEFAULT_CHUNK_SIZE} bytes, which
+ * are converted in parallel in a <tt>ForkJoinPool</tt>. A chunk ends after an ASCII white
+ * space char. Such a byte is never part of a multi-byte char, and an accent that follows it
+ * cannot be composed with it, so the result does not depend on the chunks. A text without
+ * such white space, like a Chinese or Japanese text, is split before an ASCII char or
+ * before a char that is not an accent, once a chunk has been extended by
+ * {@value #MAX_EXTENSION} bytes or by the chunk size, whichever is more. The chunks are
+ * converted in waves of at most {@value #DEFAULT_WAVE_SIZE} bytes by default, so that
+ * the memory needed does not depend on the number of threads.
+ * 
+ * <p>Usage:
+ * <pre>
+ * String fileName = new TextImporter("DE").importIntoTextsDir(Paths.get("novel.txt"));
+ * // fileName is the parameter <i>fileName</i> of a "text" exercise
+ * </pre>
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class TextImporter {
+	
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+	public static final int DEFAULT_WAVE_SIZE = 1 << 25;
+	private static final int MAX_EXTENSION = 1 << 10;
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+	
+	private final TypeableConverter converter;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int waveSize = DEFAULT_WAVE_SIZE;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * Construct a TextImporter.
+	 * @param countryID the country ID of the keyboard for the {@link TypeableConverter}
+	 */
+	public TextImporter(String countryID) {
+		converter = TypeableConverter.forCountry(countryID);
+	}
+	
+	/**
+	 * Set the size of the chunks that are converted in parallel.
+	 * @param chunkSize the size in bytes. A chunk may be longer to end at white space, by at
+	 * most the chunk size or {@value #MAX_EXTENSION} bytes.
+	 */
+	public void setChunkSize(int chunkSize) {
+		if(chunkSize < 1)
+			throw new IllegalArgumentException("chunkSize must be positive");
+		this.chunkSize = chunkSize;
+	}
+	
+	/**
+	 * Set the total size of the chunks that are converted at a time. Every chunk takes
+	 * several times its size in memory while it is converted.
+	 * @param waveSize the size in bytes. At least one chunk is converted at a time.
+	 */
+	public void setWaveSize(int waveSize) {
+		if(waveSize < 1)
+			throw new IllegalArgumentException("waveSize must be positive");
+		this.waveSize = waveSize;
+	}
+	
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Import a text into the texts directory of the user defined save directory. An existing
+	 * text with the same file name is replaced.
+	 * @param source the text
+	 * @return the file name of the imported text inside the texts directory
+	 * @throws IOException if the text could not be read or written
+	 */
+	public String importIntoTextsDir(Path source) throws IOException {
+		String fileName = source.getFileName().toString();
+		importText(source, FileLineCreatorProvider.userFile(fileName));
+		return fileName;
+	}
+	
+	/**
+	 * Import a text. The target is written to a temporary file first and replaced when
+	 * the import is complete.
+	 * @param source the text
+	 * @param target the imported text. May be the same as the source.
+	 * @throws IOException if the text could not be read or written
+	 */
+	public void importText(Path source, Path target) throws IOException {
+		Path tmp = target.resolveSibling(target.getFileName() + ".import");
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try(FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				OutputStream out = Files.newOutputStream(tmp)) {
+			long size = in.size();
+			long position = 0;
+			boolean first = true;
+			boolean space = false;
+			while(position < size) {
+				// One wave of chunks
+				int waveChunks = Math.max(1, waveSize/chunkSize);
+				List<Chunk> chunks = new ArrayList<>(waveChunks);
+				while(position < size && chunks.size() < waveChunks) {
+					Chunk chunk = readChunk(in, position, size);
+					chunks.add(chunk);
+					position += chunk.length;
+				}
+				pool.invoke(new ConvertTask(chunks, 0, chunks.size()));
+				for(Chunk chunk : chunks) {
+					// A chunk that has been split within a word continues in the next one
+					space |= chunk.spaceBefore;
+					if(chunk.words.length > 0) {
+						if(!first && space)
+							out.write(' ');
+						out.write(chunk.words);
+						first = false;
+						space = false;
+					}
+					space |= chunk.spaceAfter;
+				}
+			}
+		}
+		catch(UncheckedIOException e) {
+			Files.deleteIfExists(tmp);
+			throw e.getCause();
+		}
+		catch(IOException | RuntimeException e) {
+			Files.deleteIfExists(tmp);
+			throw e;
+		}
+		finally {
+			pool.shutdown();
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+	
+	private static class Chunk {
+		final long offset;
+		final byte[] bytes;
+		final int length; // of the bytes that belong to the chunk
+		byte[] words;
+		// white space before the first and after the last word; both for a chunk without words
+		boolean spaceBefore, spaceAfter;
+		
+		Chunk(long offset, byte[] bytes, int length) {
+			this.offset = offset;
+			this.bytes = bytes;
+			this.length = length;
+		}
+	}
+	
+	/**
+	 * Read a chunk that ends after an ASCII white space char or at the end of the text. If
+	 * there is no such char within the maximum length, the chunk is split at a code point
+	 * boundary by {@link #splitPosition(byte[], int)}.
+	 */
+	private Chunk readChunk(FileChannel in, long position, long size) throws IOException {
+		int maxLength = (int) Math.min((long) chunkSize + Math.max(chunkSize, MAX_EXTENSION),
+				MAX_ARRAY_SIZE);
+		int length = (int) Math.min(Math.min(chunkSize, MAX_ARRAY_SIZE), size-position);
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		readFully(in, buffer, position);
+		while(position+length < size && !isWhiteSpace(buffer.get(buffer.limit()-1))) {
+			if(length == maxLength)
+				return new Chunk(position, buffer.array(), splitPosition(buffer.array(), length));
+			// extend until white space
+			ByteBuffer extension = ByteBuffer.allocate((int) Math.min(Math.min(
+					Math.max(1024, buffer.capacity()/4), size-position-length), maxLength-length));
+			readFully(in, extension, position+length);
+			int end = 0;
+			while(end < extension.limit() && !isWhiteSpace(extension.get(end)))
+				++end;
+			end = Math.min(end+1, extension.limit());
+			ByteBuffer extended = ByteBuffer.allocate(length+end);
+			buffer.rewind();
+			extended.put(buffer);
+			extension.limit(end);
+			extended.put(extension);
+			extended.flip();
+			buffer = extended;
+			length += end;
+		}
+		return new Chunk(position, buffer.array(), length);
+	}
+	
+	/**
+	 * Find the last position within a chunk before which it can be split without changing
+	 * the conversion: before an ASCII char or before a char that is not an accent, which
+	 * could be composed with the char in front of it. Falls back to the last code point
+	 * boundary if there is no such position.
+	 */
+	private static int splitPosition(byte[] bytes, int length) {
+		int lastBoundary = length;
+		for(int i = length-1; i > 0; --i) {
+			byte b = bytes[i];
+			if(b >= 0)
+				return i; // ASCII
+			if((b & 0xc0) == 0xc0) {
+				// first byte of a multi-byte char
+				int n = (b & 0xe0) == 0xc0 ? 2 : (b & 0xf0) == 0xe0 ? 3 : 4;
+				// A char that is cut off at the end of the chunk might be an accent
+				if(i+n <= length && !isAccent(
+						new String(bytes, i, n, StandardCharsets.UTF_8).codePointAt(0)))
+					return i;
+				if(lastBoundary == length)
+					lastBoundary = i;
+			}
+		}
+		return lastBoundary;
+	}
+	
+	private static boolean isAccent(int codePoint) {
+		int type = Character.getType(codePoint);
+		return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+				|| type == Character.COMBINING_SPACING_MARK;
+	}
+	
+	private static void readFully(FileChannel in, ByteBuffer buffer, long position)
+			throws IOException {
+		while(buffer.hasRemaining()) {
+			if(in.read(buffer, position + buffer.position()) < 0)
+				throw new IOException("Unexpected end of file");
+		}
+		buffer.flip();
+	}
+	
+	private static boolean isWhiteSpace(byte b) {
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0b;
+	}
+	
+	private class ConvertTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final List<Chunk> chunks;
+		private final int from, to;
+		
+		ConvertTask(List<Chunk> chunks, int from, int to) {
+			this.chunks = chunks;
+			this.from = from;
+			this.to = to;
+		}
+		
+		@Override
+		protected void compute() {
+			if(to-from == 1) {
+				convert(chunks.get(from));
+				return;
+			}
+			int middle = (from+to) >>> 1;
+			invokeAll(new ConvertTask(chunks, from, middle), new ConvertTask(chunks, middle, to));
+		}
+	}
+	
+	private void convert(Chunk chunk) {
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		String text;
+		try {
+			text = decoder.decode(ByteBuffer.wrap(chunk.bytes, 0, chunk.length)).toString();
+		} catch (CharacterCodingException e) {
+			throw new UncheckedIOException(e); // not thrown with REPLACE
+		}
+		if(chunk.offset == 0 && text.startsWith("\uFEFF"))
+			text = text.substring(1); // byte order mark
+		String converted = converter.convert(text);
+		StringBuilder words = new StringBuilder(converted.length());
+		for(int i = 0, n = converted.length(); i < n; ++i) {
+			char c = converted.charAt(i);
+			if(!Character.isWhitespace(c))
+				words.append(c);
+			else if(words.length() == 0)
+				chunk.spaceBefore = true;
+			else if(words.charAt(words.length()-1) != ' ')
+				words.append(' ');
+		}
+		if(words.length() == 0)
+			chunk.spaceAfter = chunk.spaceBefore;
+		else if(words.charAt(words.length()-1) == ' ') {
+			words.setLength(words.length()-1);
+			chunk.spaceAfter = true;
+		}
+		chunk.words = words.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+}
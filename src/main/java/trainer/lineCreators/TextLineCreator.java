@@ -4,14 +4,51 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Scanner;
 
-public class TextLineCreator implements LineCreator {
+public class TextLineCreator implements Bookmarkable {
 	
-	private Scanner scanner;
+	private WordTokenizer tokenizer;
 	private String wordBuffer;
+	private long wordBufferOffset; // byte offset of the word in wordBuffer, -1 if unknown
+	private long wordIndex = -1; // index of the word in wordBuffer
 	
 	TextLineCreator(InputStream is) throws IOException {
-		scanner = new Scanner(is, persistence.Constants.PROJECT_CHARSET.toString());
-		wordBuffer = scanner.next();
+		this(new ScannerTokenizer(is));
+	}
+	
+	/**
+	 * Construct a TextLineCreator that takes the words of the text from a tokenizer.
+	 * @param tokenizer the tokenizer, will be closed by {@link #stop()}
+	 */
+	TextLineCreator(WordTokenizer tokenizer) {
+		this.tokenizer = tokenizer;
+		wordBuffer = nextWord();
+	}
+	
+	private String nextWord() {
+		String word = tokenizer.next();
+		// at the end of the text, the bookmark points behind the last word
+		wordBufferOffset = word == null ? -1 : tokenizer.getWordStart();
+		++wordIndex;
+		return word;
+	}
+	
+	private static class ScannerTokenizer implements WordTokenizer {
+		
+		private final Scanner scanner;
+		
+		ScannerTokenizer(InputStream is) {
+			scanner = new Scanner(is, persistence.Constants.PROJECT_CHARSET.toString());
+		}
+
+		@Override
+		public String next() {
+			return scanner.hasNext() ? scanner.next() : null;
+		}
+
+		@Override
+		public void close() {
+			scanner.close();
+		}
 	}
 
 	@Override
@@ -43,13 +80,13 @@ public class TextLineCreator implements LineCreator {
 		while(length >= -1) { 	// Use of >= -1 will force wordBuffer to be filled, if there is at
 								// least one remaining word. (Use -1 because of space after word
 								// that will be removed at the end.)
+			String nextWord = nextWord();
 			// end of text
-			if(!scanner.hasNext()) {
+			if(nextWord == null) {
 				sb.setLength(sb.length()-1); // delete last space
 				return sb.toString();
 			}
 			// more words left
-			String nextWord = scanner.next();
 			if(nextWord.length() > length) {
 				wordBuffer = nextWord;
 				break;
@@ -65,6 +102,32 @@ public class TextLineCreator implements LineCreator {
 		return sb.toString();
 	}
 	
+	/**
+	 * Get the position of the first word of the next line. If the word has been broken at
+	 * the end of the previous line, it is the position of the whole word.
+	 */
+	@Override
+	public Bookmark getBookmark() {
+		return new Bookmark(wordBufferOffset, wordIndex);
+	}
+	
+	/**
+	 * Continue at a bookmark. If the text is read from a file that allows random access,
+	 * this takes constant time. Otherwise, the words up to the bookmark are skipped.
+	 */
+	@Override
+	public void seek(Bookmark bookmark) {
+		if(bookmark.getOffset() >= 0 && tokenizer.seek(bookmark.getOffset())) {
+			wordIndex = bookmark.getWordIndex()-1;
+			wordBuffer = nextWord();
+			return;
+		}
+		if(bookmark.getWordIndex() < wordIndex)
+			throw new IllegalArgumentException("Cannot go back to " + bookmark);
+		while(wordBuffer != null && wordIndex < bookmark.getWordIndex())
+			wordBuffer = nextWord();
+	}
+	
 	@Override
 	public boolean hasNext() {
 		return wordBuffer != null;
@@ -72,7 +135,7 @@ public class TextLineCreator implements LineCreator {
 	
 	@Override
 	public void stop() {
-		scanner.close();
+		tokenizer.close();
 	}
 	
 }
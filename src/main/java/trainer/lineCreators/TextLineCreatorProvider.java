@@ -2,6 +2,7 @@ package trainer.lineCreators;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.ResourceBundle;
 
 
@@ -17,5 +18,14 @@ public class TextLineCreatorProvider extends FileLineCreatorProvider  {
 	protected LineCreator createLineCreator(InputStream is) throws IOException {
 		return new TextLineCreator(is);
 	}
+	
+	/**
+	 * Map the file into memory, so that texts of any size start instantly and do not
+	 * occupy the heap.
+	 */
+	@Override
+	protected LineCreator createLineCreator(Path file) throws IOException {
+		return new TextLineCreator(new MappedTextTokenizer(file));
+	}
 
 }
@@ -2,9 +2,14 @@ package trainer.lineCreators;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.text.Normalizer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.json.Json;
 import javax.json.stream.JsonParser;
@@ -41,31 +46,62 @@ import javax.json.stream.JsonParser.Event;
  * accents that form typeable characters with other characters can be appended to the array under
  * the field "allowedAccents".
  * 
+ * <p>The specification is compiled into a lookup table with the conversion of every char of
+ * the Basic Multilingual Plane, and into a table of the letters that are composed with an
+ * allowed accent that follows them. Thus, converting a text does not normalize it. Use
+ * {@link #forCountry(String)} to share the tables of a country.
+ * 
  * @author Lasse Osterhagen
  *
  */
 
 public class TypeableConverter {
 	
+	// Marks in the lookup table
+	private static final char DROP = '\uFFFF';
+	private static final char EXPAND = '\uFFFE';
+	private static final int BUFFER_SIZE = 8192;
+	
+	private static final ConcurrentHashMap<String, TypeableConverter> converters =
+			new ConcurrentHashMap<>();
+	
 	private String specialChars = "";
 	private Map<Character, String> allowedAccents = new HashMap<>();
 	
+	// Conversion of every non-ASCII char of the BMP: the char itself, a replacement,
+	// DROP, or EXPAND for a replacement by several chars
+	private final char[] table = new char[Character.MAX_VALUE+1];
+	private final Map<Character, String> expansions = new HashMap<>();
+	// Letters with allowed accents: (accent << 16 | letter) sorted, and the composed chars
+	private int[] pairKeys;
+	private char[] pairValues;
+	
+	/**
+	 * Get the shared TypeableConverter for a specific country-dependent keyboard layout.
+	 * @param countryID the country ID of the keyboard
+	 * @return the TypeableConverter, created on first use
+	 */
+	public static TypeableConverter forCountry(String countryID) {
+		return converters.computeIfAbsent(countryID, TypeableConverter::new);
+	}
+	
 	/**
 	 * Create a TypeableConverter for a specific country-dependent keyboard layout
 	 * @param countryID the country ID of the keyboard
+	 * @see #forCountry(String)
 	 */
 	public TypeableConverter(String countryID) {
 		String fileName = "typableChars_" + countryID + ".json";
 		try(InputStream is = TypeableConverter.class.getResourceAsStream(fileName)) {
-			if(is == null)
-				return; // There is no typableChars specification for this countryID. As result,
-						// TypeableConverter will convert text into ordinary ASCII characters
-			parseJson(Json.createParser(is));
-			
+			if(is != null)
+				parseJson(Json.createParser(is));
+			// else: there is no typableChars specification for this countryID. As result,
+			// TypeableConverter will convert text into ordinary ASCII characters
 		}
 		catch (IOException e) {
 			throw new RuntimeException(e);
 		}
+		compile();
 	}
 	
 	/**
@@ -76,26 +112,141 @@ public class TypeableConverter {
 	 */
 	public String convert(String text) {
 		StringBuilder sb = new StringBuilder(text.length());
-		text = Normalizer.normalize(text, Normalizer.Form.NFKD);
-	    for(int i = 0, n = text.length(); i < n; ++i) {
-	        char c = text.charAt(i);
-	        if(c <= '\u007F') // typical ASCII char
-	        	sb.append(c);
-	        else if(allowedAccents.containsKey(c)
-	        		&& i>0
-	        		&& allowedAccents.get(c).contains(sb.substring(sb.length()-1)))
-	        	// allowed accent that follows a letter for which this accent is allowed
-	        	sb.replace(sb.length()-1, sb.length(),
-	        			Normalizer.normalize(text.substring(i-1,i+1), Normalizer.Form.NFC));
-	        else if(specialChars.contains(Character.toString(c)))
-	        	// predefined allowed special (non-ASCII) character
-	        	sb.append(c);
-	        else if(!(c >= '\u0300' && c <= '\u036F'))
-	        	// not a combining accent
-	        	sb.append('?');
-	        // else, i. e. it is a combining accent: do not include into resulting text
-	    }
-	    return sb.toString();
+		convert(text, sb);
+		return sb.toString();
+	}
+	
+	/**
+	 * Convert a text in a single pass with a bounded buffer.
+	 * @param in the original text. Will not be closed.
+	 * @param out receives the converted text. Will not be closed.
+	 * @throws IOException if reading or writing fails
+	 * @see #convert(String)
+	 */
+	public void convert(Reader in, Writer out) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		StringBuilder sb = new StringBuilder(BUFFER_SIZE+16);
+		int carry = 0;
+		int n;
+		while((n = in.read(buffer, carry, buffer.length-carry)) != -1) {
+			int end = carry+n;
+			// A high surrogate at the end waits for its low surrogate
+			int limit = end > 0 && Character.isHighSurrogate(buffer[end-1]) ? end-1 : end;
+			convert(CharBuffer.wrap(buffer, 0, limit), sb);
+			// Keep the last char, because an accent in the next chunk may be composed with it
+			if(sb.length() > 1) {
+				out.append(sb, 0, sb.length()-1);
+				sb.delete(0, sb.length()-1);
+			}
+			carry = end-limit;
+			if(carry > 0)
+				buffer[0] = buffer[limit];
+		}
+		convert(CharBuffer.wrap(buffer, 0, carry), sb);
+		out.append(sb);
+	}
+	
+	private void convert(CharSequence text, StringBuilder sb) {
+		for(int i = 0, n = text.length(); i < n; ++i) {
+			char c = text.charAt(i);
+			if(c <= '\u007F') // typical ASCII char
+				sb.append(c);
+			else if(sb.length() > 0 && compose(sb, c)) {
+				// allowed accent that follows a letter for which this accent is allowed
+			}
+			else if(Character.isSurrogate(c)) {
+				if(Character.isHighSurrogate(c) && i+1 < n
+						&& Character.isLowSurrogate(text.charAt(i+1))) {
+					convertSupplementary(text.subSequence(i, i+2).toString(), sb);
+					++i;
+				}
+				else
+					sb.append('?');
+			}
+			else {
+				char r = table[c];
+				if(r == EXPAND)
+					sb.append(expansions.get(c));
+				else if(r != DROP)
+					sb.append(r);
+			}
+		}
+	}
+	
+	private boolean compose(StringBuilder sb, char accent) {
+		int i = Arrays.binarySearch(pairKeys, accent << 16 | sb.charAt(sb.length()-1));
+		if(i < 0)
+			return false;
+		sb.setCharAt(sb.length()-1, pairValues[i]);
+		return true;
+	}
+	
+	/**
+	 * Decompose a char outside of the BMP. Mathematical letters, for example, become ASCII
+	 * letters; everything else cannot be typed.
+	 */
+	private void convertSupplementary(String surrogates, StringBuilder sb) {
+		String decomposed = Normalizer.normalize(surrogates, Normalizer.Form.NFKD);
+		if(decomposed.equals(surrogates))
+			sb.append("??");
+		else
+			convert(decomposed, sb);
+	}
+	
+	/**
+	 * Build the lookup tables by applying the conversion rules to every single char.
+	 */
+	private void compile() {
+		for(int c = '\u0080'; c <= Character.MAX_VALUE; ++c) {
+			if(Character.isSurrogate((char) c))
+				continue;
+			String r = convertDecomposed(Normalizer.normalize(String.valueOf((char) c),
+					Normalizer.Form.NFKD));
+			if(r.isEmpty())
+				table[c] = DROP;
+			else if(r.length() == 1)
+				table[c] = r.charAt(0);
+			else {
+				table[c] = EXPAND;
+				expansions.put((char) c, r);
+			}
+		}
+		Map<Integer, Character> pairs = new HashMap<>();
+		allowedAccents.forEach((accent, letters) -> {
+			for(char letter : letters.toCharArray())
+				pairs.put(accent << 16 | letter, Normalizer.normalize(
+						"" + letter + accent, Normalizer.Form.NFC).charAt(0));
+		});
+		pairKeys = pairs.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+		pairValues = new char[pairKeys.length];
+		for(int i=0; i<pairKeys.length; ++i)
+			pairValues[i] = pairs.get(pairKeys[i]);
+	}
+	
+	/**
+	 * The conversion rules for a text in the normalization form NFKD.
+	 */
+	private String convertDecomposed(String text) {
+		StringBuilder sb = new StringBuilder(text.length());
+		for(int i = 0, n = text.length(); i < n; ++i) {
+			char c = text.charAt(i);
+			if(c <= '\u007F') // typical ASCII char
+				sb.append(c);
+			else if(allowedAccents.containsKey(c)
+					&& sb.length() > 0
+					&& allowedAccents.get(c).contains(sb.substring(sb.length()-1)))
+				// allowed accent that follows a letter for which this accent is allowed
+				sb.replace(sb.length()-1, sb.length(),
+						Normalizer.normalize(text.substring(i-1,i+1), Normalizer.Form.NFC));
+			else if(specialChars.contains(Character.toString(c)))
+				// predefined allowed special (non-ASCII) character
+				sb.append(c);
+			else if(!(c >= '\u0300' && c <= '\u036F'))
+				// not a combining accent
+				sb.append('?');
+			// else, i. e. it is a combining accent: do not include into resulting text
+		}
+		return sb.toString();
 	}
 	
 	private void parseJson(JsonParser jp) {
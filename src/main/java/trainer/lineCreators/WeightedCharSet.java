@@ -0,0 +1,177 @@
+package trainer.lineCreators;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * <p>A set of chars with an integer weight for each char, from which chars can be drawn
+ * randomly with a probability that is proportional to their weight.
+ *
+ * <p>The weight of a char is the sum of a <i>base</i> weight, which is the number of
+ * occurrences of the char in the string the set has been constructed from, and an
+ * <i>extra</i> weight that can be changed at any time by {@link #setExtraWeight(char, int)}.
+ *
+ * <p>The cumulative weights are kept in a Fenwick tree, so that both changing a weight
+ * and drawing a char take <i>O(log n)</i> time, with <i>n</i> being the number of
+ * distinct chars in the set.
+ *
+ * @author Lasse Osterhagen
+ *
+ */
+public class WeightedCharSet {
+
+	// Chars below this value are mapped to their slot by an array
+	private static final int DENSE_SIZE = 0x250;
+
+	private char[] chars;
+	private int[] baseWeights;
+	private int[] weights;
+	// Fenwick tree over weights, 1-based, length == capacity+1
+	private int[] tree;
+	private int size;
+	private int total;
+	// slot+1 of a dense char, 0 if absent
+	private final int[] denseSlots = new int[DENSE_SIZE];
+	private final Map<Character, Integer> sparseSlots = new HashMap<>();
+
+	/**
+	 * Construct a WeightedCharSet.
+	 * @param charSet the chars of the set. The base weight of a char is the number of
+	 * its occurrences in <tt>charSet</tt>.
+	 */
+	public WeightedCharSet(String charSet) {
+		int capacity = 8;
+		chars = new char[capacity];
+		baseWeights = new int[capacity];
+		weights = new int[capacity];
+		tree = new int[capacity+1];
+		for(int i=0; i<charSet.length(); ++i) {
+			char c = charSet.charAt(i);
+			int slot = slotOf(c);
+			if(slot < 0)
+				slot = addSlot(c);
+			++baseWeights[slot];
+			add(slot, 1);
+		}
+	}
+
+	/**
+	 * Set the extra weight of a char. If the char is not yet part of the set, it will be
+	 * added with a base weight of 0.
+	 * @param c the char
+	 * @param extraWeight the new extra weight, must not be negative
+	 */
+	public void setExtraWeight(char c, int extraWeight) {
+		if(extraWeight < 0)
+			throw new IllegalArgumentException("extraWeight must not be negative");
+		int slot = slotOf(c);
+		if(slot < 0) {
+			if(extraWeight == 0)
+				return;
+			slot = addSlot(c);
+		}
+		add(slot, baseWeights[slot] + extraWeight - weights[slot]);
+	}
+
+	/**
+	 * Get the current weight of a char.
+	 * @param c the char
+	 * @return the sum of base weight and extra weight, 0 if the char is not part of
+	 * the set
+	 */
+	public int getWeight(char c) {
+		int slot = slotOf(c);
+		return slot < 0 ? 0 : weights[slot];
+	}
+
+	/**
+	 * Get the sum of the weights of all chars.
+	 * @return the total weight
+	 */
+	public int getTotalWeight() {
+		return total;
+	}
+
+	/**
+	 * Check whether any char could be drawn from this set.
+	 * @return <code>true</code> if the total weight is 0
+	 */
+	public boolean isEmpty() {
+		return total == 0;
+	}
+
+	/**
+	 * Draw a random char.
+	 * @param random the source of randomness
+	 * @return a char with a probability proportional to its weight
+	 * @throws IllegalStateException if the set is empty
+	 */
+	public char next(SplittableRandom random) {
+		if(total == 0)
+			throw new IllegalStateException("WeightedCharSet is empty");
+		return get(random.nextInt(total));
+	}
+
+	/**
+	 * Get the char at a position of the cumulative weight.
+	 * @param cumulativeWeight a value in the range [0, total weight)
+	 * @return the char whose cumulative weight range contains <tt>cumulativeWeight</tt>
+	 */
+	char get(int cumulativeWeight) {
+		int pos = 0;
+		int remaining = cumulativeWeight;
+		for(int step = Integer.highestOneBit(chars.length); step > 0; step >>= 1) {
+			int next = pos + step;
+			if(next <= chars.length && tree[next] <= remaining) {
+				pos = next;
+				remaining -= tree[next];
+			}
+		}
+		// pos is the number of slots whose cumulative weight is <= cumulativeWeight
+		return chars[Math.min(pos, size-1)];
+	}
+
+	private int slotOf(char c) {
+		if(c < DENSE_SIZE)
+			return denseSlots[c]-1;
+		Integer slot = sparseSlots.get(c);
+		return slot == null ? -1 : slot;
+	}
+
+	private int addSlot(char c) {
+		if(size == chars.length)
+			grow();
+		int slot = size++;
+		chars[slot] = c;
+		if(c < DENSE_SIZE)
+			denseSlots[c] = slot+1;
+		else
+			sparseSlots.put(c, slot);
+		return slot;
+	}
+
+	private void add(int slot, int delta) {
+		weights[slot] += delta;
+		total += delta;
+		for(int i=slot+1; i<tree.length; i += i & -i)
+			tree[i] += delta;
+	}
+
+	private void grow() {
+		int capacity = 2*chars.length;
+		chars = Arrays.copyOf(chars, capacity);
+		baseWeights = Arrays.copyOf(baseWeights, capacity);
+		weights = Arrays.copyOf(weights, capacity);
+		// Rebuild the tree in linear time
+		tree = new int[capacity+1];
+		for(int i=1; i<=capacity; ++i) {
+			tree[i] += weights[i-1];
+			int parent = i + (i & -i);
+			if(parent <= capacity)
+				tree[parent] += tree[i];
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+package trainer.lineCreators;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/**
+ * <p>The byte offsets of the articles of a Wikipedia extract dump in the JSON lines format,
+ * i. e. a file with one JSON object per line.
+ * 
+ * <p>The index is built by a single pass over the dump and saved next to it, with the suffix
+ * {@value #SUFFIX}. It is built again if the size or the modification time of the dump
+ * have changed. If the index cannot be saved, it is only kept in memory.
+ * 
+ * <p>File format (big-endian):
+ * <pre>
+ * header, {@value #HEADER_SIZE} bytes:
+ *   int   magic ({@value #MAGIC}, "TTWI")
+ *   short version ({@value #VERSION})
+ *   short reserved
+ *   long  size of the dump in bytes
+ *   long  modification time of the dump in milliseconds
+ *   int   number of articles
+ *   4 bytes reserved
+ * the byte offset of each article as long
+ * </pre>
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class WikiDumpIndex {
+	
+	public static final String SUFFIX = ".idx";
+	static final int MAGIC = 0x54545749;
+	static final short VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private final LongBuffer offsets;
+	
+	private WikiDumpIndex(LongBuffer offsets) {
+		this.offsets = offsets;
+	}
+	
+	/**
+	 * Load the index of a dump, or build it if it does not exist or is out of date.
+	 * @param dump the dump
+	 * @return the index
+	 * @throws IOException if the dump could not be read
+	 */
+	public static WikiDumpIndex open(Path dump) throws IOException {
+		BasicFileAttributes attr = Files.readAttributes(dump, BasicFileAttributes.class);
+		long size = attr.size();
+		long modified = attr.lastModifiedTime().toMillis();
+		Path indexFile = dump.resolveSibling(dump.getFileName() + SUFFIX);
+		WikiDumpIndex index = load(indexFile, size, modified);
+		if(index != null)
+			return index;
+		long[] offsets = build(dump);
+		try {
+			save(indexFile, offsets, size, modified);
+		} catch (IOException e) {
+			// e. g. a read-only directory: keep the index in memory
+		}
+		return new WikiDumpIndex(LongBuffer.wrap(offsets));
+	}
+	
+	/**
+	 * Get the number of articles.
+	 * @return the number of non-empty lines of the dump
+	 */
+	public int size() {
+		return offsets.capacity();
+	}
+	
+	/**
+	 * Get the byte offset of an article.
+	 * @param article the index of the article, between 0 and {@link #size()} (exclusive)
+	 * @return the offset of the beginning of its line
+	 */
+	public long getOffset(int article) {
+		return offsets.get(article);
+	}
+	
+	private static WikiDumpIndex load(Path indexFile, long size, long modified) {
+		try(FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+			if(channel.size() < HEADER_SIZE)
+				return null;
+			ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if(header.getInt() != MAGIC || header.getShort() != VERSION)
+				return null;
+			header.getShort();
+			if(header.getLong() != size || header.getLong() != modified)
+				return null;
+			int count = header.getInt();
+			if(channel.size() != HEADER_SIZE + 8L*count)
+				return null;
+			return new WikiDumpIndex(channel.map(MapMode.READ_ONLY, HEADER_SIZE, 8L*count)
+					.asLongBuffer());
+		} catch (IOException e) {
+			return null; // does not exist or is not readable: build it again
+		}
+	}
+	
+	/**
+	 * Find the beginnings of all lines that contain more than white space.
+	 */
+	static long[] build(Path dump) throws IOException {
+		long[] offsets = new long[1024];
+		int count = 0;
+		try(FileChannel channel = FileChannel.open(dump, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			long position = 0;
+			long lineStart = 0;
+			boolean blank = true;
+			while(channel.read(buffer) > 0) {
+				buffer.flip();
+				while(buffer.hasRemaining()) {
+					byte b = buffer.get();
+					if(b == '\n') {
+						lineStart = position+1;
+						blank = true;
+					}
+					else if(blank && b != ' ' && b != '\t' && b != '\r') {
+						blank = false;
+						if(count == offsets.length)
+							offsets = Arrays.copyOf(offsets, 2*count);
+						offsets[count++] = lineStart;
+					}
+					++position;
+				}
+				buffer.clear();
+			}
+		}
+		return Arrays.copyOf(offsets, count);
+	}
+	
+	private static void save(Path indexFile, long[] offsets, long size, long modified)
+			throws IOException {
+		Path tmp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(tmp)))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeShort(0);
+			out.writeLong(size);
+			out.writeLong(modified);
+			out.writeInt(offsets.length);
+			out.writeInt(0);
+			for(long offset : offsets)
+				out.writeLong(offset);
+		}
+		Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+}
@@ -0,0 +1,323 @@
+package trainer.lineCreators;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * <p>A <code>LineCreator</code> that takes the text of a random article of a Wikipedia
+ * extract dump on the local disk. It is the offline counterpart of {@link WikiLineCreator}.
+ * 
+ * <p>The dump contains one article per line as a JSON object with at least the string
+ * fields <i>title</i> and <i>text</i>, as written by common Wikipedia extractors:
+ * <pre>
+ * {@code
+ * {"id": "12", "title": "Anarchism", "text": "Anarchism is a political philosophy ..."}
+ * }
+ * </pre>
+ * The article is found by a single seek with the help of a {@link WikiDumpIndex}. Its text
+ * is not read as a whole: it is decoded from the JSON string while the lines are created,
+ * and every word is converted by a {@link TypeableConverter} just before it is used.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class WikiDumpLineCreator implements LineCreator {
+	
+	private final TextLineCreator textLineCreator;
+	private final String title;
+	
+	/**
+	 * Create a <code>LineCreator</code> that uses the text of a random article.
+	 * @param dump the dump
+	 * @param index the index of the dump
+	 * @param converter converts the text into typeable characters
+	 * @param random the random number generator that chooses the article
+	 * @throws IOException if the dump could not be read
+	 * @throws IllegalArgumentException if the dump does not contain any article
+	 */
+	public WikiDumpLineCreator(Path dump, WikiDumpIndex index, TypeableConverter converter,
+			SplittableRandom random) throws IOException {
+		this(dump, index.getOffset(random.nextInt(index.size())), converter);
+	}
+	
+	/**
+	 * Create a <code>LineCreator</code> that uses the text of the article at an offset.
+	 * @param dump the dump
+	 * @param offset the byte offset of the article
+	 * @param converter converts the text into typeable characters
+	 * @throws IOException if the dump could not be read
+	 */
+	public WikiDumpLineCreator(Path dump, long offset, TypeableConverter converter)
+			throws IOException {
+		FileChannel channel = FileChannel.open(dump, StandardOpenOption.READ);
+		try {
+			channel.position(offset);
+			PushbackReader in = new PushbackReader(new BufferedReader(new InputStreamReader(
+					Channels.newInputStream(channel), StandardCharsets.UTF_8)));
+			ArticleReader article = new ArticleReader(in);
+			Reader text = article.openText();
+			title = article.title;
+			String prefix = title.isEmpty() ? "" : title + ": ";
+			textLineCreator = new TextLineCreator(new ReaderTokenizer(
+					new StringReader(prefix), text, in, converter));
+		}
+		catch(IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Get the title of the article.
+	 * @return the title, empty if it is not known
+	 */
+	public String getTitle() {
+		return title;
+	}
+	
+	@Override
+	public String create(int length) {
+		return textLineCreator.create(length);
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return textLineCreator.hasNext();
+	}
+	
+	@Override
+	public void stop() {
+		textLineCreator.stop();
+	}
+	
+	/**
+	 * Reads the fields of a JSON object up to the value of <i>text</i>.
+	 */
+	private static class ArticleReader {
+		
+		private final PushbackReader in;
+		String title = "";
+		
+		ArticleReader(PushbackReader in) {
+			this.in = in;
+		}
+		
+		/**
+		 * @return the value of <i>text</i>, empty if there is none
+		 */
+		Reader openText() throws IOException {
+			expect('{');
+			while(true) {
+				int c = skipWhiteSpace();
+				if(c == '}')
+					return new StringReader("");
+				if(c == ',')
+					continue;
+				if(c != '"')
+					throw malformed(c);
+				String key = readString();
+				expect(':');
+				c = skipWhiteSpace();
+				in.unread(c);
+				if(c == '"' && key.equals("title")) {
+					in.read();
+					title = readString();
+				}
+				else if(c == '"' && key.equals("text")) {
+					in.read();
+					return new JsonStringReader(in);
+				}
+				else
+					skipValue();
+			}
+		}
+		
+		private void expect(char expected) throws IOException {
+			int c = skipWhiteSpace();
+			if(c != expected)
+				throw malformed(c);
+		}
+		
+		private int skipWhiteSpace() throws IOException {
+			int c;
+			while((c = in.read()) == ' ' || c == '\t' || c == '\r');
+			if(c == -1 || c == '\n')
+				throw new IOException("Unexpected end of article");
+			return c;
+		}
+		
+		private String readString() throws IOException {
+			StringBuilder sb = new StringBuilder();
+			try(Reader r = new JsonStringReader(in)) {
+				int c;
+				while((c = r.read()) != -1)
+					sb.append((char) c);
+			}
+			return sb.toString();
+		}
+		
+		private void skipValue() throws IOException {
+			int depth = 0;
+			while(true) {
+				int c = skipWhiteSpace();
+				if(c == '"')
+					readString();
+				else if(c == '{' || c == '[')
+					++depth;
+				else if(c == '}' || c == ']') {
+					if(depth == 0) {
+						in.unread(c);
+						return;
+					}
+					--depth;
+				}
+				else if(c == ',' && depth == 0) {
+					in.unread(c);
+					return;
+				}
+			}
+		}
+		
+		private static IOException malformed(int c) {
+			return new IOException("Malformed article at '" + (char) c + "'");
+		}
+	}
+	
+	/**
+	 * Decodes a JSON string whose opening quotation mark has been read. Ends at the closing
+	 * quotation mark. Does not close the underlying reader.
+	 */
+	private static class JsonStringReader extends Reader {
+		
+		private final Reader in;
+		private boolean end;
+		
+		JsonStringReader(Reader in) {
+			this.in = in;
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			if(end)
+				return -1;
+			int n = 0;
+			while(n < len) {
+				int c = in.read();
+				if(c == -1 || c == '"') {
+					end = true;
+					break;
+				}
+				if(c == '\\')
+					c = readEscaped();
+				cbuf[off + n++] = (char) c;
+			}
+			return n == 0 && end ? -1 : n;
+		}
+		
+		private int readEscaped() throws IOException {
+			int c = in.read();
+			switch(c) {
+			case 'n': return '\n';
+			case 't': return '\t';
+			case 'r': return '\r';
+			case 'b': return '\b';
+			case 'f': return '\f';
+			case 'u':
+				int code = 0;
+				for(int i=0; i<4; ++i) {
+					int digit = Character.digit(in.read(), 16);
+					if(digit < 0)
+						throw new IOException("Malformed unicode escape");
+					code = code << 4 | digit;
+				}
+				return code;
+			case -1:
+				throw new IOException("Unexpected end of string");
+			default: // '"', '\\', '/'
+				return c;
+			}
+		}
+		
+		@Override
+		public void close() {
+			// the underlying reader is closed by its owner
+		}
+	}
+	
+	/**
+	 * Splits the text of the article into words and converts them into typeable chars.
+	 */
+	private static class ReaderTokenizer implements WordTokenizer {
+		
+		private final Reader prefix;
+		private final Reader text;
+		private final Reader source;
+		private final TypeableConverter converter;
+		private final StringBuilder word = new StringBuilder();
+		private boolean prefixRead;
+		
+		ReaderTokenizer(Reader prefix, Reader text, Reader source,
+				TypeableConverter converter) {
+			this.prefix = prefix;
+			this.text = text;
+			this.source = source;
+			this.converter = converter;
+		}
+		
+		@Override
+		public String next() {
+			word.setLength(0);
+			try {
+				int c;
+				while((c = read()) != -1) {
+					if(!isSeparator(c))
+						word.append((char) c);
+					else if(word.length() > 0)
+						break;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			if(word.length() == 0)
+				return null;
+			String converted = converter.convert(word.toString());
+			// A few chars are decomposed into spaces, e. g. the no-break space
+			return converted.trim().isEmpty() ? next() : converted.trim();
+		}
+		
+		private int read() throws IOException {
+			if(!prefixRead) {
+				int c = prefix.read();
+				if(c != -1)
+					return c;
+				prefixRead = true;
+			}
+			return text.read();
+		}
+		
+		private static boolean isSeparator(int c) {
+			return Character.isWhitespace(c) || Character.isSpaceChar(c);
+		}
+		
+		@Override
+		public void close() {
+			try {
+				source.close();
+			} catch (IOException e) {
+				// nothing left to release
+			}
+		}
+	}
+
+}
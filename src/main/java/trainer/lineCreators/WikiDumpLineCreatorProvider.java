@@ -0,0 +1,65 @@
+package trainer.lineCreators;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+
+import trainer.PerformanceStats;
+
+/**
+ * <p>Provides a {@link WikiDumpLineCreator} for a random article of a Wikipedia extract
+ * dump inside the texts directory of the user defined save directory.
+ * 
+ * <p>Parameters: <i>fileName</i>, the name of the dump, and optionally <i>countryID</i>,
+ * the country ID of the keyboard for the {@link TypeableConverter}. By default, the
+ * country of {@link install.Constants#defaultKeyboardLayout} is used.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class WikiDumpLineCreatorProvider implements LineCreatorProvider {
+	
+	@Override
+	public String description() {
+		return ResourceBundle.getBundle("txtBundles.lineCreatorText")
+				.getString("wikiDump");
+	}
+	
+	@Override
+	public LineCreator getLineCreator(String param, PerformanceStats ps) throws InitException {
+		return getLineCreator(param, ps, new SplittableRandom());
+	}
+	
+	@Override
+	public LineCreator getLineCreator(String param, PerformanceStats ps,
+			SplittableRandom random) throws InitException {
+		Map<String, String> paramMap = StringCode.decode(param);
+		String fileName = paramMap.get("fileName");
+		String countryID = paramMap.getOrDefault("countryID",
+				install.Constants.defaultKeyboardLayout.split("_")[0]);
+		Path dump = FileLineCreatorProvider.userFile(fileName);
+		try {
+			WikiDumpIndex index = WikiDumpIndex.open(dump);
+			if(index.size() == 0)
+				throw new InitException(InitException.Type.OTHER, "Empty dump: " + fileName);
+			return new WikiDumpLineCreator(dump, index, TypeableConverter.forCountry(countryID),
+					random);
+		}
+		catch (FileNotFoundException | NoSuchFileException e) {
+			throw new InitException(InitException.Type.MISSING_FILE, fileName);
+		}
+		catch (IOException e) {
+			throw new InitException(InitException.Type.OTHER, e.getMessage());
+		}
+	}
+	
+	@Override
+	public String shortParam(String param) {
+		return StringCode.decode(param).get("fileName");
+	}
+
+}
@@ -86,7 +86,7 @@ public class WikiLineCreator implements LineCreator {
 					}
 				}
 			}
-			TypeableConverter converter = new TypeableConverter(keyboardLayoutID);
+			TypeableConverter converter = TypeableConverter.forCountry(keyboardLayoutID);
 			String text = converter.convert(title + ": " + extract);
 			textLineCreator = new TextLineCreator(
 					new ByteArrayInputStream(text
@@ -0,0 +1,206 @@
+package trainer.lineCreators;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>The words of a word list, one word per line, sorted by their length and stored in
+ * primitive arrays.
+ * 
+ * <p>Because the words are sorted by length, the words that are not longer than a given
+ * length form a prefix of the sorted list. {@link #appendRandomWord(int, SplittableRandom,
+ * StringBuilder)} can therefore draw uniformly from all words that still fit into a line
+ * in constant time.
+ * 
+ * <p>Parsed word lists are cached with soft references. The cache entry of a file is
+ * replaced as soon as the modification time or the size of the file changes. A
+ * <tt>WordListIndex</tt> is immutable and can be shared between sessions.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class WordListIndex {
+	
+	private static final Map<Object, CacheEntry> cache = new ConcurrentHashMap<>();
+	
+	private static class CacheEntry {
+		final long lastModified;
+		final long size;
+		final SoftReference<WordListIndex> index;
+		
+		CacheEntry(long lastModified, long size, WordListIndex index) {
+			this.lastModified = lastModified;
+			this.size = size;
+			this.index = new SoftReference<>(index);
+		}
+		
+		WordListIndex get(long lastModified, long size) {
+			return lastModified == this.lastModified && size == this.size ? index.get() : null;
+		}
+	}
+	
+	private final char[] chars; // all words, sorted by length
+	private final int[] starts; // start of word i in chars; starts[size()] == chars.length
+	private final int[] countUpTo; // countUpTo[l]: number of words not longer than l
+	
+	private WordListIndex(ArrayList<String> words) {
+		words.sort(Comparator.comparingInt(String::length));
+		int maxLength = words.isEmpty() ? 0 : words.get(words.size()-1).length();
+		starts = new int[words.size()+1];
+		countUpTo = new int[maxLength+1];
+		int total = 0;
+		for(String word : words)
+			total += word.length();
+		chars = new char[total];
+		int pos = 0;
+		for(int i=0; i<words.size(); ++i) {
+			String word = words.get(i);
+			starts[i] = pos;
+			word.getChars(0, word.length(), chars, pos);
+			pos += word.length();
+			++countUpTo[word.length()];
+		}
+		starts[words.size()] = pos;
+		for(int l=1; l<=maxLength; ++l)
+			countUpTo[l] += countUpTo[l-1];
+	}
+	
+	/**
+	 * Parse a word list. Every non-empty line is a word; leading and trailing white space
+	 * is removed.
+	 * @param is the word list in the project charset. Will not be closed.
+	 * @return the index
+	 * @throws IOException if the word list could not be read
+	 */
+	public static WordListIndex parse(InputStream is) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(is,
+				persistence.Constants.PROJECT_CHARSET));
+		ArrayList<String> words = new ArrayList<>();
+		String line;
+		while((line = reader.readLine()) != null) {
+			line = line.trim();
+			if(!line.isEmpty())
+				words.add(line);
+		}
+		return new WordListIndex(words);
+	}
+	
+	/**
+	 * Get the index of a word list file. The file is only parsed if it has not been
+	 * parsed before or if it has changed since.
+	 * @param file the word list file
+	 * @return the index
+	 * @throws IOException if the file could not be read
+	 */
+	public static WordListIndex ofFile(Path file) throws IOException {
+		Path key = file.toAbsolutePath().normalize();
+		BasicFileAttributes attrs = Files.readAttributes(key, BasicFileAttributes.class);
+		long lastModified = attrs.lastModifiedTime().toMillis();
+		CacheEntry entry = cache.get(key);
+		WordListIndex index = entry == null ? null : entry.get(lastModified, attrs.size());
+		if(index == null) {
+			try(InputStream is = Files.newInputStream(key)) {
+				index = parse(is);
+			}
+			cache.put(key, new CacheEntry(lastModified, attrs.size(), index));
+		}
+		return index;
+	}
+	
+	/**
+	 * Get the index of a word list that is a resource of the class path. Resources do not
+	 * change while the application is running, so they are parsed only once.
+	 * @param name the name of the resource
+	 * @return the index
+	 * @throws FileNotFoundException if the resource does not exist
+	 * @throws IOException if the resource could not be read
+	 */
+	public static WordListIndex ofResource(String name) throws IOException {
+		String key = "resource:" + name;
+		CacheEntry entry = cache.get(key);
+		WordListIndex index = entry == null ? null : entry.get(0, 0);
+		if(index == null) {
+			try(InputStream is = WordListIndex.class.getClassLoader().getResourceAsStream(name)) {
+				if(is == null)
+					throw new FileNotFoundException(name);
+				index = parse(is);
+			}
+			cache.put(key, new CacheEntry(0, 0, index));
+		}
+		return index;
+	}
+	
+	/**
+	 * Get the number of words.
+	 * @return the number of words
+	 */
+	public int size() {
+		return starts.length-1;
+	}
+	
+	/**
+	 * Get the length of the shortest word.
+	 * @return the length, 0 if there are no words
+	 */
+	public int getMinLength() {
+		return size() == 0 ? 0 : starts[1]-starts[0];
+	}
+	
+	/**
+	 * Get the length of the longest word.
+	 * @return the length, 0 if there are no words
+	 */
+	public int getMaxLength() {
+		return countUpTo.length-1;
+	}
+	
+	/**
+	 * Get the number of words that are not longer than a given length.
+	 * @param length the length
+	 * @return the number of words
+	 */
+	public int countUpTo(int length) {
+		if(length < 0)
+			return 0;
+		return countUpTo[Math.min(length, countUpTo.length-1)];
+	}
+	
+	/**
+	 * Get a word.
+	 * @param i the index of the word within the words sorted by length
+	 * @return the word
+	 */
+	public String getWord(int i) {
+		return new String(chars, starts[i], starts[i+1]-starts[i]);
+	}
+	
+	/**
+	 * Append a word that is drawn uniformly from all words not longer than a given length.
+	 * @param maxLength the maximum length of the word
+	 * @param random the source of randomness
+	 * @param sb the StringBuilder to which the word is appended
+	 * @return the length of the appended word, 0 if no word is short enough
+	 */
+	public int appendRandomWord(int maxLength, SplittableRandom random, StringBuilder sb) {
+		int n = countUpTo(maxLength);
+		if(n == 0)
+			return 0;
+		int i = random.nextInt(n);
+		int length = starts[i+1]-starts[i];
+		sb.append(chars, starts[i], length);
+		return length;
+	}
+
+}
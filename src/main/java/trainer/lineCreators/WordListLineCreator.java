@@ -1,38 +1,52 @@
 package trainer.lineCreators;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.SplittableRandom;
 
+/**
+ * Creates lines of random words of a word list. Every line is filled up to the maximum
+ * length with words that still fit into it.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
 public class WordListLineCreator implements LineCreator {
 	
-	private String[] wordList;
-	private Random random = new Random();
+	private final WordListIndex index;
+	private final SplittableRandom random;
 	
 	WordListLineCreator(InputStream is) throws IOException {
-		try(BufferedReader reader = new BufferedReader(new InputStreamReader(is, 
-				persistence.Constants.PROJECT_CHARSET))) {
-			wordList = reader.lines().collect(Collectors.toList()).toArray(new String[0]);
-		}
+		this(WordListIndex.parse(is), new SplittableRandom());
+	}
+	
+	/**
+	 * Construct a WordListLineCreator.
+	 * @param index the words
+	 * @param random the random number generator
+	 */
+	WordListLineCreator(WordListIndex index, SplittableRandom random) {
+		if(index.size() == 0)
+			throw new IllegalArgumentException("Empty word list");
+		this.index = index;
+		this.random = random;
 	}
 
 	@Override
 	public String create(int length) {
 		StringBuilder sb = new StringBuilder(length+1);
-		String word;
-		while(length > 0) {
-			word = wordList[random.nextInt(wordList.length)];
-			if(word.length() > length)
-				break;
-			sb.append(word);
+		int appended = index.appendRandomWord(length, random, sb);
+		if(appended == 0) {
+			// no word fits into a line: break the shortest one
+			sb.append(index.getWord(0), 0, length);
+			appended = length;
+		}
+		length -= appended;
+		// every further word needs a space in front
+		while(length > index.getMinLength()) {
 			sb.append(' ');
-			length -= word.length()+1;
+			length -= index.appendRandomWord(length-1, random, sb)+1;
 		}
-		//delete last space before line break
-		sb.setLength(sb.length()-1);
 		//append a newline character
 		sb.append('\n');
 		return sb.toString();
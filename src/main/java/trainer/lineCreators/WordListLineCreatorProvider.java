@@ -1,9 +1,14 @@
 package trainer.lineCreators;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
 import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.SplittableRandom;
+
+import trainer.PerformanceStats;
 
 
 public class WordListLineCreatorProvider extends FileLineCreatorProvider {
@@ -19,6 +24,39 @@ public class WordListLineCreatorProvider extends FileLineCreatorProvider {
 		return new WordListLineCreator(is);
 	}
 	
+	@Override
+	public LineCreator getLineCreator(String param, PerformanceStats ps) throws InitException {
+		return getLineCreator(param, ps, new SplittableRandom());
+	}
+	
+	/**
+	 * Provides a <tt>WordListLineCreator</tt> whose word list has been parsed by an earlier
+	 * session, if the file has not changed since.
+	 * @see WordListIndex
+	 */
+	@Override
+	public LineCreator getLineCreator(String param, PerformanceStats ps,
+			SplittableRandom random) throws InitException {
+		Map<String, String> paramMap = StringCode.decode(param);
+		String fileName = paramMap.get("fileName");
+		WordListIndex index;
+		try {
+			if(Boolean.parseBoolean(paramMap.get("isLocal")))
+				index = WordListIndex.ofResource("exerciseTxt/" + fileName);
+			else
+				index = WordListIndex.ofFile(userFile(fileName));
+		}
+		catch (FileNotFoundException | NoSuchFileException e) {
+			throw new InitException(InitException.Type.MISSING_FILE, fileName);
+		}
+		catch (IOException e) {
+			throw new InitException(InitException.Type.OTHER, e.getMessage());
+		}
+		if(index.size() == 0)
+			throw new InitException(InitException.Type.OTHER, "Empty word list: " + fileName);
+		return new WordListLineCreator(index, random);
+	}
+	
 	@Override
 	public String shortParam(String param) {
 		Map<String, String> paramMap = StringCode.decode(param);
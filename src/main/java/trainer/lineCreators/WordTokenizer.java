@@ -0,0 +1,41 @@
+package trainer.lineCreators;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * A source of the words of a text, i. e. of the tokens between white space.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+interface WordTokenizer extends Closeable {
+	
+	/**
+	 * Get the next word.
+	 * @return the next word, or <code>null</code> at the end of the text
+	 * @throws UncheckedIOException if the text could not be read
+	 */
+	String next();
+	
+	/**
+	 * Get the byte offset of the last word returned by {@link #next()}.
+	 * @return the offset, -1 if unknown
+	 */
+	default long getWordStart() {return -1;}
+	
+	/**
+	 * Continue at the first word that begins at or after a byte offset.
+	 * @param offset the offset
+	 * @return false if the tokenizer does not support random access. It is unchanged then.
+	 * @throws UncheckedIOException if the text could not be read
+	 */
+	default boolean seek(long offset) {return false;}
+	
+	/**
+	 * Release the underlying resources.
+	 */
+	@Override
+	void close();
+
+}
@@ -0,0 +1,90 @@
+package trainer.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * <p>A typist with a confusion matrix: the probability to type a certain wrong char
+ * depends on the expected char, e. g. to simulate typing the neighbouring key. Every
+ * char may also have its own latency distribution.
+ * 
+ * <p>The matrix must be completely set up before the simulation starts.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class ConfusionTypist implements TypistModel {
+	
+	private static class Row {
+		char[] typed = new char[0];
+		double[] cumulative = new double[0]; // cumulative probabilities of typed
+	}
+	
+	private final Map<Character, Row> rows = new HashMap<>();
+	private final Map<Character, LatencyDistribution> latencies = new HashMap<>();
+	private final LatencyDistribution defaultLatency;
+	
+	/**
+	 * Construct a ConfusionTypist that makes no errors.
+	 * @param defaultLatency the distribution of the time between keystrokes for chars
+	 * without their own distribution
+	 */
+	public ConfusionTypist(LatencyDistribution defaultLatency) {
+		this.defaultLatency = defaultLatency;
+	}
+	
+	/**
+	 * Set the probability to type a wrong char.
+	 * @param expected the char that should be typed
+	 * @param typed the wrong char that is typed instead
+	 * @param probability the probability. The sum of the probabilities of all wrong chars
+	 * of <code>expected</code> must not exceed 1.
+	 */
+	public void setConfusion(char expected, char typed, double probability) {
+		if(expected == typed)
+			throw new IllegalArgumentException("A confusion needs a wrong char");
+		Row row = rows.computeIfAbsent(expected, c -> new Row());
+		int n = row.typed.length;
+		double before = n == 0 ? 0 : row.cumulative[n-1];
+		char[] newTyped = new char[n+1];
+		double[] newCumulative = new double[n+1];
+		System.arraycopy(row.typed, 0, newTyped, 0, n);
+		System.arraycopy(row.cumulative, 0, newCumulative, 0, n);
+		newTyped[n] = typed;
+		newCumulative[n] = before + probability;
+		if(newCumulative[n] > 1)
+			throw new IllegalArgumentException("Error probability of '" + expected
+					+ "' exceeds 1");
+		row.typed = newTyped;
+		row.cumulative = newCumulative;
+	}
+	
+	/**
+	 * Set the latency distribution of a char.
+	 * @param expected the char
+	 * @param latency the distribution of the time needed to type the char
+	 */
+	public void setLatency(char expected, LatencyDistribution latency) {
+		latencies.put(expected, latency);
+	}
+
+	@Override
+	public long latency(char expected, SplittableRandom random) {
+		return latencies.getOrDefault(expected, defaultLatency).next(random);
+	}
+
+	@Override
+	public char type(char expected, SplittableRandom random) {
+		Row row = rows.get(expected);
+		if(row == null)
+			return expected;
+		double r = random.nextDouble();
+		for(int i=0; i<row.typed.length; ++i) {
+			if(r < row.cumulative[i])
+				return row.typed[i];
+		}
+		return expected;
+	}
+
+}
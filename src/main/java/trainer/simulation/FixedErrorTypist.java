@@ -0,0 +1,51 @@
+package trainer.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * A typist who types every char wrongly with the same probability. A wrong char is drawn
+ * uniformly from a set of chars.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class FixedErrorTypist implements TypistModel {
+	
+	private final double errorRate;
+	private final String wrongChars;
+	private final LatencyDistribution latency;
+	
+	/**
+	 * Construct a FixedErrorTypist.
+	 * @param errorRate the probability of a wrong keystroke, between 0 and 1
+	 * @param wrongChars the chars that are typed by mistake. If the expected char is drawn,
+	 * another one is drawn instead.
+	 * @param latency the distribution of the time between keystrokes
+	 */
+	public FixedErrorTypist(double errorRate, String wrongChars, LatencyDistribution latency) {
+		if(errorRate < 0 || errorRate > 1)
+			throw new IllegalArgumentException("errorRate must be between 0 and 1");
+		if(errorRate > 0 && wrongChars.chars().distinct().count() < 2)
+			throw new IllegalArgumentException("At least two different wrong chars needed");
+		this.errorRate = errorRate;
+		this.wrongChars = wrongChars;
+		this.latency = latency;
+	}
+
+	@Override
+	public long latency(char expected, SplittableRandom random) {
+		return latency.next(random);
+	}
+
+	@Override
+	public char type(char expected, SplittableRandom random) {
+		if(errorRate == 0 || random.nextDouble() >= errorRate)
+			return expected;
+		char c;
+		do {
+			c = wrongChars.charAt(random.nextInt(wrongChars.length()));
+		} while(c == expected);
+		return c;
+	}
+
+}
@@ -0,0 +1,70 @@
+package trainer.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * The distribution of the time between two keystrokes of a {@link TypistModel}.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+	
+	/**
+	 * Draw a latency.
+	 * @param random the source of randomness
+	 * @return the latency in nanoseconds, not negative
+	 */
+	long next(SplittableRandom random);
+	
+	/**
+	 * Get a distribution that always returns the same latency.
+	 * @param millis the latency in milliseconds
+	 * @return the distribution
+	 */
+	static LatencyDistribution constant(double millis) {
+		long nanos = (long) (millis*1e6);
+		return random -> nanos;
+	}
+	
+	/**
+	 * Get a uniform distribution.
+	 * @param minMillis the smallest latency in milliseconds
+	 * @param maxMillis the largest latency in milliseconds
+	 * @return the distribution
+	 */
+	static LatencyDistribution uniform(double minMillis, double maxMillis) {
+		double min = minMillis*1e6;
+		double range = (maxMillis-minMillis)*1e6;
+		return random -> (long) (min + random.nextDouble()*range);
+	}
+	
+	/**
+	 * Get a log-normal distribution, which is right-skewed like the latencies of human
+	 * typists.
+	 * @param medianMillis the median latency in milliseconds
+	 * @param sigma the standard deviation of the logarithm of the latency
+	 * @return the distribution
+	 */
+	static LatencyDistribution logNormal(double medianMillis, double sigma) {
+		double mu = Math.log(medianMillis*1e6);
+		return random -> (long) Math.exp(mu + sigma*gaussian(random));
+	}
+	
+	/**
+	 * Draw from the standard normal distribution (Marsaglia polar method).
+	 * @param random the source of randomness
+	 * @return the value
+	 */
+	static double gaussian(SplittableRandom random) {
+		double v1, v2, s;
+		do {
+			v1 = 2*random.nextDouble() - 1;
+			v2 = 2*random.nextDouble() - 1;
+			s = v1*v1 + v2*v2;
+		} while(s >= 1 || s == 0);
+		return v1*Math.sqrt(-2*Math.log(s)/s);
+	}
+
+}
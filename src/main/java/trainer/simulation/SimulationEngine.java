@@ -0,0 +1,197 @@
+package trainer.simulation;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import persistence.NullSessionPersist;
+import trainer.Exercise;
+import trainer.LineMonitor;
+import trainer.PracticeController;
+import trainer.lineCreators.InitException;
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+/**
+ * <p>Runs practice sessions without a GUI, typed by a synthetic {@link TypistModel}.
+ * 
+ * <p>Every session gets its own {@link PracticeController} with a {@link VirtualClock},
+ * so that a session takes only as long as the computation of its keystrokes, and time
+ * limits of exercises are met exactly. Sessions are not saved to the database. They run in
+ * parallel in a <tt>ForkJoinPool</tt>. The result of a run only depends on its seed,
+ * regardless of the parallelism.
+ * 
+ * <p>Usage, e. g. to tune adaptive <tt>LineCreator</tt>s:
+ * <pre>
+ * SimulationEngine engine = new SimulationEngine(exercise, 60,
+ *     new FixedErrorTypist(0.05, "asdfjklö", LatencyDistribution.logNormal(180, 0.4)));
+ * engine.setSessionObserver((seed, pc) -&gt; ...);
+ * SimulationResult result = engine.run(10000, 42);
+ * </pre>
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class SimulationEngine {
+	
+	/**
+	 * The default maximum number of keystrokes of a session.
+	 */
+	public static final int DEFAULT_MAX_KEYSTROKES = 100_000;
+	
+	/**
+	 * Is notified about every finished session.
+	 */
+	@FunctionalInterface
+	public interface SessionObserver {
+		/**
+		 * Called after a session has stopped. Called concurrently by the threads of the
+		 * simulation.
+		 * @param seed the seed of the session
+		 * @param pc the stopped <tt>PracticeController</tt> of the session
+		 */
+		void sessionFinished(long seed, PracticeController pc);
+	}
+	
+	private static final NullSessionPersist nullSessionPersist = new NullSessionPersist();
+	
+	private final Exercise exercise;
+	private final int maxLineLength;
+	private final TypistModel typist;
+	private int maxKeystrokes = DEFAULT_MAX_KEYSTROKES;
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private SessionObserver sessionObserver = (seed, pc) -> {};
+	
+	/**
+	 * Construct a SimulationEngine.
+	 * @param exercise the exercise of all sessions. Its id is not used.
+	 * @param maxLineLength the maximum length of a line
+	 * @param typist the typist of all sessions
+	 */
+	public SimulationEngine(Exercise exercise, int maxLineLength, TypistModel typist) {
+		// PracticeController needs an id, which does not need to exist in the database
+		this.exercise = new Exercise(0, exercise.getName(), exercise.getExerciseGroup(),
+				exercise.getLineCreatorType(), exercise.getParam(), exercise.getLimitType(),
+				exercise.getLimitUnits());
+		this.maxLineLength = maxLineLength;
+		this.typist = typist;
+	}
+	
+	/**
+	 * Set the maximum number of keystrokes of a session. Sessions whose exercise has not
+	 * ended by then are stopped like by the user.
+	 * @param maxKeystrokes the maximum number of keystrokes
+	 */
+	public void setMaxKeystrokes(int maxKeystrokes) {
+		if(maxKeystrokes < 1)
+			throw new IllegalArgumentException("maxKeystrokes must be positive");
+		this.maxKeystrokes = maxKeystrokes;
+	}
+	
+	/**
+	 * Set the number of threads that run sessions.
+	 * @param parallelism the number of threads, by default the number of processors
+	 */
+	public void setParallelism(int parallelism) {
+		if(parallelism < 1)
+			throw new IllegalArgumentException("parallelism must be positive");
+		this.parallelism = parallelism;
+	}
+	
+	public void setSessionObserver(SessionObserver sessionObserver) {
+		this.sessionObserver = sessionObserver;
+	}
+	
+	/**
+	 * Run sessions and wait until all have finished.
+	 * @param sessions the number of sessions
+	 * @param seed the seed from which the seeds of the sessions are derived
+	 * @return the aggregate result
+	 * @throws ImplementationNotFound if the LineCreator type of the exercise does not exist
+	 * @throws InitException if the LineCreator could not be initialized
+	 */
+	public SimulationResult run(int sessions, long seed)
+			throws ImplementationNotFound, InitException {
+		// Fail early with the checked exceptions instead of within the pool
+		new PracticeController(exercise, maxLineLength, seed, new VirtualClock()).userStop();
+		long[] seeds = new long[sessions];
+		SplittableRandom random = new SplittableRandom(seed);
+		for(int i=0; i<sessions; ++i)
+			seeds[i] = random.nextLong();
+		long start = System.nanoTime();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		SimulationResult result;
+		try {
+			result = pool.invoke(new SessionsTask(seeds, 0, sessions));
+		}
+		finally {
+			pool.shutdown();
+		}
+		result.setElapsedNanos(System.nanoTime() - start);
+		return result;
+	}
+	
+	@SuppressWarnings("serial")
+	private class SessionsTask extends RecursiveTask<SimulationResult> {
+		
+		private final long[] seeds;
+		private final int from;
+		private final int to;
+		
+		SessionsTask(long[] seeds, int from, int to) {
+			this.seeds = seeds;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected SimulationResult compute() {
+			if(to-from <= 1) {
+				SimulationResult result = new SimulationResult();
+				if(to > from)
+					runSession(seeds[from], result);
+				return result;
+			}
+			int middle = (from+to) >>> 1;
+			SessionsTask left = new SessionsTask(seeds, from, middle);
+			left.fork();
+			SimulationResult result = new SessionsTask(seeds, middle, to).compute();
+			result.add(left.join());
+			return result;
+		}
+	}
+	
+	private void runSession(long seed, SimulationResult result) {
+		VirtualClock clock = new VirtualClock();
+		SplittableRandom random = new SplittableRandom(seed);
+		PracticeController pc;
+		try {
+			pc = new PracticeController(exercise, maxLineLength, random.nextLong(), clock);
+		} catch (ImplementationNotFound | InitException e) {
+			throw new IllegalStateException(e); // has succeeded in run() before
+		}
+		pc.setSessionPersist(nullSessionPersist);
+		pc.setLookAhead(0); // the sessions are already parallel
+		LineMonitor lineMonitor = pc.getLineMonitor();
+		pc.ready();
+		pc.run();
+		long keystrokes = 0;
+		while(pc.getState() == PracticeController.State.RUNNING) {
+			char expected = lineMonitor.getCurrentChar();
+			if(keystrokes == maxKeystrokes || expected == '\0') {
+				pc.userStop();
+				break;
+			}
+			clock.advance(typist.latency(expected, random));
+			if(pc.getState() != PracticeController.State.RUNNING)
+				break; // time limit
+			lineMonitor.advanceIfCorrect(typist.type(expected, random));
+			++keystrokes;
+		}
+		result.addSession(pc.getState() == PracticeController.State.REG_STOPPED, keystrokes,
+				pc.getPerformanceStats().getTotalPerformanceRate().getHits(),
+				pc.getPerformanceStats().getTotalPerformanceRate().getErrors(),
+				pc.getRequiredTime());
+		sessionObserver.sessionFinished(seed, pc);
+	}
+
+}
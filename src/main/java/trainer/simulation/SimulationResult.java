@@ -0,0 +1,122 @@
+package trainer.simulation;
+
+/**
+ * The aggregate result of the sessions of a {@link SimulationEngine} run.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class SimulationResult {
+	
+	private int sessions;
+	private int regStopped;
+	private long keystrokes;
+	private long hits;
+	private long errors;
+	private long requiredTime;
+	private long elapsedNanos;
+	
+	SimulationResult() {}
+	
+	void addSession(boolean regStopped, long keystrokes, int hits, int errors,
+			long requiredTime) {
+		++sessions;
+		if(regStopped)
+			++this.regStopped;
+		this.keystrokes += keystrokes;
+		this.hits += hits;
+		this.errors += errors;
+		this.requiredTime += requiredTime;
+	}
+	
+	void add(SimulationResult other) {
+		sessions += other.sessions;
+		regStopped += other.regStopped;
+		keystrokes += other.keystrokes;
+		hits += other.hits;
+		errors += other.errors;
+		requiredTime += other.requiredTime;
+	}
+	
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	/**
+	 * Get the number of simulated sessions.
+	 * @return the number of sessions
+	 */
+	public int getSessions() {
+		return sessions;
+	}
+	
+	/**
+	 * Get the number of sessions that reached the limit of their exercise. The other
+	 * sessions have been stopped after the maximum number of keystrokes.
+	 * @return the number of regularly stopped sessions
+	 */
+	public int getRegStoppedSessions() {
+		return regStopped;
+	}
+	
+	public long getKeystrokes() {
+		return keystrokes;
+	}
+	
+	public long getHits() {
+		return hits;
+	}
+	
+	public long getErrors() {
+		return errors;
+	}
+	
+	/**
+	 * Get the error rate over all sessions.
+	 * @return the error rate, 0 if nothing has been typed
+	 */
+	public double getErrorRate() {
+		return keystrokes == 0 ? 0 : (double) errors/(hits+errors);
+	}
+	
+	/**
+	 * Get the mean simulated duration of a session.
+	 * @return the duration in milliseconds of virtual time
+	 */
+	public double getMeanRequiredTime() {
+		return sessions == 0 ? 0 : (double) requiredTime/sessions;
+	}
+	
+	/**
+	 * Get the wall-clock time of the simulation.
+	 * @return the time in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	/**
+	 * Get the throughput of the simulation.
+	 * @return the number of simulated sessions per second of wall-clock time
+	 */
+	public double getSessionsPerSecond() {
+		return elapsedNanos == 0 ? 0 : sessions*1e9/elapsedNanos;
+	}
+	
+	/**
+	 * Get the throughput of the simulation.
+	 * @return the number of simulated keystrokes per second of wall-clock time
+	 */
+	public double getKeystrokesPerSecond() {
+		return elapsedNanos == 0 ? 0 : keystrokes*1e9/elapsedNanos;
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%d sessions (%d regularly stopped), %d keystrokes, "
+				+ "error rate %.4f, %.0f sessions/s, %.0f keystrokes/s",
+				sessions, regStopped, keystrokes, getErrorRate(), getSessionsPerSecond(),
+				getKeystrokesPerSecond());
+	}
+
+}
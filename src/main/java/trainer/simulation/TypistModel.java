@@ -0,0 +1,38 @@
+package trainer.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * <p>A synthetic typist that is driven by the {@link SimulationEngine}.
+ * 
+ * <p>For every keystroke, the engine first lets the time of {@link #latency(char,
+ * SplittableRandom) latency} pass and then types the char that is returned by
+ * {@link #type(char, SplittableRandom) type}. After a wrong char, the same char is
+ * expected again.
+ * 
+ * <p>Implementations must be thread-safe, because the sessions of a simulation run in
+ * parallel. All randomness has to come from the passed random number generator, which
+ * belongs to a single session.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public interface TypistModel {
+	
+	/**
+	 * Get the time the typist needs to type the next char.
+	 * @param expected the char that should be typed
+	 * @param random the random number generator of the session
+	 * @return the time in nanoseconds
+	 */
+	long latency(char expected, SplittableRandom random);
+	
+	/**
+	 * Get the char the typist types.
+	 * @param expected the char that should be typed
+	 * @param random the random number generator of the session
+	 * @return the typed char, <code>expected</code> if the keystroke is correct
+	 */
+	char type(char expected, SplittableRandom random);
+
+}
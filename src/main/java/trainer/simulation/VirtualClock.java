@@ -0,0 +1,98 @@
+package trainer.simulation;
+
+import java.util.ArrayList;
+
+import trainer.PracticeClock;
+import trainer.SimpleTimerInterface;
+
+/**
+ * <p>A <tt>PracticeClock</tt> whose time only passes by calls to {@link #advance(long)}.
+ * Timers are called synchronously by <tt>advance</tt> as soon as their delay has passed.
+ * 
+ * <p>A <tt>VirtualClock</tt> is not thread-safe. Every simulated session needs its own.
+ * 
+ * @author Lasse Osterhagen
+ *
+ */
+public class VirtualClock implements PracticeClock {
+	
+	private static final long NANOS_PER_MILLI = 1_000_000;
+	
+	private final long startMillis;
+	private long nanos;
+	private final ArrayList<VirtualTimer> timers = new ArrayList<>();
+	
+	/**
+	 * Construct a VirtualClock that starts at the time 0.
+	 */
+	public VirtualClock() {
+		this(0);
+	}
+	
+	/**
+	 * Construct a VirtualClock.
+	 * @param startMillis the start time in milliseconds
+	 */
+	public VirtualClock(long startMillis) {
+		this.startMillis = startMillis;
+	}
+	
+	/**
+	 * Let time pass and call all timers that are due.
+	 * @param nanos the time in nanoseconds
+	 */
+	public void advance(long nanos) {
+		if(nanos < 0)
+			throw new IllegalArgumentException("Time must not go backwards");
+		this.nanos += nanos;
+		for(int i=0; i<timers.size(); ++i) {
+			VirtualTimer timer = timers.get(i);
+			if(timer.running && timer.deadline <= this.nanos) {
+				timer.running = false;
+				timer.action.run(); // may start or stop other timers
+			}
+		}
+	}
+
+	@Override
+	public long currentTimeMillis() {
+		return startMillis + nanos/NANOS_PER_MILLI;
+	}
+
+	@Override
+	public long nanoTime() {
+		return nanos;
+	}
+
+	@Override
+	public SimpleTimerInterface createTimer(int delay, Runnable action) {
+		VirtualTimer timer = new VirtualTimer(delay*NANOS_PER_MILLI, action);
+		timers.add(timer);
+		return timer;
+	}
+	
+	private class VirtualTimer implements SimpleTimerInterface {
+		
+		private final long delay;
+		private final Runnable action;
+		private long deadline;
+		private boolean running;
+		
+		VirtualTimer(long delay, Runnable action) {
+			this.delay = delay;
+			this.action = action;
+		}
+
+		@Override
+		public void start() {
+			deadline = nanos + delay;
+			running = true;
+		}
+
+		@Override
+		public void stop() {
+			running = false;
+		}
+	}
+
+}
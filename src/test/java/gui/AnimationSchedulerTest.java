@@ -0,0 +1,80 @@
+package gui;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnimationSchedulerTest {
+
+	private static final long MILLI = 1_000_000L;
+
+	private long now;
+	private AnimationScheduler scheduler;
+	private List<Integer> expired = new ArrayList<>();
+	private AnimationScheduler.Expiry target = expired::add;
+
+	@Before
+	public void setUp() {
+		// The timer never fires during the test; ticks are triggered manually
+		scheduler = new AnimationScheduler(Integer.MAX_VALUE, () -> now);
+	}
+
+	@Test
+	public void testExpiry() {
+		scheduler.schedule(target, 1, 100);
+		scheduler.schedule(target, 2, 50);
+		scheduler.schedule(target, 3, 100);
+		now = 49*MILLI;
+		scheduler.tick();
+		assertTrue(expired.isEmpty());
+		now = 50*MILLI;
+		scheduler.tick();
+		assertEquals(2, (int) expired.get(0));
+		assertEquals(2, scheduler.getPendingCount());
+		now = 120*MILLI;
+		scheduler.tick();
+		// In the order of scheduling
+		assertEquals(3, expired.size());
+		assertEquals(1, (int) expired.get(1));
+		assertEquals(3, (int) expired.get(2));
+		assertEquals(0, scheduler.getPendingCount());
+	}
+
+	@Test
+	public void testGrowAndReschedule() {
+		AnimationScheduler.Expiry again = tag -> {
+			expired.add(tag);
+			if(tag < 1000)
+				scheduler.schedule(target, tag+1000, 10);
+		};
+		for(int i=0; i<100; ++i)
+			scheduler.schedule(again, i, i);
+		now = 99*MILLI;
+		scheduler.tick();
+		assertEquals(100, expired.size());
+		assertEquals(100, scheduler.getPendingCount());
+		now = 200*MILLI;
+		scheduler.tick();
+		assertEquals(200, expired.size());
+		assertEquals(1099, (int) expired.get(199));
+	}
+
+	@Test
+	public void testCancel() {
+		AnimationScheduler.Expiry other = tag -> fail();
+		scheduler.schedule(target, 1, 10);
+		scheduler.schedule(other, 2, 10);
+		scheduler.schedule(target, 3, 10);
+		scheduler.cancel(other);
+		assertEquals(2, scheduler.getPendingCount());
+		now = 10*MILLI;
+		scheduler.tick();
+		assertEquals(2, expired.size());
+		assertEquals(3, (int) expired.get(1));
+	}
+
+}
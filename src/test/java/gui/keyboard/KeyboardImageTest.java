@@ -0,0 +1,76 @@
+package gui.keyboard;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gui.keyboard.KeyboardImage.Color;
+import gui.keyboard.KeyMapper.NotInKeySetException;
+
+public class KeyboardImageTest {
+	
+	private KeyboardImage image;
+	private KeyMapper keyMapper = new KeyMapper("DE_qw");
+	private Coordinates b, shift;
+	
+	@Before
+	public void setUp() throws NotInKeySetException {
+		image = new KeyboardImage("DE_qw", Color.BLACK_WHITE, Color.GREEN, Color.YELLOW,
+				Color.RED);
+		Coordinates[] co = keyMapper.getCoordinatesFor('B');
+		b = co[0];
+		shift = co[1];
+	}
+	
+	@Test
+	public void testColorStack() {
+		assertNull(image.getKeyColor(b));
+		image.colorKey('b', Color.YELLOW);
+		image.colorKey('B', Color.GREEN);
+		assertEquals(Color.GREEN, image.getKeyColor(b));
+		assertEquals(Color.GREEN, image.getKeyColor(shift));
+		image.removeKeyColor('B', Color.GREEN);
+		assertEquals(Color.YELLOW, image.getKeyColor(b));
+		assertNull(image.getKeyColor(shift));
+		// The color that has been applied first is removed
+		image.colorKey('b', Color.RED);
+		image.colorKey('b', Color.YELLOW);
+		image.removeKeyColor('b', Color.YELLOW);
+		assertEquals(Color.YELLOW, image.getKeyColor(b));
+		image.decolorAll();
+		assertNull(image.getKeyColor(b));
+	}
+	
+	@Test
+	public void testRemoveUncolored() {
+		image.removeKeyColor('b', Color.RED);
+		assertNull(image.getKeyColor(b));
+	}
+	
+	@Test
+	public void testPaint() {
+		BufferedImage plain = paint();
+		image.colorKey('b', Color.RED);
+		BufferedImage red = paint();
+		int x = (b.x1+b.x2)/2, y = (b.y1+b.y2)/2;
+		assertNotEquals(plain.getRGB(x, y), red.getRGB(x, y));
+		// Other keys stay unchanged
+		assertEquals(plain.getRGB(shift.x1+2, shift.y1+2), red.getRGB(shift.x1+2, shift.y1+2));
+		image.removeKeyColor('b', Color.RED);
+		assertEquals(plain.getRGB(x, y), paint().getRGB(x, y));
+	}
+	
+	private BufferedImage paint() {
+		BufferedImage bi = new BufferedImage(image.getPreferredSize().width,
+				image.getPreferredSize().height, BufferedImage.TYPE_INT_RGB);
+		Graphics g = bi.createGraphics();
+		image.paint(g);
+		g.dispose();
+		return bi;
+	}
+
+}
@@ -0,0 +1,66 @@
+package gui.keyboard;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class KeyboardModelTest {
+	
+	private static final KeyboardModel model = KeyboardModel.forLayout("DE_qw");
+	
+	@Test
+	public void testShared() {
+		assertSame(model, KeyboardModel.forLayout("DE_qw"));
+		assertSame(model.get('B'), model.get('B'));
+	}
+	
+	@Test
+	public void testKeys() {
+		assertEquals(new Coordinates(355, 170, 409, 224), model.get('b')[0]);
+		assertEquals(1, model.get('b').length);
+		assertEquals(2, model.get('B').length);
+		assertEquals(model.get('b')[0], model.get('B')[0]);
+		assertEquals(new Coordinates(223, 227, 553, 281), model.get(' ')[0]);
+		assertEquals(new Coordinates(0, 170, 70, 224), model.getLShift()[0]);
+		assertNull(model.get('\u00e6'));
+		assertNull(model.get('\uffff'));
+	}
+	
+	@Test
+	public void testKeyIds() {
+		assertEquals(model.get('b')[0].id, model.get('B')[0].id);
+		assertNotEquals(model.get('b')[0].id, model.get('B')[1].id);
+		assertSame(model.get('b')[0], model.getKey(model.get('b')[0].id));
+		assertTrue(model.getKeyCount() > 40);
+	}
+	
+	@Test
+	public void testBinaryForm() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		model.write(out);
+		KeyboardModel read = KeyboardModel.read(new ByteArrayInputStream(out.toByteArray()));
+		for(int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; ++c)
+			assertTrue(Integer.toHexString(c),
+					Arrays.equals(model.get((char) c), read.get((char) c)));
+		assertArrayEquals(model.getLShift(), read.getLShift());
+		assertArrayEquals(model.getRShift(), read.getRShift());
+		assertArrayEquals(model.getLCtrl(), read.getLCtrl());
+		assertArrayEquals(model.getRCtrl(), read.getRCtrl());
+		assertArrayEquals(model.getAlt(), read.getAlt());
+		assertArrayEquals(model.getAltGr(), read.getAltGr());
+	}
+	
+	@Test(expected = IOException.class)
+	public void testMalformedBinaryForm() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		model.write(out);
+		byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size()/2);
+		KeyboardModel.read(new ByteArrayInputStream(bytes));
+	}
+
+}
@@ -3,6 +3,11 @@ package persistence;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -12,6 +17,8 @@ import trainer.DefaultObjectFactory;
 import trainer.Exercise;
 import trainer.ExerciseGroup;
 import trainer.PerformanceRate;
+import trainer.PerformanceStats;
+import trainer.lineCreators.Bookmark;
 
 /**
  * Tests {@link persistence.ExerciseCRUD}, {@link persistence.ExerciseGroupCRUD}, and
@@ -85,6 +92,142 @@ public class CRUDTest {
 		assertEquals(sessions.get(1).getPerformanceRate(), pr1);
 	}
 	
+	@Test
+	public void testSessionResults() throws InterruptedException {
+		Exercise e = createNewExercise();
+		SessionPersist sp = new SessionPersist();
+		PerformanceStats ps1 = new PerformanceStats();
+		ps1.addHit('a');
+		ps1.addHit('a');
+		ps1.addError('b');
+		ps1.addHit(' ');
+		sp.saveSession2DB(e.getId(), ps1, 1000);
+		Thread.sleep(1); // to guarantee different timeStamps
+		PerformanceStats ps2 = new PerformanceStats();
+		ps2.addError('a');
+		ps2.addHit('c');
+		sp.saveSession2DB(e.getId(), ps2, 2000);
+		
+		ArrayList<Session> sessions = sp.getSessions(e.getId());
+		assertEquals(2, sessions.size());
+		assertEquals(ps2.getTotalPerformanceRate(), sessions.get(0).getPerformanceRate());
+		
+		Map<Character, PerformanceRate> all = sp.getCharPerformance(e.getId(), 10);
+		assertEquals(new PerformanceRate(2, 1), all.get('a'));
+		assertEquals(new PerformanceRate(0, 1), all.get('b'));
+		assertEquals(new PerformanceRate(1, 0), all.get(' '));
+		assertEquals(new PerformanceRate(1, 0), all.get('c'));
+		Map<Character, PerformanceRate> last = sp.getCharPerformance(e.getId(), 1);
+		assertEquals(new PerformanceRate(0, 1), last.get('a'));
+		assertNull(last.get('b'));
+		
+		ArrayList<Session> history = sp.getCharHistory(e.getId(), 'a', 10);
+		assertEquals(2, history.size());
+		assertEquals(new PerformanceRate(0, 1), history.get(0).getPerformanceRate());
+		assertEquals(2000, history.get(0).getRequiredTime());
+		assertEquals(new PerformanceRate(2, 0), history.get(1).getPerformanceRate());
+		assertEquals(1, sp.getCharHistory(e.getId(), 'b', 10).size());
+	}
+	
+	@Test
+	public void testSessionAsync() throws InterruptedException {
+		Exercise e = createNewExercise();
+		SessionPersist sp = new SessionPersist();
+		SessionWriter writer = SessionWriter.getInstance();
+		long committed = writer.getCommittedSessions();
+		PerformanceStats ps = new PerformanceStats();
+		ps.addHit('a');
+		ps.addError('b');
+		for(int i=0; i<10; ++i)
+			sp.saveSessionAsync(e.getId(), ps, i);
+		writer.flush();
+		assertEquals(0, writer.getQueueDepth());
+		assertEquals(committed+10, writer.getCommittedSessions());
+		assertTrue(writer.getLastCommitLatency() > 0);
+		assertEquals(10, sp.getSessions(e.getId()).size());
+		assertEquals(new PerformanceRate(10, 0), sp.getCharPerformance(e.getId(), 10).get('a'));
+	}
+	
+	@Test
+	public void testReadAfterAsync() {
+		Exercise e = createNewExercise();
+		SessionPersist sp = new SessionPersist();
+		PerformanceStats ps = new PerformanceStats();
+		ps.addHit('a');
+		sp.saveSessionAsync(e.getId(), ps, 1);
+		// Reading waits for the writer
+		assertEquals(1, sp.getSessions(e.getId()).size());
+	}
+	
+	@Test
+	public void testSessionAsyncRetry() {
+		Exercise e = createNewExercise();
+		SessionWriter writer = SessionWriter.getInstance();
+		long committed = writer.getCommittedSessions();
+		AtomicInteger failures = new AtomicInteger();
+		writer.setFailureListener((ex, n) -> failures.set(n));
+		Set<Entry<Character, PerformanceRate>> good = Collections.singletonMap('a',
+				new PerformanceRate(1, 0)).entrySet();
+		// The null char cannot be inserted
+		Set<Entry<Character, PerformanceRate>> bad = Collections.singletonMap((Character) null,
+				new PerformanceRate(1, 0)).entrySet();
+		try {
+			writer.submit(e.getId(), 1, new PerformanceRate(1, 0), good, 1);
+			writer.submit(e.getId(), 2, new PerformanceRate(1, 0), bad, 1);
+			writer.submit(e.getId(), 3, new PerformanceRate(1, 0), good, 1);
+			assertTrue(writer.flush());
+			// The good sessions are written one by one, the bad one is kept
+			assertEquals(committed+2, writer.getCommittedSessions());
+			assertEquals(1, writer.getFailedSessions());
+			assertEquals(1, failures.get());
+			assertEquals(2, new SessionPersist().getSessions(e.getId()).size());
+		}
+		finally {
+			writer.setFailureListener((ex, n) -> {});
+			writer.discardFailed();
+		}
+	}
+	
+	@Test
+	public void testTransactionRollback() {
+		Exercise e = createNewExercise();
+		try {
+			db.executeTransaction(tdb -> {
+				new SessionPersist().saveSession2DB(e.getId(), new PerformanceRate(1, 1), 1);
+				tdb.executeUpdate("INSERT INTO noSuchTable VALUES (1)");
+			});
+			fail("Exception expected");
+		} catch(RuntimeException ex) {
+			// expected
+		}
+		assertEquals(0, new SessionPersist().getSessions(e.getId()).size());
+	}
+	
+	@Test
+	public void testBookmark() {
+		SchemaMigration.migrate(db);
+		Exercise e = createNewExercise();
+		SessionPersist sp = new SessionPersist();
+		assertNull(sp.getBookmark(e.getId()));
+		sp.saveBookmark(e.getId(), new Bookmark(100, 20));
+		sp.saveBookmark(e.getId(), new Bookmark(2000, 300));
+		assertEquals(new Bookmark(2000, 300), sp.getBookmark(e.getId()));
+		sp.deleteBookmark(e.getId());
+		assertNull(sp.getBookmark(e.getId()));
+	}
+	
+	@Test
+	public void testBookmarkAsync() {
+		SchemaMigration.migrate(db);
+		Exercise e = createNewExercise();
+		SessionPersist sp = new SessionPersist();
+		sp.saveBookmarkAsync(e.getId(), new Bookmark(100, 20));
+		// Reading waits for the writer
+		assertEquals(new Bookmark(100, 20), sp.getBookmark(e.getId()));
+		sp.deleteBookmarkAsync(e.getId());
+		assertNull(sp.getBookmark(e.getId()));
+	}
+	
 	@AfterClass
 	public static void tearDown() {
 		for(int id : createdExerciseIds)
@@ -0,0 +1,52 @@
+package persistence;
+
+import static org.junit.Assert.*;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class SchemaMigrationTest {
+	
+	private static DbBase db = DbAccess.getInstance();
+	
+	@BeforeClass
+	public static void setUp() {
+		db.connect(CreateInitialTestTables.PATH2TESTDB);
+	}
+	
+	@AfterClass
+	public static void tearDown() {
+		db.disconnect();
+	}
+	
+	private static String queryPlan(String sql) {
+		return db.processResultSet2Val("EXPLAIN QUERY PLAN " + sql, rs -> {
+			StringBuilder sb = new StringBuilder();
+			while(rs.next())
+				sb.append(rs.getString(4)).append('\n');
+			return sb.toString();
+		});
+	}
+
+	@Test
+	public void testMigrate() {
+		SchemaMigration.migrate(db);
+		assertEquals(SchemaMigration.CURRENT_VERSION, SchemaMigration.getVersion(db));
+		// a second run does not change anything
+		assertEquals(SchemaMigration.CURRENT_VERSION, SchemaMigration.migrate(db));
+	}
+	
+	@Test
+	public void testSessionQueriesUseIndexes() {
+		SchemaMigration.migrate(db);
+		String plan = queryPlan("SELECT timeStamp, numHits, numErrors, requiredTime FROM "
+				+ "sessions WHERE idExercise=1 ORDER BY timeStamp DESC LIMIT 10");
+		assertTrue(plan, plan.contains("COVERING INDEX idxSessionsExerciseTime"));
+		assertFalse(plan, plan.contains("TEMP B-TREE"));
+		plan = queryPlan("SELECT element, numHits, numErrors FROM sessionResults "
+				+ "WHERE idSession=1");
+		assertTrue(plan, plan.contains("COVERING INDEX idxSessionResultsSession"));
+	}
+
+}
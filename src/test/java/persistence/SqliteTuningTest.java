@@ -0,0 +1,47 @@
+package persistence;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import org.junit.Test;
+import org.sqlite.SQLiteConfig.JournalMode;
+import org.sqlite.SQLiteConfig.SynchronousMode;
+
+public class SqliteTuningTest {
+	
+	@Test
+	public void testFromProperties() {
+		Properties properties = new Properties();
+		properties.setProperty(SqliteTuning.JOURNAL_MODE_KEY, " delete ");
+		properties.setProperty(SqliteTuning.SYNCHRONOUS_KEY, "full");
+		properties.setProperty(SqliteTuning.CACHE_SIZE_KEY, "2000");
+		properties.setProperty(SqliteTuning.MMAP_SIZE_KEY, "0");
+		properties.setProperty(SqliteTuning.STATEMENT_CACHE_SIZE_KEY, "8");
+		SqliteTuning tuning = SqliteTuning.fromProperties(properties);
+		assertEquals(JournalMode.DELETE, tuning.getJournalMode());
+		assertEquals(SynchronousMode.FULL, tuning.getSynchronous());
+		assertEquals(2000, tuning.getCacheSize());
+		assertEquals(0, tuning.getMmapSize());
+		assertEquals(8, tuning.getStatementCacheSize());
+	}
+	
+	@Test
+	public void testInvalidPropertiesKeepDefaults() {
+		SqliteTuning defaults = new SqliteTuning();
+		Properties properties = new Properties();
+		properties.setProperty(SqliteTuning.JOURNAL_MODE_KEY, "wall");
+		properties.setProperty(SqliteTuning.SYNCHRONOUS_KEY, "");
+		properties.setProperty(SqliteTuning.CACHE_SIZE_KEY, "8 MiB");
+		properties.setProperty(SqliteTuning.MMAP_SIZE_KEY, "-1");
+		properties.setProperty(SqliteTuning.STATEMENT_CACHE_SIZE_KEY, "16");
+		SqliteTuning tuning = SqliteTuning.fromProperties(properties);
+		assertEquals(defaults.getJournalMode(), tuning.getJournalMode());
+		assertEquals(defaults.getSynchronous(), tuning.getSynchronous());
+		assertEquals(defaults.getCacheSize(), tuning.getCacheSize());
+		assertEquals(defaults.getMmapSize(), tuning.getMmapSize());
+		// valid properties are still read
+		assertEquals(16, tuning.getStatementCacheSize());
+	}
+
+}
@@ -0,0 +1,83 @@
+package persistence;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StatementCacheTest {
+	
+	private static final String SQL1 = "SELECT 1";
+	private static final String SQL2 = "SELECT 2";
+	private static final String SQL3 = "SELECT 3";
+	private Connection con;
+	
+	@Before
+	public void setUp() throws SQLException {
+		con = DriverManager.getConnection("jdbc:sqlite::memory:");
+	}
+	
+	@After
+	public void tearDown() throws SQLException {
+		con.close();
+	}
+
+	// PreparedStatement.isClosed() of the SQLite driver does not reflect close()
+	private static boolean isClosed(PreparedStatement pstm) {
+		try {
+			pstm.executeQuery().close();
+			return false;
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+	
+	@Test
+	public void testReuse() throws SQLException {
+		StatementCache cache = new StatementCache(con, 2);
+		PreparedStatement pstm = cache.prepare(SQL1, Statement.NO_GENERATED_KEYS);
+		cache.release(pstm, true);
+		assertSame(pstm, cache.prepare(SQL1, Statement.NO_GENERATED_KEYS));
+		cache.release(pstm, true);
+		assertNotSame(pstm, cache.prepare(SQL1, Statement.RETURN_GENERATED_KEYS));
+	}
+	
+	@Test
+	public void testLeastRecentlyUsedIsClosed() throws SQLException {
+		StatementCache cache = new StatementCache(con, 2);
+		PreparedStatement pstm1 = cache.prepare(SQL1, Statement.NO_GENERATED_KEYS);
+		cache.release(pstm1, true);
+		PreparedStatement pstm2 = cache.prepare(SQL2, Statement.NO_GENERATED_KEYS);
+		cache.release(pstm2, true);
+		cache.release(cache.prepare(SQL1, Statement.NO_GENERATED_KEYS), true);
+		PreparedStatement pstm3 = cache.prepare(SQL3, Statement.NO_GENERATED_KEYS);
+		cache.release(pstm3, true);
+		assertTrue(isClosed(pstm2));
+		assertFalse(isClosed(pstm1));
+		cache.close();
+		assertTrue(isClosed(pstm1));
+		assertTrue(isClosed(pstm3));
+	}
+	
+	@Test
+	public void testFailedAndUncachedAreClosed() throws SQLException {
+		StatementCache cache = new StatementCache(con, 2);
+		PreparedStatement pstm = cache.prepare(SQL1, Statement.NO_GENERATED_KEYS);
+		cache.release(pstm, false);
+		assertTrue(isClosed(pstm));
+		assertNotSame(pstm, cache.prepare(SQL1, Statement.NO_GENERATED_KEYS));
+		
+		StatementCache noCache = new StatementCache(con, 0);
+		pstm = noCache.prepare(SQL1, Statement.NO_GENERATED_KEYS);
+		noCache.release(pstm, true);
+		assertTrue(isClosed(pstm));
+	}
+
+}
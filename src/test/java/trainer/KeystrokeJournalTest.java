@@ -0,0 +1,81 @@
+package trainer;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeystrokeJournalTest {
+	
+	private Path file;
+	
+	@Before
+	public void setUp() throws IOException {
+		file = Files.createTempFile("keystrokes", ".ktj");
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Test
+	public void testWriteRead() throws IOException, InterruptedException {
+		final int n = 50_000; // more than the ring buffer and a single mapped chunk
+		try(KeystrokeJournal journal = new KeystrokeJournal(file, 42)) {
+			for(int i=0; i<n; ++i) {
+				char expected = (char) ('a' + i%26);
+				journal.record(expected, i%7 == 0 ? '#' : expected, i%7 != 0);
+				if(i%1000 == 0)
+					Thread.sleep(5); // let the drainer catch up
+			}
+		}
+		KeystrokeJournalReader reader = new KeystrokeJournalReader(file);
+		assertEquals(42, reader.getExerciseID());
+		assertEquals(n-reader.getDropped(), reader.getRecordCount());
+		assertEquals(KeystrokeJournal.HEADER_SIZE +
+				reader.getRecordCount()*KeystrokeJournal.RECORD_SIZE, Files.size(file));
+		ArrayList<Boolean> correct = new ArrayList<>();
+		reader.forEach((delta, expected, typed, c) -> {
+			assertTrue(delta >= 0);
+			assertTrue(expected >= 'a' && expected <= 'z');
+			assertEquals(c, expected == typed);
+			correct.add(c);
+		});
+		assertEquals(reader.getRecordCount(), correct.size());
+	}
+	
+	@Test
+	public void testJournalFromLineMonitor() throws Exception {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		exercise.setLimitType(Exercise.LimitType.NONE);
+		PracticeController pc = new PracticeController(exercise, 20);
+		pc.setKeystrokeJournal(new KeystrokeJournal(file, exercise.getId()));
+		pc.ready();
+		pc.run();
+		LineMonitor lm = pc.getLineMonitor();
+		char first = lm.getCurrentChar();
+		lm.advanceIfCorrect('\u0001');
+		lm.advanceIfCorrect(first);
+		pc.userStop();
+		ArrayList<String> keystrokes = new ArrayList<>();
+		new KeystrokeJournalReader(file).forEach((delta, expected, typed, correct) ->
+				keystrokes.add("" + expected + typed + correct));
+		assertEquals(2, keystrokes.size());
+		assertEquals("" + first + '\u0001' + false, keystrokes.get(0));
+		assertEquals("" + first + first + true, keystrokes.get(1));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testNoJournal() throws IOException {
+		Files.write(file, new byte[100]);
+		new KeystrokeJournalReader(file);
+	}
+
+}
@@ -0,0 +1,113 @@
+package trainer;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import trainer.lineCreators.Bookmark;
+import trainer.lineCreators.Bookmarkable;
+import trainer.lineCreators.LineCreator;
+import trainer.lineCreators.TestLineCreator;
+
+public class LinePrefetcherTest {
+	
+	private static final String LINE = "1234567890";
+
+	@Test
+	public void testAllLinesInOrder() {
+		LinePrefetcher lp = new LinePrefetcher(new TestLineCreator(LINE, 5), LINE.length(), 2);
+		lp.start();
+		for(int i=0; i<4; ++i)
+			assertEquals(LINE + '\n', lp.next());
+		assertEquals(LINE, lp.next());
+		assertNull(lp.next());
+		assertNull(lp.next());
+	}
+	
+	@Test
+	public void testBookmarks() {
+		Bookmarkable bookmarkable = new Bookmarkable() {
+			private int count;
+			@Override
+			public String create(int length) {
+				return "line" + count++;
+			}
+			@Override
+			public boolean hasNext() {
+				return count < 3;
+			}
+			@Override
+			public Bookmark getBookmark() {
+				return new Bookmark(-1, count);
+			}
+			@Override
+			public void seek(Bookmark bookmark) {}
+		};
+		LinePrefetcher lp = new LinePrefetcher(bookmarkable, LINE.length(), 2);
+		lp.start();
+		for(int i=0; i<3; ++i) {
+			assertEquals("line" + i, lp.next());
+			assertEquals(new Bookmark(-1, i), lp.getBookmark());
+		}
+		assertNull(lp.next());
+		assertEquals(new Bookmark(-1, 3), lp.getBookmark());
+	}
+	
+	@Test
+	public void testFailureIsRethrown() {
+		LineCreator failing = new LineCreator() {
+			private int count;
+			@Override
+			public String create(int length) {
+				if(count++ == 1)
+					throw new IllegalStateException("broken");
+				return LINE + '\n';
+			}
+		};
+		LinePrefetcher lp = new LinePrefetcher(failing, LINE.length(), 2);
+		lp.start();
+		assertEquals(LINE + '\n', lp.next());
+		try {
+			lp.next();
+			fail("Exception of LineCreator not rethrown");
+		} catch(IllegalStateException e) {
+			assertEquals("broken", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void testStopWaitsForCreator() throws InterruptedException {
+		CountDownLatch creating = new CountDownLatch(1);
+		AtomicBoolean creatorBusy = new AtomicBoolean();
+		LineCreator slow = length -> {
+			creatorBusy.set(true);
+			creating.countDown();
+			long end = System.currentTimeMillis() + 100;
+			while(System.currentTimeMillis() < end)
+				; // not interruptible on purpose
+			creatorBusy.set(false);
+			return LINE + '\n';
+		};
+		LinePrefetcher lp = new LinePrefetcher(slow, LINE.length(), 1);
+		lp.start();
+		creating.await();
+		lp.stop();
+		assertFalse(creatorBusy.get());
+	}
+	
+	@Test
+	public void testPracticeControllerWithoutLookAhead() throws Exception {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		exercise.setLimitType(Exercise.LimitType.NONE);
+		TestPracticeController pc = new TestPracticeController(exercise, LINE.length());
+		pc.setLookAhead(0);
+		pc.setLineCreator(new TestLineCreator(LINE, 2));
+		pc.ready();
+		assertEquals(LINE + '\n', pc.getLine1());
+		assertEquals(LINE, pc.getLine2());
+	}
+
+}
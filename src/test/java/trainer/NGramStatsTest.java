@@ -0,0 +1,96 @@
+package trainer;
+
+import static org.junit.Assert.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class NGramStatsTest {
+	
+	private static final long MS = 1_000_000;
+	private NGramStats stats;
+	private long time;
+	
+	@Before
+	public void setUp() {
+		stats = new NGramStats();
+		time = 1_000 * MS;
+	}
+	
+	private void type(String text, long interval) {
+		for(char c : text.toCharArray()) {
+			time += interval;
+			stats.addKeystroke(c, true, time);
+		}
+	}
+
+	@Test
+	public void testCountsWithinWords() {
+		type("abc ab", 100*MS);
+		assertEquals(2, stats.getHits("ab"));
+		assertEquals(1, stats.getHits("bc"));
+		assertEquals(1, stats.getHits("abc"));
+		assertEquals(0, stats.getHits("c "));
+		assertEquals(0, stats.getHits("ca"));
+		assertEquals(3, stats.size());
+	}
+	
+	@Test
+	public void testErrorsAndLatency() {
+		type("ab", 100*MS);
+		stats.addKeystroke('c', false, time + 50*MS);
+		type("c", 300*MS);
+		assertEquals(1, stats.getErrors("bc"));
+		assertEquals(1, stats.getErrors("abc"));
+		assertEquals(1, stats.getHits("bc"));
+		assertEquals(300*MS, stats.getLatency("bc"), 1);
+		assertEquals(100*MS, stats.getLatency("ab"), 1);
+		assertTrue(stats.getWeight("bc") > stats.getWeight("ab"));
+	}
+	
+	@Test
+	public void testLongPauseIsIgnored() {
+		type("ab", 100*MS);
+		type("c", 10_000*MS);
+		assertEquals(1, stats.getHits("bc"));
+		assertEquals(0, stats.getLatency("bc"), 0);
+	}
+	
+	@Test
+	public void testSampleFollowsWeights() {
+		// many n-grams to span several blocks
+		for(char c1='a'; c1<='z'; ++c1)
+			for(char c2='a'; c2<='z'; ++c2)
+				type(" " + c1 + c2, 100*MS);
+		for(int i=0; i<5; ++i)
+			stats.addKeystroke('Z', false, time);
+		assertEquals(1 + NGramStats.ERROR_WEIGHT, stats.getWeight("zZ"));
+		assertEquals(1 + NGramStats.ERROR_WEIGHT, stats.getWeight("zzZ"));
+		assertEquals(26*26 + 2, stats.size());
+		SplittableRandom random = new SplittableRandom(1);
+		int zZ = 0;
+		final int n = 20_000;
+		StringBuilder sb = new StringBuilder();
+		for(int i=0; i<n; ++i) {
+			sb.setLength(0);
+			int length = stats.appendSample(random, sb);
+			assertEquals(sb.length(), length);
+			assertTrue(length == 2 || length == 3);
+			if(sb.toString().equals("zZ"))
+				++zZ;
+		}
+		// zZ has weight 21 of a total of 26*26 + 2*21
+		double expected = 21.0/(26*26+42);
+		assertEquals(expected, (double) zZ/n, 0.01);
+	}
+	
+	@Test
+	public void testEmptySample() {
+		StringBuilder sb = new StringBuilder();
+		assertEquals(0, stats.appendSample(new SplittableRandom(), sb));
+		assertEquals(0, sb.length());
+	}
+
+}
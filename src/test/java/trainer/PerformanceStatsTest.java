@@ -0,0 +1,70 @@
+package trainer;
+
+import static org.junit.Assert.*;
+
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PerformanceStatsTest {
+	
+	private static final char SPARSE_CHAR1 = '€'; // euro sign, outside of the dense array
+	private static final char SPARSE_CHAR2 = '–'; // en dash, outside of the dense array
+	private PerformanceStats ps;
+	
+	@Before
+	public void setUp() {
+		ps = new PerformanceStats();
+		ps.addHit('b');
+		ps.addHit('b');
+		ps.addError('b');
+		ps.addError('a');
+		ps.addHit(SPARSE_CHAR1);
+		ps.addError(SPARSE_CHAR2);
+		ps.addHit(SPARSE_CHAR2);
+	}
+
+	@Test
+	public void testCounts() {
+		assertEquals(2, ps.getHits('b'));
+		assertEquals(1, ps.getErrors('b'));
+		assertEquals(0, ps.getHits('a'));
+		assertEquals(1, ps.getErrors('a'));
+		assertEquals(1, ps.getHits(SPARSE_CHAR1));
+		assertEquals(1, ps.getErrors(SPARSE_CHAR2));
+		assertEquals(0, ps.getHits('z'));
+		assertEquals(new PerformanceRate(4, 3), ps.getTotalPerformanceRate());
+	}
+	
+	@Test
+	public void testHits_errorsSortedByChar() {
+		Iterator<Entry<Character, PerformanceRate>> it = ps.getHits_errors().iterator();
+		Entry<Character, PerformanceRate> e = it.next();
+		assertEquals('a', (char) e.getKey());
+		assertEquals(new PerformanceRate(0, 1), e.getValue());
+		e = it.next();
+		assertEquals('b', (char) e.getKey());
+		assertEquals(new PerformanceRate(2, 1), e.getValue());
+		assertEquals(SPARSE_CHAR2, (char) it.next().getKey());
+		assertEquals(SPARSE_CHAR1, (char) it.next().getKey());
+		assertFalse(it.hasNext());
+	}
+	
+	@Test
+	public void testHits_errorsUpdated() {
+		assertEquals(4, ps.getHits_errors().size());
+		ps.addHit('c');
+		assertEquals(5, ps.getHits_errors().size());
+	}
+	
+	@Test
+	public void testWrongTyped() {
+		ps.addWrongTyped('x');
+		ps.addWrongTyped('x');
+		assertEquals(2, ps.getWrongTyped('x'));
+		assertEquals(0, ps.getWrongTyped('y'));
+	}
+
+}
@@ -0,0 +1,98 @@
+package trainer;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import persistence.SessionPersist;
+import trainer.lineCreators.Bookmark;
+import trainer.lineCreators.InitException;
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+public class PracticeControllerBookmarkTest {
+	
+	// "Some short test text for checking the behavior of\nTextLineCreator. ..."
+	static final int maxLineLength = 20;
+	
+	private Exercise exercise;
+	private @Mock SessionPersist sessionPersist;
+	private PracticeController pc;
+	
+	@Before
+	public void init() throws ImplementationNotFound, InitException {
+		MockitoAnnotations.initMocks(this);
+		exercise = new Exercise(-1, "TestText", DefaultObjectFactory.getExerciseGroup(),
+				"text", "isLocal=True;fileName=testText.txt", Exercise.LimitType.NONE, 0);
+		pc = new PracticeController(exercise, maxLineLength);
+		pc.setSessionPersist(sessionPersist);
+	}
+	
+	private void typeLine() {
+		for(char c : pc.getLine1().toCharArray())
+			pc.getLineMonitor().advanceIfCorrect(c);
+	}
+	
+	@Test
+	public void testSaveBookmark() {
+		pc.ready();
+		assertEquals("Some short test text\n", pc.getLine1());
+		pc.run();
+		typeLine();
+		pc.getLineMonitor().advanceIfCorrect('f'); // the line is not completed
+		pc.userStop();
+		verify(sessionPersist).saveBookmarkAsync(-1, new Bookmark(-1, 4));
+	}
+	
+	@Test
+	public void testSaveBookmarkWithoutPrefetch() {
+		pc.setLookAhead(0);
+		pc.ready();
+		pc.run();
+		typeLine();
+		typeLine();
+		pc.getLineMonitor().advanceIfCorrect('b'); // the line is not completed
+		pc.userStop();
+		verify(sessionPersist).saveBookmarkAsync(-1, new Bookmark(-1, 7));
+	}
+	
+	@Test
+	public void testSaveBookmarkAfterSeveralLines() {
+		pc.ready();
+		pc.run();
+		typeLine();
+		typeLine();
+		pc.getLineMonitor().advanceIfCorrect('b'); // the line is not completed
+		pc.userStop();
+		verify(sessionPersist).saveBookmarkAsync(-1, new Bookmark(-1, 7));
+	}
+	
+	@Test
+	public void testContinueAtBookmark() {
+		when(sessionPersist.getBookmark(-1)).thenReturn(new Bookmark(-1, 4));
+		pc.ready();
+		assertEquals("for checking the\n", pc.getLine1());
+	}
+	
+	@Test
+	public void testDeleteBookmarkAtEnd() {
+		pc.ready();
+		pc.run();
+		while(pc.getState() == PracticeController.State.RUNNING)
+			typeLine();
+		assertEquals(PracticeController.State.REG_STOPPED, pc.getState());
+		verify(sessionPersist).deleteBookmarkAsync(-1);
+		verify(sessionPersist, never()).saveBookmarkAsync(anyInt(), any(Bookmark.class));
+	}
+	
+	@Test
+	public void testBookmarkBehindEnd() {
+		when(sessionPersist.getBookmark(-1)).thenReturn(new Bookmark(-1, 100_000));
+		pc.ready();
+		assertEquals("Some short test text\n", pc.getLine1());
+	}
+
+}
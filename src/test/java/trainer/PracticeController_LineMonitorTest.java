@@ -1,8 +1,12 @@
 package trainer;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -57,6 +61,32 @@ public class PracticeController_LineMonitorTest {
 		}
 	}
 	
+	@Test
+	public void testListeners() {
+		StringBuilder typed = new StringBuilder();
+		List<String> lines = new ArrayList<>();
+		List<PracticeController.State> states = new ArrayList<>();
+		LineMonitor.KeystrokeListener keystrokeListener =
+				(c, correct) -> typed.append(correct ? c : '#');
+		lm.addKeystrokeListener(keystrokeListener);
+		pc.addLineListener((line1, line2) -> lines.add(line1));
+		pc.addStateListener(states::add);
+		String line = pc.getLine1();
+		testLettersInLine();
+		StringBuilder expected = new StringBuilder();
+		for(char c : line.toCharArray())
+			expected.append('#').append(c);
+		assertEquals(expected.toString(), typed.toString());
+		assertEquals(1, lines.size());
+		assertEquals(pc.getLine1(), lines.get(0));
+		lm.removeKeystrokeListener(keystrokeListener);
+		lm.advanceIfCorrect(pc.getLine1().charAt(0));
+		assertEquals(expected.length(), typed.length());
+		pc.userStop();
+		assertEquals(1, states.size());
+		assertEquals(PracticeController.State.USER_STOPPED, states.get(0));
+	}
+	
 	
 
 }
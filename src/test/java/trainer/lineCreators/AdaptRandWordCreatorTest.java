@@ -46,6 +46,21 @@ public class AdaptRandWordCreatorTest {
 		eval_b_Percentage(bExpectedPercentage);
 	}
 	
+	@Test
+	public void testStatsRecordedBeforeConstruction() {
+		ps.addError('a');
+		arwc = new AdaptRandWordCreator(charSet, ps);
+		eval_b_Percentage(1/(1+AdaptRandWordCreator.ADAPT_VAL/charSet.length()));
+	}
+	
+	@Test
+	public void testErrorRateDecreases() {
+		ps.addError('a');
+		for(int i=0; i<99; ++i)
+			ps.addHit('a'); // error rate for a is 0.01 -> one additional 'a'
+		eval_b_Percentage(1/3.0);
+	}
+	
 	@Test
 	public void testWithNoErrors() {
 		eval_b_Percentage(0.5); // 'a' and 'b' equally probable
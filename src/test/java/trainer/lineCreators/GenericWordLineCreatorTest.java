@@ -2,6 +2,8 @@ package trainer.lineCreators;
 
 import static org.junit.Assert.*;
 
+import java.util.SplittableRandom;
+
 import org.junit.Test;
 
 import trainer.PerformanceStats;
@@ -27,6 +29,18 @@ public class GenericWordLineCreatorTest {
 				new PerformanceStats()));
 	}
 	
+	@Test
+	public void testSameSeedSameLines() throws ImplementationNotFound, InitException {
+		for(String type : new String[] {"GENERIC_RAND", "GENERIC_RAND_LANG", "ADAPT_RAND_LANG"}) {
+			LineCreator l1 = LineCreatorFactory.getLineCreator(type, "abcABC.,",
+					new PerformanceStats(), new SplittableRandom(42));
+			LineCreator l2 = LineCreatorFactory.getLineCreator(type, "abcABC.,",
+					new PerformanceStats(), new SplittableRandom(42));
+			for(int i=0; i<10; ++i)
+				assertEquals(l1.create(30), l2.create(30));
+		}
+	}
+	
 	public void testLineCreator(LineCreator l) {
 		String line = l.create(30);
 		assertTrue(line.length() <= 30+1);
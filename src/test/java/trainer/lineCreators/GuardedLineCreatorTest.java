@@ -0,0 +1,149 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+public class GuardedLineCreatorTest {
+	
+	private static final long DEADLINE = 50;
+	private static final long OPEN = 300;
+	
+	private volatile long sleepMillis;
+	private final AtomicInteger pluginCalls = new AtomicInteger();
+	private PluginMetrics metrics;
+	private GuardedLineCreator glc;
+	
+	@Before
+	public void setUp() {
+		LineCreator plugin = length -> {
+			pluginCalls.incrementAndGet();
+			sleepIgnoringInterrupts(sleepMillis);
+			return "plugin\n";
+		};
+		metrics = PluginMetrics.forType("GuardedLineCreatorTest" + System.nanoTime());
+		glc = new GuardedLineCreator(plugin, () -> length -> "fallback\n", metrics,
+				DEADLINE, OPEN);
+	}
+	
+	@Test
+	public void testInTime() {
+		assertEquals("plugin\n", glc.create(10));
+		assertEquals(1, metrics.getCalls());
+		assertEquals(0, metrics.getTimeouts());
+		assertEquals(0, metrics.getFallbacks());
+		assertTrue(metrics.getP50() > 0);
+	}
+	
+	@Test
+	public void testCircuitBreaker() throws InterruptedException {
+		sleepMillis = 2*DEADLINE;
+		for(int i=0; i<GuardedLineCreator.FAILURE_THRESHOLD; ++i) {
+			assertEquals("fallback\n", glc.create(10));
+			Thread.sleep(2*DEADLINE); // let the cancelled call return
+		}
+		assertTrue(glc.isOpen());
+		assertEquals(GuardedLineCreator.FAILURE_THRESHOLD, metrics.getTimeouts());
+		// The plugin is not called while the circuit breaker is open
+		int calls = pluginCalls.get();
+		assertEquals("fallback\n", glc.create(10));
+		assertEquals(calls, pluginCalls.get());
+		assertEquals(GuardedLineCreator.FAILURE_THRESHOLD+1, metrics.getFallbacks());
+		// One more try after the open time
+		sleepMillis = 0;
+		Thread.sleep(OPEN);
+		assertFalse(glc.isOpen());
+		assertEquals("plugin\n", glc.create(10));
+		assertEquals(calls+1, pluginCalls.get());
+	}
+	
+	@Test
+	public void testNoConcurrentCalls() throws InterruptedException {
+		sleepMillis = 4*DEADLINE;
+		assertEquals("fallback\n", glc.create(10));
+		// The cancelled call is still running
+		assertEquals("fallback\n", glc.create(10));
+		assertEquals(1, pluginCalls.get());
+		assertEquals(1, metrics.getTimeouts());
+	}
+	
+	@Test
+	public void testHasNextIsGuarded() {
+		AtomicInteger hasNextCalls = new AtomicInteger();
+		LineCreator plugin = new LineCreator() {
+			@Override
+			public String create(int length) {
+				pluginCalls.incrementAndGet();
+				return "plugin\n";
+			}
+			@Override
+			public boolean hasNext() {
+				hasNextCalls.incrementAndGet();
+				sleepIgnoringInterrupts(4*DEADLINE);
+				return false;
+			}
+		};
+		glc = new GuardedLineCreator(plugin, () -> length -> "fallback\n", metrics,
+				DEADLINE, OPEN);
+		long start = System.currentTimeMillis();
+		assertTrue(glc.hasNext());
+		assertTrue(System.currentTimeMillis() - start < 4*DEADLINE);
+		assertEquals(1, metrics.getTimeouts());
+		// The cancelled call is still running: the plugin is not called again
+		assertTrue(glc.hasNext());
+		assertEquals("fallback\n", glc.create(10));
+		assertEquals(1, hasNextCalls.get());
+		assertEquals(0, pluginCalls.get());
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testRethrow() {
+		glc = new GuardedLineCreator(length -> {throw new IllegalArgumentException();},
+				() -> length -> "fallback\n", metrics, DEADLINE, OPEN);
+		glc.create(10);
+	}
+	
+	@Test
+	public void testPercentiles() {
+		PluginMetrics m = PluginMetrics.forType("GuardedLineCreatorTest.percentiles");
+		assertSame(m, PluginMetrics.forType("GuardedLineCreatorTest.percentiles"));
+		assertEquals(0, m.getP99());
+		for(int i=1; i<=100; ++i)
+			m.recordCall(i);
+		assertEquals(50, m.getP50());
+		assertEquals(99, m.getP99());
+		assertEquals(100, m.getPercentile(100));
+	}
+	
+	@Test
+	public void testPluginIsGuarded() throws ImplementationNotFound, InitException {
+		assertTrue(LineCreatorFactory.getLineCreator(TestPluginTest.NAME, null, null)
+				instanceof GuardedLineCreator);
+		assertFalse(LineCreatorFactory.getLineCreator("GENERIC_RAND", "abc", null)
+				instanceof GuardedLineCreator);
+	}
+	
+	@Test
+	public void testDefaultFallback() throws ImplementationNotFound, InitException {
+		LineCreator lc = LineCreatorFactory.getLineCreator(TestPluginTest.NAME, null, null);
+		assertNotNull(lc.create(20));
+	}
+	
+	// Ignores the interrupt of a cancellation, like a hanging plugin
+	private static void sleepIgnoringInterrupts(long millis) {
+		long end = System.currentTimeMillis() + millis;
+		while(System.currentTimeMillis() < end) {
+			try {
+				Thread.sleep(1);
+			} catch (InterruptedException e) {
+				// go on
+			}
+		}
+	}
+
+}
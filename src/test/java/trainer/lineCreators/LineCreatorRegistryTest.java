@@ -0,0 +1,41 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+public class LineCreatorRegistryTest {
+	
+	@Test
+	public void testProvidersAreCached() throws ImplementationNotFound {
+		LineCreatorRegistry registry = LineCreatorRegistry.getInstance();
+		assertSame(registry, LineCreatorRegistry.getInstance());
+		assertSame(registry.getProvider("GENERIC_RAND"), registry.getProvider("GENERIC_RAND"));
+		assertSame(registry.getProvider(TestPluginTest.NAME),
+				registry.getProvider(TestPluginTest.NAME));
+	}
+	
+	@Test
+	public void testTypes() {
+		String[] types = LineCreatorRegistry.getInstance().getTypes();
+		assertEquals("GENERIC_RAND", types[0]);
+		assertTrue(Arrays.asList(types).contains("text"));
+		assertTrue(Arrays.asList(types).contains(TestPluginTest.NAME));
+	}
+	
+	@Test
+	public void testReloadPlugins() throws ImplementationNotFound {
+		LineCreatorRegistry registry = LineCreatorRegistry.getInstance();
+		LineCreatorProvider local = registry.getProvider("text");
+		LineCreatorProvider plugin = registry.getProvider(TestPluginTest.NAME);
+		registry.reloadPlugins();
+		assertSame(local, registry.getProvider("text"));
+		assertNotSame(plugin, registry.getProvider(TestPluginTest.NAME));
+		assertFalse(registry.reloadPluginsIfChanged());
+	}
+
+}
@@ -0,0 +1,123 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedTextTokenizerTest {
+	
+	private static final String TEXT = "Über  die\tgrüne\nWiese läuft 𝄞-Schlüssel. ";
+	private static final List<String> WORDS =
+			Arrays.asList("Über", "die", "grüne", "Wiese", "läuft", "𝄞-Schlüssel.");
+	
+	private Path file;
+	
+	@Before
+	public void setUp() throws IOException {
+		file = Files.createTempFile("MappedTextTokenizerTest", ".txt");
+		Files.write(file, TEXT.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@After
+	public void tearDown() throws IOException {
+		Files.delete(file);
+	}
+	
+	private static List<String> readAll(MappedTextTokenizer tokenizer) {
+		List<String> words = new ArrayList<>();
+		String word;
+		while((word = tokenizer.next()) != null)
+			words.add(word);
+		tokenizer.close();
+		return words;
+	}
+
+	@Test
+	public void testWords() throws IOException {
+		assertEquals(WORDS, readAll(new MappedTextTokenizer(file)));
+	}
+	
+	@Test
+	public void testSmallWindows() throws IOException {
+		for(int windowSize=1; windowSize<8; ++windowSize)
+			assertEquals(WORDS, readAll(new MappedTextTokenizer(file, 0, windowSize)));
+	}
+	
+	@Test
+	public void testResume() throws IOException {
+		MappedTextTokenizer tokenizer = new MappedTextTokenizer(file, 0, 4);
+		assertEquals("Über", tokenizer.next());
+		assertEquals(0, tokenizer.getWordStart());
+		assertEquals("die", tokenizer.next());
+		long position = tokenizer.getPosition();
+		tokenizer.close();
+		assertEquals(WORDS.subList(2, WORDS.size()),
+				readAll(new MappedTextTokenizer(file, position, 4)));
+	}
+	
+	@Test
+	public void testStartWithinWord() throws IOException {
+		// 1 is within the two bytes of Ü, 3 within "Über", 6 within the white space before
+		// "die", 7 at the start of "die", 8 within "die"
+		assertEquals(WORDS.subList(1, WORDS.size()), readAll(new MappedTextTokenizer(file, 1)));
+		assertEquals(WORDS.subList(1, WORDS.size()), readAll(new MappedTextTokenizer(file, 3)));
+		assertEquals(WORDS.subList(1, WORDS.size()), readAll(new MappedTextTokenizer(file, 6)));
+		assertEquals(WORDS.subList(1, WORDS.size()), readAll(new MappedTextTokenizer(file, 7)));
+		assertEquals(WORDS.subList(2, WORDS.size()), readAll(new MappedTextTokenizer(file, 8)));
+		assertTrue(readAll(new MappedTextTokenizer(file, Long.MAX_VALUE)).isEmpty());
+	}
+	
+	@Test
+	public void testStartAfterMultiByteSpace() throws IOException {
+		// U+3000 and U+2003 are white space that is encoded in three bytes
+		Files.write(file, "eins\u3000zwei\u2003drei vier".getBytes(StandardCharsets.UTF_8));
+		MappedTextTokenizer tokenizer = new MappedTextTokenizer(file);
+		assertEquals("eins", tokenizer.next());
+		assertEquals("zwei", tokenizer.next());
+		long zwei = tokenizer.getWordStart();
+		assertEquals("drei", tokenizer.next());
+		long drei = tokenizer.getWordStart();
+		tokenizer.close();
+		assertEquals(Arrays.asList("zwei", "drei", "vier"),
+				readAll(new MappedTextTokenizer(file, zwei)));
+		assertEquals(Arrays.asList("drei", "vier"), readAll(new MappedTextTokenizer(file, drei)));
+		// Within the multi-byte white space
+		assertEquals(Arrays.asList("zwei", "drei", "vier"),
+				readAll(new MappedTextTokenizer(file, zwei-1)));
+	}
+	
+	@Test
+	public void testMalformed() throws IOException {
+		Files.write(file, new byte[] {'a', (byte) 0xC3, ' ', (byte) 0xE2, (byte) 0x82,
+				'b', (byte) 0x80, ' ', (byte) 0xC0, (byte) 0xAF});
+		assertEquals(Arrays.asList("a�", "�b�", "��"),
+				readAll(new MappedTextTokenizer(file)));
+	}
+	
+	@Test
+	public void testSameLinesAsScanner() throws IOException, URISyntaxException {
+		String fileName = "exerciseTxt/Johannes Schlaf_ In Dingsda.txt";
+		Path text = Paths.get(getClass().getClassLoader().getResource(fileName).toURI());
+		try(InputStream is = Files.newInputStream(text)) {
+			TextLineCreator expected = new TextLineCreator(is);
+			TextLineCreator actual = new TextLineCreator(new MappedTextTokenizer(text));
+			for(int i=0; i<20 && expected.hasNext(); ++i)
+				assertEquals(expected.create(60), actual.create(60));
+			actual.stop();
+		}
+	}
+
+}
@@ -0,0 +1,105 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import trainer.lineCreators.PluginManager.LoadedPlugin;
+
+public class PluginManagerTest {
+	
+	private static final Path PLUGIN_JAR = Paths.get("src/test/lib/testLineCreatorPlugin.jar");
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path dir;
+	private PluginManager pm;
+	
+	@Before
+	public void setUp() {
+		dir = folder.getRoot().toPath();
+		pm = new PluginManager(dir);
+	}
+	
+	@Test
+	public void testEmptyDir() {
+		pm.scan();
+		assertTrue(pm.getPlugins().isEmpty());
+	}
+	
+	@Test
+	public void testMissingDir() {
+		pm = new PluginManager(dir.resolve("missing"));
+		pm.scan();
+		assertTrue(pm.getPlugins().isEmpty());
+	}
+	
+	@Test
+	public void testScan() throws IOException {
+		Path jar = Files.copy(PLUGIN_JAR, dir.resolve("test.jar"));
+		pm.scan();
+		LoadedPlugin lp = pm.getPlugins().get(TestPluginTest.NAME);
+		assertNotNull(lp);
+		assertEquals(jar, lp.getJar());
+		assertTrue(lp.getLoadTime() > 0);
+		// An unchanged jar is not loaded again
+		pm.scan();
+		assertSame(lp, pm.getPlugins().get(TestPluginTest.NAME));
+		Files.delete(jar);
+		pm.scan();
+		assertTrue(pm.getPlugins().isEmpty());
+	}
+	
+	@Test
+	public void testReplaceJar() throws IOException, InitException {
+		Path jar = Files.copy(PLUGIN_JAR, dir.resolve("test.jar"));
+		pm.scan();
+		LineCreatorProviderPlugin plugin = pm.getPlugins().get(TestPluginTest.NAME).getPlugin();
+		// The plugin is loaded from a copy, so that the jar can be overwritten
+		Files.write(jar, new byte[] {1, 2, 3});
+		Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis()+10_000));
+		pm.scan();
+		assertTrue(pm.getPlugins().isEmpty());
+		LineCreator lc = plugin.getLineCreator(null, null);
+		assertEquals(TestPluginTest.LINECREATOR_CREATE,
+				lc.create(TestPluginTest.LINECREATOR_CREATE.length()+1));
+		Files.delete(jar);
+	}
+	
+	@Test
+	public void testIgnoreOtherFiles() throws IOException {
+		Files.copy(PLUGIN_JAR, dir.resolve("test.zip"));
+		Files.write(dir.resolve("broken.jar"), new byte[] {1, 2, 3});
+		pm.scan();
+		assertTrue(pm.getPlugins().isEmpty());
+	}
+	
+	@Test
+	public void testWatch() throws IOException, InterruptedException {
+		pm.scan();
+		CountDownLatch changed = new CountDownLatch(1);
+		pm.setChangeListener(p -> changed.countDown());
+		pm.startWatching();
+		try {
+			Files.copy(PLUGIN_JAR, dir.resolve("test.jar"));
+			assertTrue(changed.await(10, TimeUnit.SECONDS));
+			assertNotNull(pm.getPlugins().get(TestPluginTest.NAME));
+		}
+		finally {
+			pm.stopWatching();
+		}
+	}
+
+}
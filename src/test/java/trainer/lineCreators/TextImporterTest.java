@@ -0,0 +1,109 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TextImporterTest {
+	
+	private static final String[] PIECES = {"word", " ", "\n", "  \t", "U\u0308ber",
+			"\u00e9t\u00e9", "\u0308", "\ud835\udc00", "Stra\u00dfe", "\u00a0", "x"};
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path source;
+	private String text;
+	
+	@Before
+	public void setUp() throws IOException {
+		StringBuilder sb = new StringBuilder("\ufeff");
+		SplittableRandom random = new SplittableRandom(5);
+		while(sb.length() < 20_000)
+			sb.append(PIECES[random.nextInt(PIECES.length)]);
+		text = sb.toString();
+		source = folder.newFile("source.txt").toPath();
+		Files.write(source, text.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testImport() throws IOException {
+		Path target = folder.getRoot().toPath().resolve("target.txt");
+		TextImporter importer = new TextImporter("DE");
+		importer.importText(source, target);
+		String expected = TypeableConverter.forCountry("DE").convert(text.substring(1))
+				.trim().replaceAll("\\s+", " ");
+		assertEquals(expected, new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+		assertFalse(Files.exists(folder.getRoot().toPath().resolve("target.txt.import")));
+	}
+	
+	@Test
+	public void testChunksDoNotMatter() throws IOException {
+		Path sequential = folder.getRoot().toPath().resolve("sequential.txt");
+		TextImporter importer = new TextImporter("DE");
+		importer.setParallelism(1);
+		importer.importText(source, sequential);
+		for(int chunkSize : new int[] {1, 7, 100, 4096}) {
+			Path parallel = folder.getRoot().toPath().resolve("parallel" + chunkSize + ".txt");
+			importer = new TextImporter("DE");
+			importer.setChunkSize(chunkSize);
+			importer.setWaveSize(3*chunkSize);
+			importer.setParallelism(4);
+			importer.importText(source, parallel);
+			assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+		}
+	}
+	
+	@Test
+	public void testTextWithoutWhiteSpace() throws IOException {
+		String[] pieces = {"\u4e2d\u6587", "\u3001", "U\u0308", "e\u0301\u0301", "\ud835\udc00",
+				"abc"};
+		StringBuilder sb = new StringBuilder();
+		SplittableRandom random = new SplittableRandom(7);
+		while(sb.length() < 20_000)
+			sb.append(pieces[random.nextInt(pieces.length)]);
+		Files.write(source, sb.toString().getBytes(StandardCharsets.UTF_8));
+		Path sequential = folder.getRoot().toPath().resolve("sequential.txt");
+		new TextImporter("DE").importText(source, sequential);
+		assertEquals(TypeableConverter.forCountry("DE").convert(sb.toString()),
+				new String(Files.readAllBytes(sequential), StandardCharsets.UTF_8));
+		Path parallel = folder.getRoot().toPath().resolve("parallel.txt");
+		TextImporter importer = new TextImporter("DE");
+		importer.setChunkSize(1);
+		importer.setWaveSize(3);
+		importer.setParallelism(4);
+		importer.importText(source, parallel);
+		assertArrayEquals(Files.readAllBytes(sequential), Files.readAllBytes(parallel));
+	}
+	
+	@Test
+	public void testInPlace() throws IOException {
+		Files.write(source, "  Stra\u00dfe  und\n\u00f8l ".getBytes(StandardCharsets.UTF_8));
+		new TextImporter("DE").importText(source, source);
+		assertEquals("Stra\u00dfe und ?l",
+				new String(Files.readAllBytes(source), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void testImportedText() throws IOException {
+		Path target = folder.getRoot().toPath().resolve("target.txt");
+		new TextImporter("DE").importText(source, target);
+		TextLineCreator lc = new TextLineCreator(new MappedTextTokenizer(target));
+		StringBuilder sb = new StringBuilder();
+		while(lc.hasNext())
+			sb.append(lc.create(60).replace('\n', ' ')).append(' ');
+		lc.stop();
+		assertEquals(new String(Files.readAllBytes(target), StandardCharsets.UTF_8),
+				sb.toString().replaceAll("\\s+", " ").trim());
+	}
+
+}
@@ -5,6 +5,8 @@ import static org.junit.Assert.*;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.Test;
 
@@ -58,4 +60,52 @@ public class TextLineCreatorTest {
 		assertEquals("3rd line differs.", "hyphens", line);
 	}
 
+	
+	@Test
+	public void testBookmark() throws IOException {
+		TextLineCreator tlc = createTextLineCreator(text1);
+		assertEquals(new Bookmark(-1, 0), tlc.getBookmark());
+		tlc.create(20);
+		assertEquals(3, tlc.getBookmark().getWordIndex());
+		tlc.create(20);
+		assertEquals(5, tlc.getBookmark().getWordIndex());
+		
+		tlc = createTextLineCreator(text1);
+		tlc.seek(new Bookmark(-1, 3));
+		assertEquals("example text.", tlc.create(20));
+	}
+	
+	@Test
+	public void testBookmarkOfBrokenWord() throws IOException {
+		TextLineCreator tlc = createTextLineCreator(text3);
+		tlc.create(10);
+		// "ne" is the rest of the first word
+		assertEquals(0, tlc.getBookmark().getWordIndex());
+		tlc.create(10);
+		assertEquals(2, tlc.getBookmark().getWordIndex());
+	}
+	
+	@Test
+	public void testMappedBookmark() throws IOException {
+		Path file = Files.createTempFile("TextLineCreatorTest", ".txt");
+		try {
+			Files.write(file, text1.getBytes(persistence.Constants.PROJECT_CHARSET));
+			TextLineCreator tlc = new TextLineCreator(new MappedTextTokenizer(file));
+			assertEquals(new Bookmark(0, 0), tlc.getBookmark());
+			tlc.create(20);
+			Bookmark bookmark = tlc.getBookmark();
+			assertEquals(new Bookmark(20, 3), bookmark);
+			tlc.stop();
+			tlc = new TextLineCreator(new MappedTextTokenizer(file));
+			tlc.seek(bookmark);
+			assertEquals(bookmark, tlc.getBookmark());
+			assertEquals("example text.", tlc.create(20));
+			assertEquals(new Bookmark(-1, 5), tlc.getBookmark());
+			tlc.stop();
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+
 }
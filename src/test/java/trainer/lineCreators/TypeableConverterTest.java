@@ -2,6 +2,13 @@ package trainer.lineCreators;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.text.Normalizer;
+import java.util.SplittableRandom;
+
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -45,5 +52,94 @@ public class TypeableConverterTest {
 		TypeableConverter t = new TypeableConverter("XX");
 		assertEquals(t.convert("aä"), "aa");
 	}
+	
+	// ---- Lookup tables ----
+	@Test
+	public void testForCountry() {
+		assertSame(TypeableConverter.forCountry("DE"), TypeableConverter.forCountry("DE"));
+		assertEquals("\u00e4", TypeableConverter.forCountry("DE").convert("a\u0308"));
+	}
+	
+	@Test
+	public void testSupplementaryChars() {
+		// mathematical bold A, emoji, lone surrogate
+		assertEquals("A??a?", germanyConverter.convert("\ud835\udc00\ud83d\ude00a\ud800"));
+	}
+	
+	/**
+	 * The lookup tables must convert like the rules applied to the normalized text.
+	 */
+	@Test
+	public void testLikeNormalized() {
+		String[] pieces = {"a", "U", "x", " ", "\u00e4", "\u00dc", "\u01d8", "\u022b", "\u00bd",
+				"\ufb00", "\u00f8", "\u00df", "\u00a7", "\u0308", "\u00e9", "\u20ac",
+				"\ud835\udc00", "\u00a0", "\u2044"};
+		SplittableRandom random = new SplittableRandom(7);
+		for(int i=0; i<1000; ++i) {
+			StringBuilder sb = new StringBuilder();
+			for(int j=random.nextInt(12); j>0; --j)
+				sb.append(pieces[random.nextInt(pieces.length)]);
+			String text = sb.toString();
+			assertEquals(text, convertNormalized(text), germanyConverter.convert(text));
+		}
+	}
+	
+	@Test
+	public void testConvertStream() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		SplittableRandom random = new SplittableRandom(3);
+		String[] pieces = {"word ", "U\u0308ber ", "\u00e9t\u00e9 ", "\ud835\udc00 ", "a", "\u0308"};
+		while(sb.length() < 40_000)
+			sb.append(pieces[random.nextInt(pieces.length)]);
+		String text = sb.toString();
+		StringWriter out = new StringWriter();
+		germanyConverter.convert(new StringReader(text), out);
+		assertEquals(germanyConverter.convert(text), out.toString());
+		// Chunks that split accents and surrogate pairs from their letters
+		out = new StringWriter();
+		germanyConverter.convert(new ChunkedReader(text, 3), out);
+		assertEquals(germanyConverter.convert(text), out.toString());
+	}
+	
+	/**
+	 * The conversion rules of the specification for Germany, applied to the normalized text.
+	 */
+	private static String convertNormalized(String text) {
+		StringBuilder sb = new StringBuilder();
+		text = Normalizer.normalize(text, Normalizer.Form.NFKD);
+		for(int i=0; i<text.length(); ++i) {
+			char c = text.charAt(i);
+			if(c <= '\u007F')
+				sb.append(c);
+			else if(c == '\u0308' && sb.length() > 0 && "aouAOU".indexOf(sb.charAt(sb.length()-1)) >= 0)
+				sb.replace(sb.length()-1, sb.length(),
+						Normalizer.normalize(text.substring(i-1, i+1), Normalizer.Form.NFC));
+			else if(c == '\u00df' || c == '\u00a7')
+				sb.append(c);
+			else if(!(c >= '\u0300' && c <= '\u036F'))
+				sb.append('?');
+		}
+		return sb.toString();
+	}
+	
+	private static class ChunkedReader extends Reader {
+		private final Reader in;
+		private final int chunk;
+		
+		ChunkedReader(String text, int chunk) {
+			in = new StringReader(text);
+			this.chunk = chunk;
+		}
+		
+		@Override
+		public int read(char[] cbuf, int off, int len) throws IOException {
+			return in.read(cbuf, off, Math.min(len, chunk));
+		}
+		
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
 
 }
@@ -0,0 +1,83 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WeightedCharSetTest {
+	
+	private WeightedCharSet wcs;
+	
+	@Before
+	public void setUp() {
+		wcs = new WeightedCharSet("abba");
+	}
+
+	@Test
+	public void testBaseWeights() {
+		assertEquals(2, wcs.getWeight('a'));
+		assertEquals(2, wcs.getWeight('b'));
+		assertEquals(0, wcs.getWeight('c'));
+		assertEquals(4, wcs.getTotalWeight());
+	}
+	
+	@Test
+	public void testCumulativeLookup() {
+		wcs.setExtraWeight('a', 1);
+		wcs.setExtraWeight('€', 2); // outside of the dense index
+		// a: [0,3), b: [3,5), €: [5,7)
+		assertEquals('a', wcs.get(0));
+		assertEquals('a', wcs.get(2));
+		assertEquals('b', wcs.get(3));
+		assertEquals('b', wcs.get(4));
+		assertEquals('€', wcs.get(5));
+		assertEquals('€', wcs.get(6));
+		assertEquals(7, wcs.getTotalWeight());
+	}
+	
+	@Test
+	public void testResetExtraWeight() {
+		wcs.setExtraWeight('c', 5);
+		wcs.setExtraWeight('c', 0);
+		wcs.setExtraWeight('a', 3);
+		wcs.setExtraWeight('a', 0);
+		assertEquals(2, wcs.getWeight('a'));
+		assertEquals(4, wcs.getTotalWeight());
+		// zero weight chars are never drawn
+		for(int i=0; i<4; ++i)
+			assertNotEquals('c', wcs.get(i));
+	}
+	
+	@Test
+	public void testGrow() {
+		StringBuilder sb = new StringBuilder();
+		for(char c='a'; c<='z'; ++c)
+			sb.append(c);
+		WeightedCharSet alphabet = new WeightedCharSet(sb.toString());
+		alphabet.setExtraWeight('z', 10);
+		assertEquals(36, alphabet.getTotalWeight());
+		for(int i=0; i<25; ++i)
+			assertEquals((char) ('a'+i), alphabet.get(i));
+		for(int i=25; i<36; ++i)
+			assertEquals('z', alphabet.get(i));
+	}
+	
+	@Test
+	public void testNext() {
+		SplittableRandom random = new SplittableRandom(1);
+		wcs.setExtraWeight('a', 2);
+		for(int i=0; i<100; ++i) {
+			char c = wcs.next(random);
+			assertTrue(c == 'a' || c == 'b');
+		}
+	}
+	
+	@Test(expected=IllegalStateException.class)
+	public void testEmpty() {
+		new WeightedCharSet("").next(new SplittableRandom());
+	}
+
+}
@@ -0,0 +1,106 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WikiDumpLineCreatorTest {
+	
+	private static final String[] ARTICLES = {
+		"{\"id\": \"1\", \"title\": \"First\", \"text\": \"Caf\\u00e9 au lait\\nis good.\"}",
+		"{\"id\": 2, \"meta\": {\"a\": [1, \"}\"]}, \"title\": \"Second\", \"text\": \"Quote \\\"x\\\" here\"}",
+		"{\"title\": \"Third\", \"text\": \"U\u0308ber Stra\u00dfen gehen\"}"
+	};
+	
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	private Path dump;
+	private TypeableConverter converter = new TypeableConverter("DE");
+	
+	@Before
+	public void setUp() throws IOException {
+		dump = folder.getRoot().toPath().resolve("dump.json");
+		Files.write(dump, Arrays.asList(ARTICLES[0], "", ARTICLES[1], "  ", ARTICLES[2]),
+				StandardCharsets.UTF_8);
+	}
+	
+	@Test
+	public void testIndex() throws IOException {
+		WikiDumpIndex index = WikiDumpIndex.open(dump);
+		assertEquals(3, index.size());
+		assertEquals(0, index.getOffset(0));
+		int secondOffset = ARTICLES[0].getBytes(StandardCharsets.UTF_8).length + 2;
+		assertEquals(secondOffset, index.getOffset(1));
+		// The index has been saved and is loaded again
+		Path indexFile = folder.getRoot().toPath().resolve("dump.json" + WikiDumpIndex.SUFFIX);
+		assertTrue(Files.exists(indexFile));
+		WikiDumpIndex loaded = WikiDumpIndex.open(dump);
+		assertEquals(3, loaded.size());
+		assertEquals(secondOffset, loaded.getOffset(1));
+	}
+	
+	@Test
+	public void testOutdatedIndex() throws IOException {
+		WikiDumpIndex.open(dump);
+		Files.write(dump, Arrays.asList(ARTICLES[2]), StandardCharsets.UTF_8);
+		assertEquals(1, WikiDumpIndex.open(dump).size());
+	}
+	
+	/**
+	 * The last line of a text does not end with a newline char.
+	 */
+	@Test
+	public void testArticle() throws IOException {
+		WikiDumpIndex index = WikiDumpIndex.open(dump);
+		WikiDumpLineCreator lc = new WikiDumpLineCreator(dump, index.getOffset(0), converter);
+		assertEquals("First", lc.getTitle());
+		assertEquals("First: Cafe au lait is good.", lc.create(80));
+		assertFalse(lc.hasNext());
+		lc.stop();
+	}
+	
+	@Test
+	public void testSkipFieldsAndEscapes() throws IOException {
+		WikiDumpIndex index = WikiDumpIndex.open(dump);
+		WikiDumpLineCreator lc = new WikiDumpLineCreator(dump, index.getOffset(1), converter);
+		assertEquals("Second: Quote \"x\" here", lc.create(80));
+		lc.stop();
+	}
+	
+	@Test
+	public void testConvert() throws IOException {
+		WikiDumpIndex index = WikiDumpIndex.open(dump);
+		WikiDumpLineCreator lc = new WikiDumpLineCreator(dump, index.getOffset(2), converter);
+		assertEquals("Third: \u00dcber Stra\u00dfen gehen", lc.create(80));
+		lc.stop();
+	}
+	
+	@Test
+	public void testRandomArticle() throws IOException {
+		WikiDumpIndex index = WikiDumpIndex.open(dump);
+		SplittableRandom random = new SplittableRandom(1);
+		for(int i=0; i<10; ++i) {
+			WikiDumpLineCreator lc = new WikiDumpLineCreator(dump, index, converter, random);
+			assertTrue(Arrays.asList("First", "Second", "Third").contains(lc.getTitle()));
+			lc.stop();
+		}
+	}
+	
+	@Test(expected = IOException.class)
+	public void testMalformed() throws IOException {
+		Files.write(dump, Arrays.asList("no json"), StandardCharsets.UTF_8);
+		new WikiDumpLineCreator(dump, 0, converter);
+	}
+
+}
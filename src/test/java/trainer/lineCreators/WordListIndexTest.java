@@ -0,0 +1,80 @@
+package trainer.lineCreators;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+public class WordListIndexTest {
+	
+	private static final String WORDS = "ab\n  ccc\n\nd\neeeee\nff\n";
+	
+	private static WordListIndex parse(String content) throws IOException {
+		return WordListIndex.parse(new ByteArrayInputStream(content.getBytes(
+				persistence.Constants.PROJECT_CHARSET)));
+	}
+
+	@Test
+	public void testBuckets() throws IOException {
+		WordListIndex index = parse(WORDS);
+		assertEquals(5, index.size());
+		assertEquals(1, index.getMinLength());
+		assertEquals(5, index.getMaxLength());
+		assertEquals(0, index.countUpTo(0));
+		assertEquals(1, index.countUpTo(1));
+		assertEquals(3, index.countUpTo(2));
+		assertEquals(4, index.countUpTo(4));
+		assertEquals(5, index.countUpTo(100));
+		assertEquals("d", index.getWord(0));
+		assertEquals("eeeee", index.getWord(4));
+	}
+	
+	@Test
+	public void testRandomWordFits() throws IOException {
+		WordListIndex index = parse(WORDS);
+		SplittableRandom random = new SplittableRandom(1);
+		HashSet<String> drawn = new HashSet<>();
+		for(int i=0; i<100; ++i) {
+			StringBuilder sb = new StringBuilder();
+			int length = index.appendRandomWord(2, random, sb);
+			assertEquals(sb.length(), length);
+			drawn.add(sb.toString());
+		}
+		assertEquals(new HashSet<>(Arrays.asList("d", "ab", "ff")), drawn);
+		assertEquals(0, index.appendRandomWord(0, random, new StringBuilder()));
+	}
+	
+	@Test
+	public void testFileCache() throws IOException {
+		Path file = Files.createTempFile("WordListIndexTest", ".txt");
+		try {
+			Files.write(file, WORDS.getBytes(persistence.Constants.PROJECT_CHARSET));
+			WordListIndex index = WordListIndex.ofFile(file);
+			assertSame(index, WordListIndex.ofFile(file));
+			Files.write(file, "x\ny\n".getBytes(persistence.Constants.PROJECT_CHARSET));
+			Files.setLastModifiedTime(file, FileTime.fromMillis(
+					Files.getLastModifiedTime(file).toMillis() + 2000));
+			WordListIndex changed = WordListIndex.ofFile(file);
+			assertNotSame(index, changed);
+			assertEquals(2, changed.size());
+		}
+		finally {
+			Files.delete(file);
+		}
+	}
+	
+	@Test
+	public void testResourceCache() throws IOException {
+		assertSame(WordListIndex.ofResource("exerciseTxt/middleRow_de.txt"),
+				WordListIndex.ofResource("exerciseTxt/middleRow_de.txt"));
+	}
+
+}
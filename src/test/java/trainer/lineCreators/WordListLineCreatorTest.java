@@ -6,6 +6,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.SplittableRandom;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -50,5 +51,31 @@ public class WordListLineCreatorTest {
 		words[words.length-1] = lastWord; // remove newline at end
 		assertTrue( Arrays.stream(words).allMatch(s-> s.equals(word1) || s.equals(word2)) );
 	}
+	
+	private static WordListIndex parse(String content) throws IOException {
+		return WordListIndex.parse(new ByteArrayInputStream(content.getBytes(
+				persistence.Constants.PROJECT_CHARSET)));
+	}
+	
+	@Test
+	public void testLinesAreFilled() throws IOException {
+		WordListLineCreator lc = new WordListLineCreator(parse("ab\n  ccc\n\nd\neeeee\nff\n"),
+				new SplittableRandom(2));
+		for(int i=0; i<100; ++i) {
+			String line = lc.create(30);
+			// the shortest word has 1 char, so at most 1 char may be left over
+			assertTrue(line, line.length() >= 30 && line.length() <= 31);
+			assertTrue(line.endsWith("\n"));
+			assertFalse(line.contains("  "));
+			assertFalse(line.startsWith(" "));
+		}
+	}
+	
+	@Test
+	public void testTooShortLine() throws IOException {
+		WordListLineCreator lc = new WordListLineCreator(parse("abcdef\n"),
+				new SplittableRandom());
+		assertEquals("abcd\n", lc.create(4));
+	}
 
 }
@@ -0,0 +1,107 @@
+package trainer.simulation;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import trainer.DefaultObjectFactory;
+import trainer.Exercise;
+import trainer.PracticeController;
+import trainer.lineCreators.InitException;
+import trainer.lineCreators.LineCreatorFactory.ImplementationNotFound;
+
+public class SimulationEngineTest {
+	
+	private static final int MAX_LINE_LENGTH = 30;
+	
+	@Test
+	public void testCharLimit() throws ImplementationNotFound, InitException {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		SimulationEngine engine = new SimulationEngine(exercise, MAX_LINE_LENGTH,
+				new FixedErrorTypist(0, "", LatencyDistribution.constant(200)));
+		AtomicInteger observed = new AtomicInteger();
+		engine.setSessionObserver((seed, pc) -> {
+			assertEquals(PracticeController.State.REG_STOPPED, pc.getState());
+			observed.incrementAndGet();
+		});
+		SimulationResult result = engine.run(50, 1);
+		assertEquals(50, result.getSessions());
+		assertEquals(50, observed.get());
+		assertEquals(50, result.getRegStoppedSessions());
+		assertEquals(50*20, result.getKeystrokes());
+		assertEquals(0, result.getErrors());
+		assertEquals(20*200, result.getMeanRequiredTime(), 0);
+		assertTrue(result.getKeystrokesPerSecond() > 0);
+	}
+	
+	@Test
+	public void testTimeLimit() throws ImplementationNotFound, InitException {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		exercise.setLimitType(Exercise.LimitType.TIME);
+		exercise.setLimitUnits(60);
+		SimulationEngine engine = new SimulationEngine(exercise, MAX_LINE_LENGTH,
+				new FixedErrorTypist(0, "", LatencyDistribution.constant(250)));
+		SimulationResult result = engine.run(4, 1);
+		assertEquals(4, result.getRegStoppedSessions());
+		assertEquals(60_000, result.getMeanRequiredTime(), 0);
+		// 4 keystrokes per second, the last one is not typed any more
+		assertEquals(4*(60*4-1), result.getKeystrokes());
+	}
+	
+	@Test
+	public void testMaxKeystrokes() throws ImplementationNotFound, InitException {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		exercise.setLimitUnits(1000);
+		SimulationEngine engine = new SimulationEngine(exercise, MAX_LINE_LENGTH,
+				new FixedErrorTypist(0, "", LatencyDistribution.constant(200)));
+		engine.setMaxKeystrokes(100);
+		SimulationResult result = engine.run(3, 1);
+		assertEquals(0, result.getRegStoppedSessions());
+		assertEquals(300, result.getKeystrokes());
+	}
+	
+	@Test
+	public void testSameSeedSameResult() throws ImplementationNotFound, InitException {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		exercise.setLineCreatorType("ADAPT_RAND");
+		exercise.setLimitUnits(200);
+		TypistModel typist = new FixedErrorTypist(0.1, "abcdefg",
+				LatencyDistribution.logNormal(180, 0.4));
+		SimulationEngine engine = new SimulationEngine(exercise, MAX_LINE_LENGTH, typist);
+		engine.setParallelism(1);
+		SimulationResult sequential = engine.run(20, 7);
+		engine.setParallelism(4);
+		SimulationResult parallel = engine.run(20, 7);
+		assertEquals(sequential.getKeystrokes(), parallel.getKeystrokes());
+		assertEquals(sequential.getErrors(), parallel.getErrors());
+		assertEquals(sequential.getMeanRequiredTime(), parallel.getMeanRequiredTime(), 0);
+		assertEquals(0.1, sequential.getErrorRate(), 0.03);
+	}
+	
+	@Test
+	public void testConfusionTypist() throws ImplementationNotFound, InitException {
+		Exercise exercise = DefaultObjectFactory.getExercise();
+		exercise.setParam("a");
+		exercise.setLimitUnits(1000);
+		ConfusionTypist typist = new ConfusionTypist(LatencyDistribution.constant(100));
+		typist.setConfusion('a', 's', 0.2);
+		typist.setConfusion('a', 'q', 0.2);
+		SimulationEngine engine = new SimulationEngine(exercise, MAX_LINE_LENGTH, typist);
+		AtomicInteger hits = new AtomicInteger();
+		AtomicInteger errors = new AtomicInteger();
+		AtomicInteger wrong = new AtomicInteger();
+		engine.setSessionObserver((seed, pc) -> {
+			hits.addAndGet(pc.getPerformanceStats().getHits('a'));
+			errors.addAndGet(pc.getPerformanceStats().getErrors('a'));
+			wrong.addAndGet(pc.getPerformanceStats().getWrongTyped('s')
+					+ pc.getPerformanceStats().getWrongTyped('q'));
+		});
+		SimulationResult result = engine.run(10, 3);
+		assertEquals(errors.get(), result.getErrors());
+		assertEquals(errors.get(), wrong.get());
+		assertEquals(0.4, (double) errors.get()/(hits.get()+errors.get()), 0.03);
+	}
+
+}
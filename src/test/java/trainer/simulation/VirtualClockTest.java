@@ -0,0 +1,41 @@
+package trainer.simulation;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import trainer.SimpleTimerInterface;
+
+public class VirtualClockTest {
+
+	@Test
+	public void testTimer() {
+		VirtualClock clock = new VirtualClock(1000);
+		AtomicInteger calls = new AtomicInteger();
+		SimpleTimerInterface timer = clock.createTimer(10, calls::incrementAndGet);
+		clock.advance(5_000_000);
+		timer.start();
+		clock.advance(9_000_000);
+		assertEquals(0, calls.get());
+		assertEquals(1014, clock.currentTimeMillis());
+		clock.advance(1_000_000);
+		assertEquals(1, calls.get());
+		clock.advance(100_000_000);
+		assertEquals(1, calls.get());
+	}
+	
+	@Test
+	public void testStoppedTimer() {
+		VirtualClock clock = new VirtualClock();
+		AtomicInteger calls = new AtomicInteger();
+		SimpleTimerInterface timer = clock.createTimer(1, calls::incrementAndGet);
+		timer.start();
+		timer.stop();
+		clock.advance(2_000_000);
+		assertEquals(0, calls.get());
+		assertEquals(2_000_000, clock.nanoTime());
+	}
+
+}